@@ -0,0 +1,173 @@
+package com.sasken.skillsync.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.ConcurrencyThrottleSupport;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Named, bounded executors for work that must not run on request threads. Each one has its own
+ * queue limit and overload behaviour, propagates MDC and security context, publishes queue depth
+ * and task timings under skillsync.async.*, and finishes its queued tasks when the context closes.
+ *
+ * Sizes and policies are read from async.executors.&lt;name&gt;.*; the rejection policy is one of
+ * abort (the caller gets a TaskRejectedException), caller-runs or discard.
+ *
+ * With spring.threads.virtual.enabled on JDK 21+ every task gets its own virtual thread instead.
+ * Blocking JDBC and SMTP calls then no longer hold a pool thread, and the connection pool becomes
+ * the limit on database concurrency. Executors doing CPU-heavy work keep an explicit limit through
+ * async.executors.&lt;name&gt;.virtual-concurrency-limit; above it, submitters wait for a free slot.
+ */
+@Configuration
+public class AsyncConfig implements AsyncConfigurer {
+
+    public static final String EMAIL_EXECUTOR = "emailExecutor";
+    public static final String PDF_EXECUTOR = "pdfExecutor";
+    public static final String REPORTS_EXECUTOR = "reportsExecutor";
+    public static final String EVENTS_EXECUTOR = "eventsExecutor";
+    public static final String DASHBOARD_EXECUTOR = "dashboardExecutor";
+    public static final String BATCH_EXECUTOR = "batchExecutor";
+    public static final String STREAMING_EXECUTOR = "streamingExecutor";
+    public static final String CUBE_EXECUTOR = "cubeExecutor";
+
+    private static final int UNLIMITED = ConcurrencyThrottleSupport.UNBOUNDED_CONCURRENCY;
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public AsyncConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Best effort: a dropped email is logged and counted rather than slowing the request down
+    @Bean(name = EMAIL_EXECUTOR)
+    public AsyncTaskExecutor emailExecutor() {
+        return executor("email", 2, 4, 500, "discard", UNLIMITED);
+    }
+
+    @Bean(name = PDF_EXECUTOR)
+    public AsyncTaskExecutor pdfExecutor() {
+        return executor("pdf", 2, 2, 50, "abort", 2);
+    }
+
+    @Bean(name = REPORTS_EXECUTOR)
+    public AsyncTaskExecutor reportsExecutor() {
+        return executor("reports", 1, 2, 20, "abort", 2);
+    }
+
+    // Domain event side effects must not be lost, so a saturated pool pushes back on the publisher
+    @Bean(name = EVENTS_EXECUTOR)
+    public AsyncTaskExecutor eventsExecutor() {
+        return executor("events", 4, 8, 2000, "caller-runs", UNLIMITED);
+    }
+
+    // Dashboard parts are read concurrently for a waiting request; a full queue fails the part, not the page
+    @Bean(name = DASHBOARD_EXECUTOR)
+    public AsyncTaskExecutor dashboardExecutor() {
+        return executor("dashboard", 8, 8, 400, "abort", UNLIMITED);
+    }
+
+    @Bean(name = BATCH_EXECUTOR)
+    public AsyncTaskExecutor batchExecutor() {
+        return executor("batch", 4, 8, 200, "abort", UNLIMITED);
+    }
+
+    // Writes StreamingResponseBody exports; each task holds a connection for the whole export, so keep it small
+    @Bean(name = STREAMING_EXECUTOR)
+    public AsyncTaskExecutor streamingExecutor() {
+        return executor("streaming", 2, 2, 10, "abort", 2);
+    }
+
+    // Scans id ranges of one table each while the training cube is rebuilt; a full queue scans on the caller
+    @Bean(name = CUBE_EXECUTOR)
+    public AsyncTaskExecutor cubeExecutor() {
+        return executor("cube", 4, 4, 16, "caller-runs", 4);
+    }
+
+    // Used by a plain @Async without an executor name
+    @Override
+    public Executor getAsyncExecutor() {
+        return eventsExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (e, method, params) -> {
+            meterRegistry.counter("skillsync.async.failures", "method", method.getName()).increment();
+            logger.error("Async method {} failed", method.getName(), e);
+        };
+    }
+
+    private AsyncTaskExecutor executor(String name, int coreSize, int maxSize, int queueCapacity,
+                                       String rejectionPolicy, int virtualConcurrencyLimit) {
+        String prefix = "async.executors." + name + ".";
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return virtualThreadExecutor(name, environment.getProperty(
+                    prefix + "virtual-concurrency-limit", Integer.class, virtualConcurrencyLimit));
+        }
+        String policy = environment.getProperty(prefix + "rejection-policy", rejectionPolicy);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(name + "-");
+        executor.setCorePoolSize(environment.getProperty(prefix + "core-size", Integer.class, coreSize));
+        executor.setMaxPoolSize(environment.getProperty(prefix + "max-size", Integer.class, maxSize));
+        executor.setQueueCapacity(environment.getProperty(prefix + "queue-capacity", Integer.class, queueCapacity));
+        executor.setRejectedExecutionHandler(countingRejections(name, policy));
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator(name, meterRegistry));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(environment.getProperty(prefix + "await-termination-seconds", Integer.class, 30));
+
+        Gauge.builder("skillsync.async.queue.depth", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .tag("executor", name).register(meterRegistry);
+        Gauge.builder("skillsync.async.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("executor", name).register(meterRegistry);
+        Gauge.builder("skillsync.async.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .tag("executor", name).register(meterRegistry);
+        return executor;
+    }
+
+    private AsyncTaskExecutor virtualThreadExecutor(String name, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(name + "-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator(name, meterRegistry));
+        executor.setTaskTerminationTimeout(environment.getProperty(
+                "async.executors." + name + ".await-termination-seconds", Integer.class, 30) * 1000L);
+        logger.info("Executor {} runs tasks on virtual threads (concurrency limit {})", name,
+                concurrencyLimit == UNLIMITED ? "none" : concurrencyLimit);
+        return executor;
+    }
+
+    private RejectedExecutionHandler countingRejections(String name, String policy) {
+        RejectedExecutionHandler delegate = switch (policy) {
+            case "abort" -> new ThreadPoolExecutor.AbortPolicy();
+            case "caller-runs" -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case "discard" -> (runnable, executor) -> logger.warn("Executor {} is saturated, discarding task", name);
+            default -> throw new IllegalArgumentException("Unknown rejection policy for executor " + name + ": " + policy);
+        };
+        Counter rejected = meterRegistry.counter("skillsync.async.rejected", "executor", name, "policy", policy);
+
+        return (runnable, executor) -> {
+            rejected.increment();
+            delegate.rejectedExecution(runnable, executor);
+        };
+    }
+}
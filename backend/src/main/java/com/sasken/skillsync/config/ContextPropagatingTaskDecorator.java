@@ -0,0 +1,59 @@
+package com.sasken.skillsync.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries the submitting thread's logging MDC and security context over to the pool thread, and
+ * times how long each task waited in the queue and how long it ran. The worker's previous
+ * context is restored afterwards so nothing leaks into the next task on that thread.
+ */
+public class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+    private final Timer queueWait;
+    private final Timer execution;
+
+    public ContextPropagatingTaskDecorator(String executorName, MeterRegistry meterRegistry) {
+        this.queueWait = meterRegistry.timer("skillsync.async.queue.wait", "executor", executorName);
+        this.execution = meterRegistry.timer("skillsync.async.task.duration", "executor", executorName);
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        long submittedAt = System.nanoTime();
+
+        return () -> {
+            queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            SecurityContext previousSecurityContext = SecurityContextHolder.getContext();
+            setMdc(mdc);
+            SecurityContext propagated = SecurityContextHolder.createEmptyContext();
+            propagated.setAuthentication(securityContext.getAuthentication());
+            SecurityContextHolder.setContext(propagated);
+            try {
+                execution.record(task);
+            } finally {
+                setMdc(previousMdc);
+                SecurityContextHolder.setContext(previousSecurityContext);
+            }
+        };
+    }
+
+    private static void setMdc(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.sasken.skillsync.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns on cursor fetch for every Hikari pool that connects to MySQL: the auto-configured one as
+ * well as the primary and replica pools built for read routing. Connector/J ignores the fetch size
+ * and reads the whole result into memory unless cursor fetch is on, which would make the streamed
+ * exports buffer every row. A useCursorFetch set explicitly in the pool's data source properties
+ * is left as it is.
+ */
+@Component
+public class MySqlCursorFetchPostProcessor implements BeanPostProcessor {
+
+    private static final String USE_CURSOR_FETCH = "useCursorFetch";
+
+    // After initialization, so the pool's configuration properties are already bound
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource
+                && dataSource.getJdbcUrl() != null && dataSource.getJdbcUrl().startsWith("jdbc:mysql:")
+                && !dataSource.getDataSourceProperties().containsKey(USE_CURSOR_FETCH)) {
+            dataSource.addDataSourceProperty(USE_CURSOR_FETCH, "true");
+        }
+        return bean;
+    }
+}
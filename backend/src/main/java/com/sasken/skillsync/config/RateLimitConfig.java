@@ -0,0 +1,62 @@
+package com.sasken.skillsync.config;
+
+import com.sasken.skillsync.security.RateLimitFilter;
+import com.sasken.skillsync.security.RateLimitPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class RateLimitConfig {
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.max-keys:10000}")
+    private int maxKeys;
+
+    @Value("${rate-limit.notifications.capacity:30}")
+    private long notificationsCapacity;
+
+    @Value("${rate-limit.notifications.refill-per-second:1}")
+    private double notificationsRefillPerSecond;
+
+    @Value("${rate-limit.progress-update.capacity:20}")
+    private long progressUpdateCapacity;
+
+    @Value("${rate-limit.progress-update.refill-per-second:2}")
+    private double progressUpdateRefillPerSecond;
+
+    @Value("${rate-limit.default.capacity:200}")
+    private long defaultCapacity;
+
+    @Value("${rate-limit.default.refill-per-second:50}")
+    private double defaultRefillPerSecond;
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(MeterRegistry meterRegistry) {
+        List<RateLimitPolicy> policies = new ArrayList<>();
+        if (enabled) {
+            // Order matters: the first matching pattern wins
+            policies.add(new RateLimitPolicy("notifications", "/api/notifications/**",
+                    notificationsCapacity, notificationsRefillPerSecond));
+            policies.add(new RateLimitPolicy("progress-update", "/progress/update-progress",
+                    progressUpdateCapacity, progressUpdateRefillPerSecond));
+            policies.add(new RateLimitPolicy("default", "/**", defaultCapacity, defaultRefillPerSecond));
+        }
+        return new RateLimitFilter(policies, maxKeys, meterRegistry);
+    }
+
+    // The filter runs inside the security chain (after JWT authentication), not as a plain servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
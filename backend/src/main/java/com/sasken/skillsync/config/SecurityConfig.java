@@ -2,7 +2,12 @@ package com.sasken.skillsync.config;
 
 import com.sasken.skillsync.security.JwtAuthenticationFilter;
 import com.sasken.skillsync.security.JwtAuthenticationEntryPoint;
+import com.sasken.skillsync.security.PasswordHashingExecutor;
+import com.sasken.skillsync.security.PooledPasswordEncoder;
+import com.sasken.skillsync.security.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,6 +34,18 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationEntryPoint unauthorizedHandler;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
         return new JwtAuthenticationFilter();
@@ -36,7 +53,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new PooledPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), passwordHashingExecutor, meterRegistry);
     }
 
     @Bean
@@ -60,6 +77,9 @@ public class SecurityConfig {
         // Add JWT filter
         http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
 
+        // Rate limit once the caller is known, so authenticated users get their own bucket
+        http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
+
         return http.build();
     }
 
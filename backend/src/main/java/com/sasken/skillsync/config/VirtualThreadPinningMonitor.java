@@ -0,0 +1,78 @@
+package com.sasken.skillsync.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier while blocking, which happens inside
+ * synchronized blocks and native frames. A pinned thread occupies one of the few carrier threads,
+ * so frequent pinning quietly brings back the platform-thread concurrency limit. Each occurrence
+ * above the threshold is logged with the frames that caused it and counted under
+ * skillsync.virtual.pinned; only active in virtual-thread mode.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Counter pinned;
+    private final Timer pinnedDuration;
+    private final Duration threshold;
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${virtual-threads.pinning.threshold-ms:20}") long thresholdMs) {
+        this.pinned = meterRegistry.counter("skillsync.virtual.pinned");
+        this.pinnedDuration = meterRegistry.timer("skillsync.virtual.pinned.duration");
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::report);
+        recording.startAsync();
+        logger.info("Watching for virtual threads pinned longer than {}ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        pinned.increment();
+        pinnedDuration.record(event.getDuration());
+
+        String frames = event.getStackTrace() == null ? "no stack trace" : event.getStackTrace().getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::describe)
+                .collect(Collectors.joining("\n\tat "));
+        logger.warn("Virtual thread pinned to its carrier for {}ms:\n\tat {}", event.getDuration().toMillis(), frames);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
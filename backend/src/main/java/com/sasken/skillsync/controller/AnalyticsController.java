@@ -0,0 +1,55 @@
+package com.sasken.skillsync.controller;
+
+import com.sasken.skillsync.exception.BadRequestException;
+import com.sasken.skillsync.model.Course;
+import com.sasken.skillsync.service.AnalyticsSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+@RestController
+@RequestMapping("/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    @Autowired
+    private AnalyticsSnapshot analyticsSnapshot;
+
+    // Served from the analytics snapshot, so figures can be up to one refresh interval old
+    @GetMapping("/progress")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<AnalyticsSnapshot.Result> getProgressAnalytics(@RequestParam String groupBy,
+                                                                        @RequestParam(required = false) String department,
+                                                                        @RequestParam(required = false) Course.CourseCategory category,
+                                                                        @RequestParam(required = false) Long courseId,
+                                                                        @RequestParam(required = false) String startedFrom,
+                                                                        @RequestParam(required = false) String startedTo) {
+        AnalyticsSnapshot.Filter filter = new AnalyticsSnapshot.Filter(department, category, courseId,
+                month("startedFrom", startedFrom), month("startedTo", startedTo));
+        return ResponseEntity.ok(analyticsSnapshot.query(dimension(groupBy), filter));
+    }
+
+    private static AnalyticsSnapshot.Dimension dimension(String groupBy) {
+        try {
+            return AnalyticsSnapshot.Dimension.valueOf(groupBy.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("groupBy must be one of " + Arrays.toString(AnalyticsSnapshot.Dimension.values()));
+        }
+    }
+
+    private static YearMonth month(String name, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException(name + " must be a month such as 2024-03");
+        }
+    }
+}
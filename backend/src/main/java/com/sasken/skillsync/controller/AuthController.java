@@ -5,6 +5,8 @@ import com.sasken.skillsync.model.User;
 import com.sasken.skillsync.repository.UserRepository;
 import com.sasken.skillsync.security.CustomUserDetails;
 import com.sasken.skillsync.security.JwtTokenProvider;
+import com.sasken.skillsync.security.LoginMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -35,6 +37,9 @@ public class AuthController {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
@@ -45,10 +50,11 @@ public class AuthController {
         );
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
+        String jwt = LoginMetrics.phaseTimer(meterRegistry, LoginMetrics.PHASE_TOKEN)
+                .record(() -> tokenProvider.generateToken(authentication));
         
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-        UserDto userDto = new UserDto(userRepository.findById(userDetails.getId()).orElse(null));
+        UserDto userDto = new UserDto(userDetails.getUser());
 
         Map<String, Object> response = new HashMap<>();
         response.put("token", jwt);
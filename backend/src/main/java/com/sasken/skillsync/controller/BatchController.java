@@ -0,0 +1,304 @@
+package com.sasken.skillsync.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sasken.skillsync.config.AsyncConfig;
+import com.sasken.skillsync.exception.BadRequestException;
+import com.sasken.skillsync.security.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs a list of sub-requests through the DispatcherServlet in-process and returns all responses
+ * in one body, so a screen that needs dozens of small reads pays for one round trip. Each entry
+ * still goes through handler mapping, method security and the exception handlers.
+ *
+ * Entries run in order, except that consecutive GETs form a group that is executed in parallel:
+ * the group is split into up to batch.parallelism slices, and each slice runs in one read-only
+ * transaction, so its reads share a connection and a persistence context. Any other method is
+ * a barrier and runs on its own, after everything before it has finished.
+ *
+ * Sub-requests do not pass through the servlet filters, so before anything runs each entry is
+ * charged against the rate limit policy for its own path, in order; an entry whose bucket is
+ * empty is answered with 429 and skipped. The path is decoded the same way as for a request that
+ * does pass the filter, so an encoded path cannot reach a handler under another policy.
+ */
+@RestController
+@RequestMapping("/batch")
+@CrossOrigin(origins = "*")
+public class BatchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchController.class);
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "PATCH", "DELETE");
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Autowired
+    private DispatcherServlet dispatcherServlet;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier(AsyncConfig.BATCH_EXECUTOR)
+    private AsyncTaskExecutor batchExecutor;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${batch.max-requests:25}")
+    private int maxRequests;
+
+    @Value("${batch.parallelism:4}")
+    private int parallelism;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> execute(@RequestBody BatchRequest batch,
+                                                       HttpServletRequest request,
+                                                       HttpServletResponse response) {
+        List<SubRequest> entries = validate(batch);
+        meterRegistry.summary("skillsync.batch.size").record(entries.size());
+
+        SubResult[] results = new SubResult[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            results[i] = throttle(entries.get(i), request);
+        }
+
+        List<Integer> reads = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            if ("GET".equals(entries.get(i).getMethod())) {
+                reads.add(i);
+                continue;
+            }
+            runReads(reads, entries, results, request, response);
+            reads.clear();
+            results[i] = dispatch(entries.get(i), request, response);
+        }
+        runReads(reads, entries, results, request, response);
+
+        return ResponseEntity.ok(Map.of("responses", List.of(results)));
+    }
+
+    private List<SubRequest> validate(BatchRequest batch) {
+        List<SubRequest> entries = batch == null ? null : batch.getRequests();
+        if (entries == null || entries.isEmpty()) {
+            throw new BadRequestException("A batch needs at least one request");
+        }
+        if (entries.size() > maxRequests) {
+            throw new BadRequestException("A batch may contain at most " + maxRequests + " requests");
+        }
+        for (SubRequest entry : entries) {
+            entry.setMethod(entry.getMethod() == null ? "GET" : entry.getMethod().toUpperCase());
+            if (!METHODS.contains(entry.getMethod())) {
+                throw new BadRequestException("Unsupported method in batch: " + entry.getMethod());
+            }
+            String path = entry.getPath();
+            // The container normalizes dot segments of real requests, but sub-request paths are taken as given
+            if (path == null || !path.startsWith("/") || path.startsWith("//") || path.startsWith("/batch")
+                    || hasDotSegment(path)) {
+                throw new BadRequestException("Invalid path in batch: " + path);
+            }
+        }
+        return entries;
+    }
+
+    private static boolean hasDotSegment(String path) {
+        int query = path.indexOf('?');
+        for (String segment : (query < 0 ? path : path.substring(0, query)).split("/")) {
+            if (segment.equals(".") || segment.equals("..")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private SubResult throttle(SubRequest entry, HttpServletRequest request) {
+        BatchSubRequest subRequest = new BatchSubRequest(request, entry.getMethod(), entry.getPath(), entry.getHeaders(), new byte[0]);
+        long waitNanos = rateLimitFilter.tryAcquire(urlPathHelper.getPathWithinApplication(subRequest), request);
+        if (waitNanos == 0) {
+            return null;
+        }
+        long retryAfterSeconds = RateLimitFilter.retryAfterSeconds(waitNanos);
+        SubResult result = new SubResult();
+        result.setId(entry.getId());
+        result.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        result.setHeaders(Map.of(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds)));
+        result.setBody(Map.of("status", HttpStatus.TOO_MANY_REQUESTS.value(), "error", "Too Many Requests",
+                "message", RateLimitFilter.message(retryAfterSeconds)));
+        return result;
+    }
+
+    private void runReads(List<Integer> reads, List<SubRequest> entries, SubResult[] results,
+                          HttpServletRequest request, HttpServletResponse response) {
+        if (reads.isEmpty()) {
+            return;
+        }
+        int sliceCount = Math.max(1, Math.min(parallelism, reads.size()));
+        List<List<Integer>> slices = new ArrayList<>();
+        for (int i = 0; i < sliceCount; i++) {
+            slices.add(new ArrayList<>());
+        }
+        for (int i = 0; i < reads.size(); i++) {
+            slices.get(i % sliceCount).add(reads.get(i));
+        }
+
+        // The request thread takes the first slice itself instead of waiting idle
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        for (List<Integer> slice : slices.subList(1, slices.size())) {
+            try {
+                running.add(CompletableFuture.runAsync(
+                        () -> runSlice(slice, entries, results, request, response), batchExecutor));
+            } catch (TaskRejectedException e) {
+                // A rejected batch slice is simply run by the request thread
+                runSlice(slice, entries, results, request, response);
+            }
+        }
+        runSlice(slices.get(0), entries, results, request, response);
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void runSlice(List<Integer> slice, List<SubRequest> entries, SubResult[] results,
+                          HttpServletRequest request, HttpServletResponse response) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            readOnly.executeWithoutResult(status -> {
+                for (int index : slice) {
+                    results[index] = dispatch(entries.get(index), request, response);
+                }
+            });
+        } catch (TransactionException e) {
+            // A failing entry may have marked the shared transaction rollback-only; its answer is already recorded.
+            // Entries that never ran, because the transaction could not begin, are answered as unavailable.
+            logger.debug("Batch read transaction ended with {}", e.getMessage());
+            for (int index : slice) {
+                if (results[index] == null) {
+                    results[index] = unavailable(entries.get(index), e);
+                }
+            }
+        }
+    }
+
+    private static SubResult unavailable(SubRequest entry, TransactionException e) {
+        SubResult result = new SubResult();
+        result.setId(entry.getId());
+        result.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        result.setHeaders(Map.of());
+        result.setBody(Map.of("message", "Request not run: " + e.getMessage()));
+        return result;
+    }
+
+    private SubResult dispatch(SubRequest entry, HttpServletRequest request, HttpServletResponse response) {
+        SubResult result = new SubResult();
+        result.setId(entry.getId());
+        try {
+            byte[] body = entry.getBody() == null || entry.getBody().isNull()
+                    ? new byte[0] : objectMapper.writeValueAsBytes(entry.getBody());
+            BatchSubRequest subRequest = new BatchSubRequest(request, entry.getMethod(), entry.getPath(), entry.getHeaders(), body);
+            BatchSubResponse subResponse = new BatchSubResponse(response);
+            dispatcherServlet.service(subRequest, subResponse);
+
+            result.setStatus(subResponse.getStatus());
+            Map<String, String> headers = new LinkedHashMap<>();
+            subResponse.getHeaderMap().forEach((name, values) -> headers.put(name, String.join(", ", values)));
+            result.setHeaders(headers);
+            result.setBody(readBody(subResponse));
+        } catch (Exception e) {
+            logger.warn("Batch entry {} {} failed", entry.getMethod(), entry.getPath(), e);
+            result.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            result.setHeaders(Map.of());
+            result.setBody(Map.of("message", "Request failed: " + e.getMessage()));
+        }
+        return result;
+    }
+
+    private Object readBody(BatchSubResponse subResponse) throws Exception {
+        byte[] body = subResponse.getBody();
+        if (body.length == 0) {
+            return null;
+        }
+        String contentType = subResponse.getContentType();
+        if (contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return objectMapper.readTree(body);
+        }
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    // DTO classes
+    public static class BatchRequest {
+        private List<SubRequest> requests;
+
+        public List<SubRequest> getRequests() { return requests; }
+        public void setRequests(List<SubRequest> requests) { this.requests = requests; }
+    }
+
+    public static class SubRequest {
+        private String id;
+        private String method = "GET";
+        private String path;
+        private Map<String, String> headers;
+        private JsonNode body;
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+        public Map<String, String> getHeaders() { return headers; }
+        public void setHeaders(Map<String, String> headers) { this.headers = headers; }
+        public JsonNode getBody() { return body; }
+        public void setBody(JsonNode body) { this.body = body; }
+    }
+
+    public static class SubResult {
+        private String id;
+        private int status;
+        private Map<String, String> headers;
+        private Object body;
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public int getStatus() { return status; }
+        public void setStatus(int status) { this.status = status; }
+        public Map<String, String> getHeaders() { return headers; }
+        public void setHeaders(Map<String, String> headers) { this.headers = headers; }
+        public Object getBody() { return body; }
+        public void setBody(Object body) { this.body = body; }
+    }
+}
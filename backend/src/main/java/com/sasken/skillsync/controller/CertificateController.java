@@ -5,8 +5,10 @@ import com.sasken.skillsync.model.Enrollment;
 import com.sasken.skillsync.model.User;
 import com.sasken.skillsync.repository.CertificateRepository;
 import com.sasken.skillsync.repository.EnrollmentRepository;
+import com.sasken.skillsync.repository.FieldProjectionRepository;
 import com.sasken.skillsync.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -32,14 +34,25 @@ public class CertificateController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private FieldProjectionRepository fieldProjectionRepository;
+
     @GetMapping
-    public ResponseEntity<List<Certificate>> getAllCertificates() {
+    public ResponseEntity<?> getAllCertificates(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Certificate.class, fields, null, Sort.by("id")));
+        }
         List<Certificate> certificates = certificateRepository.findAll();
         return ResponseEntity.ok(certificates);
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Certificate>> getCertificatesByUser(@PathVariable Long userId) {
+    public ResponseEntity<?> getCertificatesByUser(@PathVariable Long userId,
+                                                   @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Certificate.class, fields,
+                    (root, query, cb) -> cb.equal(root.get("user").get("id"), userId), Sort.by("id")));
+        }
         List<Certificate> certificates = certificateRepository.findByUserId(userId);
         return ResponseEntity.ok(certificates);
     }
@@ -0,0 +1,93 @@
+package com.sasken.skillsync.controller;
+
+import com.sasken.skillsync.exception.BadRequestException;
+import com.sasken.skillsync.model.ChangeLogEntry;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Incremental feed of created, updated and deleted users, courses, enrollments, progress rows and
+ * certificates, for integrations that would otherwise pull full lists. A client starts without a
+ * token, then passes the returned {@code next} token to get what changed since; entries come in
+ * commit order and reference records by id. The same record can appear more than once.
+ */
+@RestController
+@RequestMapping("/changes")
+@CrossOrigin(origins = "*")
+public class ChangeFeedController {
+
+    private static final String TOKEN_PREFIX = "v1:";
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Value("${changes.page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${changes.max-page-size:1000}")
+    private int maxPageSize;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<ChangePage> getChanges(@RequestParam(required = false) String since,
+                                                 @RequestParam(required = false) Integer limit) {
+        int pageSize = limit != null ? limit : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new BadRequestException("limit must be between 1 and " + maxPageSize);
+        }
+        long position = since != null ? decode(since) : 0;
+
+        List<ChangeLogEntry> changes = changeLogRepository.findAfter(position, pageSize);
+        if (!changes.isEmpty()) {
+            position = changes.get(changes.size() - 1).getPosition();
+        }
+
+        ChangePage page = new ChangePage();
+        page.setChanges(changes);
+        page.setNext(encode(position));
+        page.setHasMore(changes.size() == pageSize);
+        return ResponseEntity.ok(page);
+    }
+
+    private static String encode(long position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((TOKEN_PREFIX + position).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (decoded.startsWith(TOKEN_PREFIX)) {
+                long position = Long.parseLong(decoded.substring(TOKEN_PREFIX.length()));
+                if (position >= 0) {
+                    return position;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the error below; NumberFormatException is an IllegalArgumentException
+        }
+        throw new BadRequestException("Invalid change token");
+    }
+
+    // DTO classes
+    public static class ChangePage {
+        private List<ChangeLogEntry> changes;
+        private String next;
+        private boolean hasMore;
+
+        public List<ChangeLogEntry> getChanges() { return changes; }
+        public void setChanges(List<ChangeLogEntry> changes) { this.changes = changes; }
+        public String getNext() { return next; }
+        public void setNext(String next) { this.next = next; }
+        public boolean isHasMore() { return hasMore; }
+        public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+    }
+}
@@ -0,0 +1,77 @@
+package com.sasken.skillsync.controller;
+
+import com.sasken.skillsync.model.Course;
+import com.sasken.skillsync.repository.CourseRepository;
+import com.sasken.skillsync.service.ComplianceRollup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/compliance")
+@CrossOrigin(origins = "*")
+public class ComplianceController {
+
+    @Autowired
+    private ComplianceRollup complianceRollup;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    // One row per active mandatory course
+    @GetMapping("/departments/{department}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<List<CourseCompliance>> getDepartmentCompliance(@PathVariable String department) {
+        List<Course> courses = courseRepository.findActiveMandatoryCourses();
+        Map<Long, ComplianceRollup.Counts> counts =
+                complianceRollup.getCounts(department, courses.stream().map(Course::getId).toList());
+
+        List<CourseCompliance> result = new ArrayList<>();
+        for (Course course : courses) {
+            result.add(new CourseCompliance(department, course, counts.get(course.getId())));
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/departments/{department}/courses/{courseId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CourseCompliance> getCourseCompliance(@PathVariable String department,
+                                                                @PathVariable Long courseId) {
+        return courseRepository.findById(courseId)
+                .map(course -> ResponseEntity.ok(new CourseCompliance(department, course,
+                        complianceRollup.getCounts(department, courseId))))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // DTO classes
+    public static class CourseCompliance {
+        private final String department;
+        private final Long courseId;
+        private final String courseTitle;
+        private final ComplianceRollup.Counts counts;
+
+        CourseCompliance(String department, Course course, ComplianceRollup.Counts counts) {
+            this.department = department;
+            this.courseId = course.getId();
+            this.courseTitle = course.getTitle();
+            this.counts = counts;
+        }
+
+        public String getDepartment() { return department; }
+        public Long getCourseId() { return courseId; }
+        public String getCourseTitle() { return courseTitle; }
+        public int getEnrolled() { return counts.enrolled(); }
+        public int getInProgress() { return counts.inProgress(); }
+        public int getCompleted() { return counts.completed(); }
+        public int getOverdue() { return counts.overdue(); }
+        public int getTotal() { return counts.total(); }
+        public int getHeadcount() { return counts.headcount(); }
+        public int getCompliant() { return counts.compliant(); }
+        public double getCompletionRate() { return counts.completionRate(); }
+    }
+}
@@ -0,0 +1,32 @@
+package com.sasken.skillsync.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET handler whose response only depends on rows of the given tables. The handler gets a
+ * weak ETag computed from aggregate queries over those tables, and a matching If-None-Match is
+ * answered with 304 before the handler loads anything.
+ *
+ * Example: {@code @ConditionalGet(tables = {"progress", "courses"}, scope = "userId")} restricts the
+ * first table to {@code user_id = {userId}} and covers the second one as a whole.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalGet {
+
+    /**
+     * Tables whose rows appear in the response; the first one is the table the endpoint lists.
+     */
+    String[] tables();
+
+    /**
+     * Path variable that restricts the first table to the rows whose column of the same name
+     * (in snake case) equals it; empty to cover the whole table.
+     */
+    String scope() default "";
+}
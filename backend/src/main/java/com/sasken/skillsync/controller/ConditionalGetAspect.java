@@ -0,0 +1,102 @@
+package com.sasken.skillsync.controller;
+
+import com.sasken.skillsync.repository.TableVersionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Applies {@link ConditionalGet}. Ordered last, so it runs inside method security: a caller that
+ * may not read the resource gets 403, never a 304 that confirms its ETag.
+ *
+ * The ETag covers the query string and Accept header as well, as the same rows are rendered
+ * differently for ?fields= or CBOR.
+ *
+ * The table versions are read in a read-only transaction, so they come from the replica like the
+ * handler's body does; read from the primary, a lagging replica's body would be cached under the
+ * ETag of newer rows.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+class ConditionalGetAspect {
+
+    @Autowired
+    private TableVersionRepository tableVersionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final TransactionTemplate readOnly;
+
+    ConditionalGetAspect(PlatformTransactionManager transactionManager) {
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @Around("@annotation(conditionalGet)")
+    public Object around(ProceedingJoinPoint joinPoint, ConditionalGet conditionalGet) throws Throwable {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || attributes.getResponse() == null) {
+            return joinPoint.proceed();
+        }
+        HttpServletRequest request = attributes.getRequest();
+        HttpServletResponse response = attributes.getResponse();
+
+        String validator = readOnly.execute(status -> validator(conditionalGet, request));
+        String etag = "W/\"" + DigestUtils.md5DigestAsHex(validator.getBytes(StandardCharsets.UTF_8)) + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            meterRegistry.counter("skillsync.conditional.requests", "outcome", "not_modified").increment();
+            return null;
+        }
+        meterRegistry.counter("skillsync.conditional.requests", "outcome", "modified").increment();
+        return joinPoint.proceed();
+    }
+
+    private String validator(ConditionalGet conditionalGet, HttpServletRequest request) {
+        StringBuilder validator = new StringBuilder();
+        String[] tables = conditionalGet.tables();
+        for (int i = 0; i < tables.length; i++) {
+            if (i == 0 && !conditionalGet.scope().isEmpty()) {
+                validator.append(tableVersionRepository.version(tables[0], column(conditionalGet.scope()),
+                        pathVariable(request, conditionalGet.scope())));
+            } else {
+                validator.append(tableVersionRepository.version(tables[i]));
+            }
+            validator.append('|');
+        }
+        return validator.append(request.getQueryString()).append('|')
+                .append(request.getHeader(HttpHeaders.ACCEPT)).toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String pathVariable(HttpServletRequest request, String name) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null || !variables.containsKey(name)) {
+            throw new IllegalStateException("No path variable '" + name + "' for @ConditionalGet");
+        }
+        return variables.get(name);
+    }
+
+    private static String column(String pathVariable) {
+        return pathVariable.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+    }
+}
@@ -3,8 +3,10 @@ package com.sasken.skillsync.controller;
 import com.sasken.skillsync.model.Course;
 import com.sasken.skillsync.model.User;
 import com.sasken.skillsync.repository.CourseRepository;
+import com.sasken.skillsync.repository.FieldProjectionRepository;
 import com.sasken.skillsync.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -24,8 +26,16 @@ public class CourseController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private FieldProjectionRepository fieldProjectionRepository;
+
     @GetMapping
-    public ResponseEntity<List<Course>> getAllCourses() {
+    @ConditionalGet(tables = {"courses", "users"})
+    public ResponseEntity<?> getAllCourses(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Course.class, fields,
+                    (root, query, cb) -> cb.isTrue(root.get("isActive")), Sort.by("id")));
+        }
         System.out.println("CourseController: Getting all courses...");
         List<Course> courses = courseRepository.findByIsActive(true);
         System.out.println("CourseController: Found " + courses.size() + " active courses");
@@ -33,6 +43,7 @@ public class CourseController {
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(tables = {"courses", "users"}, scope = "id")
     public ResponseEntity<Course> getCourseById(@PathVariable Long id) {
         Optional<Course> course = courseRepository.findById(id);
         return course.map(ResponseEntity::ok)
@@ -40,32 +51,66 @@ public class CourseController {
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Course>> getCoursesByCategory(@PathVariable Course.CourseCategory category) {
+    @ConditionalGet(tables = {"courses", "users"}, scope = "category")
+    public ResponseEntity<?> getCoursesByCategory(@PathVariable Course.CourseCategory category,
+                                                  @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Course.class, fields, (root, query, cb) ->
+                    cb.and(cb.equal(root.get("category"), category), cb.isTrue(root.get("isActive"))), Sort.by("id")));
+        }
         List<Course> courses = courseRepository.findActiveCoursesByCategory(category);
         return ResponseEntity.ok(courses);
     }
 
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<Course>> getCoursesByType(@PathVariable Course.CourseType type) {
+    @ConditionalGet(tables = {"courses", "users"}, scope = "type")
+    public ResponseEntity<?> getCoursesByType(@PathVariable Course.CourseType type,
+                                              @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Course.class, fields, (root, query, cb) ->
+                    cb.and(cb.equal(root.get("type"), type), cb.isTrue(root.get("isActive"))), Sort.by("id")));
+        }
         List<Course> courses = courseRepository.findActiveCoursesByType(type);
         return ResponseEntity.ok(courses);
     }
 
     @GetMapping("/trainer/{trainerId}")
+    @ConditionalGet(tables = {"courses", "users"}, scope = "trainerId")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('TRAINER')")
-    public ResponseEntity<List<Course>> getCoursesByTrainer(@PathVariable Long trainerId) {
+    public ResponseEntity<?> getCoursesByTrainer(@PathVariable Long trainerId,
+                                                 @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Course.class, fields, (root, query, cb) ->
+                    cb.and(cb.equal(root.get("trainer").get("id"), trainerId), cb.isTrue(root.get("isActive"))), Sort.by("id")));
+        }
         List<Course> courses = courseRepository.findActiveCoursesByTrainer(trainerId);
         return ResponseEntity.ok(courses);
     }
 
     @GetMapping("/mandatory")
-    public ResponseEntity<List<Course>> getMandatoryCourses() {
+    @ConditionalGet(tables = {"courses", "users"})
+    public ResponseEntity<?> getMandatoryCourses(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Course.class, fields, (root, query, cb) ->
+                    cb.and(cb.isTrue(root.get("isMandatory")), cb.isTrue(root.get("isActive"))), Sort.by("id")));
+        }
         List<Course> courses = courseRepository.findActiveMandatoryCourses();
         return ResponseEntity.ok(courses);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Course>> searchCourses(@RequestParam String keyword) {
+    @ConditionalGet(tables = {"courses", "users"})
+    public ResponseEntity<?> searchCourses(@RequestParam String keyword,
+                                           @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            String pattern = "%" + keyword.toLowerCase() + "%";
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Course.class, fields, (root, query, cb) ->
+                    cb.and(cb.isTrue(root.get("isActive")), cb.or(
+                            cb.like(cb.lower(root.get("title")), pattern),
+                            cb.like(cb.lower(root.get("description")), pattern),
+                            cb.like(cb.lower(root.get("materials")), pattern),
+                            cb.like(cb.lower(root.get("prerequisites")), pattern))), Sort.by("id")));
+        }
         List<Course> courses = courseRepository.searchActiveCoursesByKeyword(keyword);
         return ResponseEntity.ok(courses);
     }
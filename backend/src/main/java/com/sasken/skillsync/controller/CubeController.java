@@ -0,0 +1,98 @@
+package com.sasken.skillsync.controller;
+
+import com.sasken.skillsync.exception.BadRequestException;
+import com.sasken.skillsync.service.TrainingCube;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Enrollment and certificate counts by category, type, department, role, month and status,
+ * answered from the training cube. {fact} is enrollments or certificates; groupBy is a comma
+ * separated list of dimensions, and the dimensions not grouped by are summed.
+ */
+@RestController
+@RequestMapping("/cube")
+@CrossOrigin(origins = "*")
+public class CubeController {
+
+    private static final String GROUP_BY = "groupBy";
+
+    @Autowired
+    private TrainingCube trainingCube;
+
+    // Totals at the granularity of groupBy, e.g. ?groupBy=category,month
+    @GetMapping("/{fact}/rollup")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<TrainingCube.Result> rollup(@PathVariable String fact,
+                                                      @RequestParam(required = false) String groupBy) {
+        return ResponseEntity.ok(trainingCube.query(fact(fact), dimensions(groupBy), Map.of()));
+    }
+
+    // One dimension fixed to one value, e.g. ?dimension=month&value=2024-03&groupBy=department
+    @GetMapping("/{fact}/slice")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<TrainingCube.Result> slice(@PathVariable String fact,
+                                                     @RequestParam String dimension,
+                                                     @RequestParam String value,
+                                                     @RequestParam(required = false) String groupBy) {
+        return ResponseEntity.ok(trainingCube.query(fact(fact), dimensions(groupBy),
+                Map.of(dimension(dimension), Set.of(value))));
+    }
+
+    // Any dimensions restricted to sets of values, e.g. ?department=HR,Sales&status=COMPLETED&groupBy=category
+    @GetMapping("/{fact}/dice")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<TrainingCube.Result> dice(@PathVariable String fact,
+                                                    @RequestParam Map<String, String> parameters) {
+        Map<TrainingCube.Dimension, Set<String>> filter = new EnumMap<>(TrainingCube.Dimension.class);
+        parameters.forEach((name, values) -> {
+            if (!GROUP_BY.equals(name)) {
+                filter.put(dimension(name), new LinkedHashSet<>(split(values)));
+            }
+        });
+        return ResponseEntity.ok(trainingCube.query(fact(fact), dimensions(parameters.get(GROUP_BY)), filter));
+    }
+
+    private static TrainingCube.Fact fact(String fact) {
+        try {
+            return TrainingCube.Fact.valueOf(fact.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("fact must be enrollments or certificates");
+        }
+    }
+
+    private static List<TrainingCube.Dimension> dimensions(String groupBy) {
+        List<TrainingCube.Dimension> dimensions = new ArrayList<>();
+        if (groupBy != null) {
+            for (String name : split(groupBy)) {
+                TrainingCube.Dimension dimension = dimension(name);
+                if (!dimensions.contains(dimension)) {
+                    dimensions.add(dimension);
+                }
+            }
+        }
+        return dimensions;
+    }
+
+    private static TrainingCube.Dimension dimension(String name) {
+        try {
+            return TrainingCube.Dimension.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Dimensions are " + Arrays.toString(TrainingCube.Dimension.values()).toLowerCase());
+        }
+    }
+
+    private static List<String> split(String values) {
+        return Arrays.stream(values.split(",")).map(String::trim).filter(value -> !value.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,34 @@
+package com.sasken.skillsync.controller;
+
+import com.sasken.skillsync.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/dashboard")
+@CrossOrigin(origins = "*")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    // Parts that miss the deadline are listed under "unavailable"; Server-Timing carries each part's latency
+    @GetMapping("/{userId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or #userId == authentication.principal.id")
+    public ResponseEntity<Map<String, Object>> getDashboard(@PathVariable Long userId) {
+        DashboardService.Dashboard dashboard = dashboardService.getDashboard(userId);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("userId", userId);
+        body.putAll(dashboard.getParts());
+        body.put("unavailable", dashboard.getUnavailable());
+        return ResponseEntity.ok()
+                .header("Server-Timing", dashboard.serverTiming())
+                .body(body);
+    }
+}
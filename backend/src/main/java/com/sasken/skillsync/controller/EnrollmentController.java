@@ -4,10 +4,16 @@ import com.sasken.skillsync.model.Enrollment;
 import com.sasken.skillsync.repository.EnrollmentRepository;
 import com.sasken.skillsync.repository.UserRepository;
 import com.sasken.skillsync.repository.CourseRepository;
+import com.sasken.skillsync.repository.FieldProjectionRepository;
+import com.sasken.skillsync.service.ExportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
@@ -28,14 +34,35 @@ public class EnrollmentController {
     @Autowired
     private CourseRepository courseRepository;
 
+    @Autowired
+    private FieldProjectionRepository fieldProjectionRepository;
+
+    @Autowired
+    private ExportService exportService;
+
     @GetMapping
+    @ConditionalGet(tables = {"enrollments", "courses", "users"})
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('TRAINER')")
-    public ResponseEntity<List<Enrollment>> getAllEnrollments() {
+    public ResponseEntity<?> getAllEnrollments(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Enrollment.class, fields, null, Sort.by("id")));
+        }
         List<Enrollment> enrollments = enrollmentRepository.findAll();
         return ResponseEntity.ok(enrollments);
     }
 
+    // Streams the whole table; the body is written on the MVC async executor after this method returns
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportEnrollments() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"enrollments.json\"")
+                .body(out -> exportService.exportEnrollments(out));
+    }
+
     @GetMapping("/{id}")
+    @ConditionalGet(tables = {"enrollments", "courses", "users"}, scope = "id")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('TRAINER')")
     public ResponseEntity<Enrollment> getEnrollmentById(@PathVariable Long id) {
         Optional<Enrollment> enrollment = enrollmentRepository.findById(id);
@@ -44,14 +71,26 @@ public class EnrollmentController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Enrollment>> getEnrollmentsByUser(@PathVariable Long userId) {
+    @ConditionalGet(tables = {"enrollments", "courses", "users"}, scope = "userId")
+    public ResponseEntity<?> getEnrollmentsByUser(@PathVariable Long userId,
+                                                  @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Enrollment.class, fields,
+                    (root, query, cb) -> cb.equal(root.get("user").get("id"), userId), Sort.by("id")));
+        }
         List<Enrollment> enrollments = enrollmentRepository.findByUserId(userId);
         return ResponseEntity.ok(enrollments);
     }
 
     @GetMapping("/course/{courseId}")
+    @ConditionalGet(tables = {"enrollments", "courses", "users"}, scope = "courseId")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('TRAINER')")
-    public ResponseEntity<List<Enrollment>> getEnrollmentsByCourse(@PathVariable Long courseId) {
+    public ResponseEntity<?> getEnrollmentsByCourse(@PathVariable Long courseId,
+                                                    @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Enrollment.class, fields,
+                    (root, query, cb) -> cb.equal(root.get("course").get("id"), courseId), Sort.by("id")));
+        }
         List<Enrollment> enrollments = enrollmentRepository.findByCourseId(courseId);
         return ResponseEntity.ok(enrollments);
     }
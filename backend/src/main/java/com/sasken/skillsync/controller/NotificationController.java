@@ -1,9 +1,11 @@
 package com.sasken.skillsync.controller;
 
 import com.sasken.skillsync.model.Notification;
+import com.sasken.skillsync.repository.FieldProjectionRepository;
 import com.sasken.skillsync.repository.NotificationRepository;
 import com.sasken.skillsync.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -24,9 +26,15 @@ public class NotificationController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private FieldProjectionRepository fieldProjectionRepository;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
-    public ResponseEntity<List<Notification>> getAllNotifications() {
+    public ResponseEntity<?> getAllNotifications(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Notification.class, fields, null, Sort.by("id")));
+        }
         List<Notification> notifications = notificationRepository.findAll();
         return ResponseEntity.ok(notifications);
     }
@@ -39,13 +47,24 @@ public class NotificationController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Notification>> getNotificationsByUser(@PathVariable Long userId) {
+    public ResponseEntity<?> getNotificationsByUser(@PathVariable Long userId,
+                                                    @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Notification.class, fields,
+                    (root, query, cb) -> cb.equal(root.get("user").get("id"), userId), Sort.by(Sort.Direction.DESC, "sentAt")));
+        }
         List<Notification> notifications = notificationRepository.findByUserIdOrderBySentAtDesc(userId);
         return ResponseEntity.ok(notifications);
     }
 
     @GetMapping("/user/{userId}/unread")
-    public ResponseEntity<List<Notification>> getUnreadNotificationsByUser(@PathVariable Long userId) {
+    public ResponseEntity<?> getUnreadNotificationsByUser(@PathVariable Long userId,
+                                                          @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Notification.class, fields, (root, query, cb) ->
+                    cb.and(cb.equal(root.get("user").get("id"), userId), cb.isFalse(root.get("isRead"))),
+                    Sort.by(Sort.Direction.DESC, "sentAt")));
+        }
         List<Notification> notifications = notificationRepository.findByUserIdAndIsReadFalseOrderBySentAtDesc(userId);
         return ResponseEntity.ok(notifications);
     }
@@ -1,17 +1,28 @@
 package com.sasken.skillsync.controller;
 
+import com.sasken.skillsync.dto.LearningEvent;
 import com.sasken.skillsync.model.*;
 import com.sasken.skillsync.repository.*;
+import com.sasken.skillsync.service.EntityReferenceIndex;
+import com.sasken.skillsync.service.ExportService;
+import com.sasken.skillsync.service.HeartbeatAggregator;
+import com.sasken.skillsync.service.LearningEventWriter;
+import com.sasken.skillsync.service.ProgressService;
+import com.sasken.skillsync.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/progress")
@@ -22,36 +33,76 @@ public class ProgressController {
     private ProgressRepository progressRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ProgressService progressService;
 
     @Autowired
-    private CourseRepository courseRepository;
+    private HeartbeatAggregator heartbeatAggregator;
 
     @Autowired
-    private EnrollmentRepository enrollmentRepository;
+    private EntityReferenceIndex entityReferenceIndex;
 
     @Autowired
-    private CertificateRepository certificateRepository;
+    private LearningEventWriter learningEventWriter;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private FieldProjectionRepository fieldProjectionRepository;
+
+    @Value("${progress.events.max-per-request:1000}")
+    private int maxEventsPerRequest;
+
+    // Bounds a single heartbeat so accumulated minutes cannot overflow the time spent columns
+    @Value("${progress.heartbeat.max-minutes:60}")
+    private int maxHeartbeatMinutes;
 
     @GetMapping
-    public ResponseEntity<List<Progress>> getAllProgress() {
+    @ConditionalGet(tables = {"progress", "courses", "users"})
+    public ResponseEntity<?> getAllProgress(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Progress.class, fields, null, Sort.by("id")));
+        }
         List<Progress> progress = progressRepository.findAll();
         return ResponseEntity.ok(progress);
     }
 
+    // Streams the whole table; the body is written on the MVC async executor after this method returns
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportProgress() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"progress.json\"")
+                .body(out -> exportService.exportProgress(out));
+    }
+
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Progress>> getProgressByUser(@PathVariable Long userId) {
+    @ConditionalGet(tables = {"progress", "courses", "users"}, scope = "userId")
+    public ResponseEntity<?> getProgressByUser(@PathVariable Long userId,
+                                               @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Progress.class, fields,
+                    (root, query, cb) -> cb.equal(root.get("user").get("id"), userId), Sort.by("id")));
+        }
         List<Progress> progress = progressRepository.findByUserId(userId);
         return ResponseEntity.ok(progress);
     }
 
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<List<Progress>> getProgressByCourse(@PathVariable Long courseId) {
+    @ConditionalGet(tables = {"progress", "courses", "users"}, scope = "courseId")
+    public ResponseEntity<?> getProgressByCourse(@PathVariable Long courseId,
+                                                 @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(Progress.class, fields,
+                    (root, query, cb) -> cb.equal(root.get("course").get("id"), courseId), Sort.by("id")));
+        }
         List<Progress> progress = progressRepository.findByCourseId(courseId);
         return ResponseEntity.ok(progress);
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(tables = {"progress", "courses", "users"}, scope = "id")
     public ResponseEntity<Progress> getProgressById(@PathVariable Long id) {
         Optional<Progress> progress = progressRepository.findById(id);
         return progress.map(ResponseEntity::ok)
@@ -62,68 +113,15 @@ public class ProgressController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('TRAINER') or hasRole('EMPLOYEE')")
     public ResponseEntity<?> markAsCompleted(@RequestBody MarkCompletedRequest request) {
         try {
-            // Find the progress record
-            Optional<Progress> progressOpt = progressRepository.findByUserIdAndCourseId(
-                request.getUserId(), request.getCourseId());
-            
-            if (progressOpt.isEmpty()) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Progress record not found"));
-            }
+            Optional<Progress> progress = progressService.markAsCompleted(request.getUserId(), request.getCourseId());
 
-            Progress progress = progressOpt.get();
-            
-            // Update progress to completed
-            progress.setCompletionPercentage(100.0);
-            progress.setStatus(Progress.ProgressStatus.COMPLETED);
-            progress.setCompletedAt(LocalDateTime.now());
-            progress.setLastAccessedAt(LocalDateTime.now());
-            progress.setUpdatedAt(LocalDateTime.now());
-            
-            // Calculate time spent based on course duration if not already set
-            if (progress.getTimeSpentMinutes() == null || progress.getTimeSpentMinutes() == 0) {
-                Course course = progress.getCourse();
-                if (course != null && course.getDurationHours() != null) {
-                    progress.setTimeSpentMinutes(course.getDurationHours() * 60);
-                }
-            }
-            
-            progressRepository.save(progress);
-
-            // Update enrollment status
-            Optional<Enrollment> enrollmentOpt = enrollmentRepository.findByUserIdAndCourseId(
-                request.getUserId(), request.getCourseId());
-            
-            if (enrollmentOpt.isPresent()) {
-                Enrollment enrollment = enrollmentOpt.get();
-                enrollment.setStatus(Enrollment.EnrollmentStatus.COMPLETED);
-                enrollment.setCompletionPercentage(100.0);
-                enrollment.setCompletedAt(LocalDateTime.now());
-                enrollment.setGrade("A");
-                enrollmentRepository.save(enrollment);
-
-                // Generate certificate if it doesn't exist
-                if (certificateRepository.findByUserIdAndCourseId(request.getUserId(), request.getCourseId()).isEmpty()) {
-                    Certificate certificate = new Certificate();
-                    certificate.setUser(progress.getUser());
-                    certificate.setCourse(progress.getCourse());
-                    certificate.setCompletionPercentage(100.0);
-                    certificate.setScore(95.0);
-                    certificate.setMaxScore(100.0);
-                    certificate.setGrade("A");
-                    certificate.setCertificateNumber("CERT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-                    certificate.setIssuedBy("SkillSync - Sasken Technologies");
-                    certificate.setStatus(Certificate.CertificateStatus.ISSUED);
-                    certificate.setIssuedAt(LocalDateTime.now());
-                    certificate.setCompletionDate(LocalDateTime.now());
-                    certificate.setValidUntil(LocalDateTime.now().plusYears(2));
-                    
-                    certificateRepository.save(certificate);
-                }
+            if (progress.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Progress record not found"));
             }
 
             return ResponseEntity.ok(Map.of(
                 "message", "Course marked as completed successfully",
-                "progress", progress
+                "progress", progress.get()
             ));
 
         } catch (Exception e) {
@@ -134,6 +132,7 @@ public class ProgressController {
     }
 
     @GetMapping("/stats/user/{userId}")
+    @ConditionalGet(tables = "progress", scope = "userId")
     public ResponseEntity<UserProgressStats> getUserProgressStats(@PathVariable Long userId) {
         List<Progress> userProgress = progressRepository.findByUserId(userId);
         
@@ -191,73 +190,84 @@ public class ProgressController {
     @PutMapping("/update-progress")
     public ResponseEntity<?> updateProgressPercentage(@RequestBody UpdateProgressRequest request) {
         try {
-            // Find or create progress record
-            Optional<Progress> existingProgress = progressRepository.findByUserIdAndCourseId(request.getUserId(), request.getCourseId());
-            Progress progress;
-
-            if (existingProgress.isPresent()) {
-                progress = existingProgress.get();
-            } else {
-                // Create new progress record
-                progress = new Progress();
-                User user = userRepository.findById(request.getUserId()).orElse(null);
-                Course course = courseRepository.findById(request.getCourseId()).orElse(null);
-
-                if (user == null || course == null) {
-                    return ResponseEntity.badRequest().body("User or Course not found");
-                }
+            Progress savedProgress = progressService.updateProgressPercentage(
+                request.getUserId(), request.getCourseId(), request.getCompletionPercentage());
+            return ResponseEntity.ok(savedProgress);
 
-                progress.setUser(user);
-                progress.setCourse(course);
-                progress.setStartedAt(LocalDateTime.now());
-                progress.setStatus(Progress.ProgressStatus.IN_PROGRESS);
-            }
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.badRequest().body("User or Course not found");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error updating progress: " + e.getMessage());
+        }
+    }
 
-            // Update progress percentage
-            progress.setCompletionPercentage(request.getCompletionPercentage());
-            progress.setLastAccessedAt(LocalDateTime.now());
+    // Player heartbeat: minutes are accumulated in memory and written in periodic batches
+    @PostMapping("/heartbeat")
+    public ResponseEntity<?> recordHeartbeat(@RequestBody HeartbeatRequest request) {
+        if (request.getMinutes() == null || request.getMinutes() <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Minutes must be positive"));
+        }
+        if (request.getMinutes() > maxHeartbeatMinutes) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "At most " + maxHeartbeatMinutes + " minutes are accepted per heartbeat"));
+        }
+        try {
+            entityReferenceIndex.userReference(request.getUserId());
+            entityReferenceIndex.courseReference(request.getCourseId());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "User or Course not found"));
+        }
 
-            // Calculate time spent based on percentage and course duration
-            Course course = progress.getCourse();
-            if (course != null && course.getDurationHours() != null) {
-                int totalMinutes = course.getDurationHours() * 60;
-                int timeSpentMinutes = (int) (totalMinutes * (request.getCompletionPercentage() / 100.0));
-                progress.setTimeSpentMinutes(timeSpentMinutes);
-            }
+        heartbeatAggregator.record(request.getUserId(), request.getCourseId(), request.getMinutes());
+        return ResponseEntity.accepted().build();
+    }
 
-            // Update status based on completion percentage
-            if (request.getCompletionPercentage() >= 100.0) {
-                progress.setStatus(Progress.ProgressStatus.COMPLETED);
-                progress.setCompletedAt(LocalDateTime.now());
-
-                // Update enrollment status to completed
-                Optional<Enrollment> enrollment = enrollmentRepository.findByUserIdAndCourseId(request.getUserId(), request.getCourseId());
-                if (enrollment.isPresent()) {
-                    Enrollment enr = enrollment.get();
-                    enr.setStatus(Enrollment.EnrollmentStatus.COMPLETED);
-                    enr.setCompletionPercentage(100.0);
-                    enr.setCompletedAt(LocalDateTime.now());
-                    enrollmentRepository.save(enr);
-                }
-            } else if (request.getCompletionPercentage() > 0) {
-                progress.setStatus(Progress.ProgressStatus.IN_PROGRESS);
-
-                // Update enrollment status to in progress
-                Optional<Enrollment> enrollment = enrollmentRepository.findByUserIdAndCourseId(request.getUserId(), request.getCourseId());
-                if (enrollment.isPresent()) {
-                    Enrollment enr = enrollment.get();
-                    enr.setStatus(Enrollment.EnrollmentStatus.IN_PROGRESS);
-                    enr.setCompletionPercentage(request.getCompletionPercentage());
-                    enrollmentRepository.save(enr);
+    // Bulk activity ingestion: events are queued and applied asynchronously in batches
+    @PostMapping("/events")
+    public ResponseEntity<?> recordEvents(@RequestBody List<LearningEvent> events) {
+        if (events == null || events.isEmpty() || events.size() > maxEventsPerRequest) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Between 1 and " + maxEventsPerRequest + " events are accepted per request"));
+        }
+        for (int i = 0; i < events.size(); i++) {
+            LearningEvent event = events.get(i);
+            String problem = event.validate();
+            if (problem == null && event.getType() == LearningEvent.EventType.HEARTBEAT
+                    && event.getMinutes() > maxHeartbeatMinutes) {
+                problem = "At most " + maxHeartbeatMinutes + " minutes are accepted per heartbeat";
+            }
+            if (problem == null) {
+                try {
+                    entityReferenceIndex.userReference(event.getUserId());
+                    entityReferenceIndex.courseReference(event.getCourseId());
+                } catch (ResourceNotFoundException e) {
+                    problem = "User or Course not found";
                 }
             }
+            if (problem != null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Event " + i + ": " + problem));
+            }
+        }
 
-            Progress savedProgress = progressRepository.save(progress);
-            return ResponseEntity.ok(savedProgress);
-
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error updating progress: " + e.getMessage());
+        if (!learningEventWriter.submit(events)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Event queue is full, retry later"));
         }
+        return ResponseEntity.accepted().body(Map.of("accepted", events.size()));
+    }
+
+    public static class HeartbeatRequest {
+        private Long userId;
+        private Long courseId;
+        private Integer minutes = 1;
+
+        public Long getUserId() { return userId; }
+        public void setUserId(Long userId) { this.userId = userId; }
+        public Long getCourseId() { return courseId; }
+        public void setCourseId(Long courseId) { this.courseId = courseId; }
+        public Integer getMinutes() { return minutes; }
+        public void setMinutes(Integer minutes) { this.minutes = minutes; }
     }
 
     // Request class for progress updates
@@ -2,9 +2,12 @@ package com.sasken.skillsync.controller;
 
 import com.sasken.skillsync.dto.UserDto;
 import com.sasken.skillsync.model.User;
+import com.sasken.skillsync.repository.FieldProjectionRepository;
 import com.sasken.skillsync.repository.UserRepository;
 import com.sasken.skillsync.security.CustomUserDetails;
+import com.sasken.skillsync.service.UserBitmapIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -23,6 +26,12 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private FieldProjectionRepository fieldProjectionRepository;
+
+    @Autowired
+    private UserBitmapIndex userBitmapIndex;
+
     @GetMapping("/profile")
     public ResponseEntity<UserDto> getCurrentUser(@AuthenticationPrincipal CustomUserDetails userDetails) {
         Optional<User> user = userRepository.findById(userDetails.getId());
@@ -31,13 +40,18 @@ public class UserController {
     }
 
     @GetMapping
+    @ConditionalGet(tables = "users")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
-    public ResponseEntity<List<User>> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(User.class, fields, null, Sort.by("id")));
+        }
         List<User> users = userRepository.findAll();
         return ResponseEntity.ok(users);
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(tables = "users", scope = "id")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or #id == authentication.principal.id")
     public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
         Optional<User> user = userRepository.findById(id);
@@ -46,8 +60,14 @@ public class UserController {
     }
 
     @GetMapping("/role/{role}")
+    @ConditionalGet(tables = "users", scope = "role")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
-    public ResponseEntity<List<UserDto>> getUsersByRole(@PathVariable User.UserRole role) {
+    public ResponseEntity<?> getUsersByRole(@PathVariable User.UserRole role,
+                                            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(User.class, fields,
+                    (root, query, cb) -> cb.equal(root.get("role"), role), Sort.by("id")));
+        }
         List<User> users = userRepository.findByRole(role);
         List<UserDto> userDtos = users.stream()
                 .map(UserDto::new)
@@ -56,8 +76,14 @@ public class UserController {
     }
 
     @GetMapping("/department/{department}")
+    @ConditionalGet(tables = "users", scope = "department")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
-    public ResponseEntity<List<UserDto>> getUsersByDepartment(@PathVariable String department) {
+    public ResponseEntity<?> getUsersByDepartment(@PathVariable String department,
+                                                  @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(fieldProjectionRepository.findFields(User.class, fields,
+                    (root, query, cb) -> cb.equal(root.get("department"), department), Sort.by("id")));
+        }
         List<User> users = userRepository.findByDepartment(department);
         List<UserDto> userDtos = users.stream()
                 .map(UserDto::new)
@@ -65,6 +91,17 @@ public class UserController {
         return ResponseEntity.ok(userDtos);
     }
 
+    // Answered from the bitmap index, which trails committed writes by up to one refresh interval
+    @PostMapping("/query")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<UserQueryResult> queryUsers(@RequestBody UserBitmapIndex.Query query) {
+        long[] userIds = userBitmapIndex.find(query);
+        UserQueryResult result = new UserQueryResult();
+        result.setCount(userIds.length);
+        result.setUserIds(userIds);
+        return ResponseEntity.ok(result);
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<UserDto> createUser(@Valid @RequestBody CreateUserRequest request) {
@@ -194,4 +231,14 @@ public class UserController {
         public String getPhoneNumber() { return phoneNumber; }
         public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
     }
-} 
\ No newline at end of file
+
+    public static class UserQueryResult {
+        private int count;
+        private long[] userIds;
+
+        public int getCount() { return count; }
+        public void setCount(int count) { this.count = count; }
+        public long[] getUserIds() { return userIds; }
+        public void setUserIds(long[] userIds) { this.userIds = userIds; }
+    }
+}
@@ -0,0 +1,118 @@
+package com.sasken.skillsync.dto;
+
+public class LearningEvent {
+
+    public enum EventType {
+        PROGRESS, HEARTBEAT, QUIZ, COMPLETION
+    }
+
+    private EventType type;
+
+    private Long userId;
+
+    private Long courseId;
+
+    // PROGRESS
+    private Double completionPercentage;
+
+    // HEARTBEAT
+    private Integer minutes;
+
+    // QUIZ
+    private Double score;
+
+    private Double maxScore;
+
+    // Constructors
+    public LearningEvent() {}
+
+    public LearningEvent(EventType type, Long userId, Long courseId) {
+        this.type = type;
+        this.userId = userId;
+        this.courseId = courseId;
+    }
+
+    // Returns why the event cannot be applied, or null if it is well formed
+    public String validate() {
+        if (type == null || userId == null || courseId == null) {
+            return "type, userId and courseId are required";
+        }
+        switch (type) {
+            case PROGRESS:
+                if (completionPercentage == null || completionPercentage < 0.0 || completionPercentage > 100.0) {
+                    return "completionPercentage must be between 0 and 100";
+                }
+                break;
+            case HEARTBEAT:
+                if (minutes == null || minutes <= 0) {
+                    return "minutes must be positive";
+                }
+                break;
+            case QUIZ:
+                if (score == null || score < 0.0 || (maxScore != null && score > maxScore)) {
+                    return "score must be between 0 and maxScore";
+                }
+                break;
+            default:
+                break;
+        }
+        return null;
+    }
+
+    // Getters and Setters
+    public EventType getType() {
+        return type;
+    }
+
+    public void setType(EventType type) {
+        this.type = type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public Double getCompletionPercentage() {
+        return completionPercentage;
+    }
+
+    public void setCompletionPercentage(Double completionPercentage) {
+        this.completionPercentage = completionPercentage;
+    }
+
+    public Integer getMinutes() {
+        return minutes;
+    }
+
+    public void setMinutes(Integer minutes) {
+        this.minutes = minutes;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public Double getMaxScore() {
+        return maxScore;
+    }
+
+    public void setMaxScore(Double maxScore) {
+        this.maxScore = maxScore;
+    }
+}
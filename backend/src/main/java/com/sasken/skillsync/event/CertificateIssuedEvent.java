@@ -0,0 +1,5 @@
+package com.sasken.skillsync.event;
+
+public record CertificateIssuedEvent(Long certificateId, Long userId, Long courseId, String certificateNumber)
+        implements DomainEvent {
+}
@@ -0,0 +1,74 @@
+package com.sasken.skillsync.event;
+
+import com.sasken.skillsync.model.Certificate;
+import com.sasken.skillsync.repository.CertificateRepository;
+import com.sasken.skillsync.service.EntityReferenceIndex;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Issues the certificate for a completed course, once per learner and course
+@Component
+public class CertificateIssuingListener implements DomainEventListener {
+
+    private final CertificateRepository certificateRepository;
+    private final EntityReferenceIndex entityReferenceIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public CertificateIssuingListener(CertificateRepository certificateRepository,
+                                      EntityReferenceIndex entityReferenceIndex,
+                                      ApplicationEventPublisher eventPublisher,
+                                      PlatformTransactionManager transactionManager) {
+        this.certificateRepository = certificateRepository;
+        this.entityReferenceIndex = entityReferenceIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public String name() {
+        return "certificates";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof CourseCompletedEvent;
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        CourseCompletedEvent completed = (CourseCompletedEvent) event;
+        Long userId = completed.userId();
+        Long courseId = completed.courseId();
+
+        // A learner's events are handled one at a time, so the check cannot race a second completion
+        transactionTemplate.executeWithoutResult(status -> {
+            if (certificateRepository.findByUserIdAndCourseId(userId, courseId).isPresent()) {
+                return;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            Certificate certificate = new Certificate();
+            certificate.setUser(entityReferenceIndex.userReference(userId));
+            certificate.setCourse(entityReferenceIndex.courseReference(courseId));
+            certificate.setCompletionPercentage(100.0);
+            certificate.setScore(95.0);
+            certificate.setMaxScore(100.0);
+            certificate.setGrade("A");
+            certificate.setCertificateNumber("CERT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+            certificate.setIssuedBy("SkillSync - Sasken Technologies");
+            certificate.setStatus(Certificate.CertificateStatus.ISSUED);
+            certificate.setIssuedAt(now);
+            certificate.setCompletionDate(now);
+            certificate.setValidUntil(now.plusYears(2));
+
+            Certificate saved = certificateRepository.save(certificate);
+            eventPublisher.publishEvent(new CertificateIssuedEvent(saved.getId(), userId, courseId, saved.getCertificateNumber()));
+        });
+    }
+}
@@ -0,0 +1,5 @@
+package com.sasken.skillsync.event;
+
+// Raised when a learner who is enrolled in the course marks it completed
+public record CourseCompletedEvent(Long userId, Long courseId) implements DomainEvent {
+}
@@ -0,0 +1,12 @@
+package com.sasken.skillsync.event;
+
+/**
+ * A change to learner state that other parts of the system react to. Events are dispatched
+ * only after the transaction that raised them commits, and always carry the learner so
+ * listeners can process each learner's events in order.
+ */
+public sealed interface DomainEvent
+        permits EnrollmentCreatedEvent, EnrollmentCompletedEvent, CourseCompletedEvent, CertificateIssuedEvent {
+
+    Long userId();
+}
@@ -0,0 +1,160 @@
+package com.sasken.skillsync.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands committed domain events to the registered listeners.
+ *
+ * Each listener has a fixed set of single-threaded lanes with bounded queues, and an event
+ * always goes to the lane picked by its learner, so one learner's events reach a listener one
+ * at a time and in commit order while different learners proceed in parallel. When a lane is
+ * full the committing thread runs the listener itself: the side effect is delayed rather than
+ * lost, at the cost of ordering for that one event. That thread is still inside the publishing
+ * transaction's after-commit callback, so the listener runs in a new transaction of its own;
+ * joining the finished one would leave its writes uncommitted.
+ */
+@Component
+public class DomainEventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DomainEventDispatcher.class);
+
+    private final List<ListenerLanes> listeners = new ArrayList<>();
+
+    public DomainEventDispatcher(List<DomainEventListener> listeners,
+                                 MeterRegistry meterRegistry,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${domain-events.lanes-per-listener:4}") int lanes,
+                                 @Value("${domain-events.queue-capacity:1000}") int queueCapacity) {
+        TransactionTemplate overflowTransaction = new TransactionTemplate(transactionManager);
+        overflowTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (DomainEventListener listener : listeners) {
+            this.listeners.add(new ListenerLanes(listener, Math.max(1, lanes), Math.max(1, queueCapacity),
+                    overflowTransaction, meterRegistry));
+        }
+    }
+
+    // Without a surrounding transaction the event is dispatched straight away
+    @TransactionalEventListener(fallbackExecution = true)
+    public void dispatch(DomainEvent event) {
+        for (ListenerLanes lanes : listeners) {
+            if (lanes.listener.supports(event)) {
+                lanes.submit(event);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting events and waits for the queued ones to be handled.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        listeners.forEach(ListenerLanes::shutdown);
+        for (ListenerLanes lanes : listeners) {
+            if (!lanes.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Domain event listener {} did not drain before shutdown", lanes.listener.name());
+            }
+        }
+    }
+
+    private static class ListenerLanes {
+        private final DomainEventListener listener;
+        private final ThreadPoolExecutor[] lanes;
+        private final Timer latency;
+        private final Timer lag;
+        private final Counter failures;
+        private final Counter overflows;
+
+        ListenerLanes(DomainEventListener listener, int laneCount, int queueCapacity,
+                      TransactionTemplate overflowTransaction, MeterRegistry meterRegistry) {
+            this.listener = listener;
+            this.latency = meterRegistry.timer("skillsync.domain.events.listener.latency", "listener", listener.name());
+            this.lag = meterRegistry.timer("skillsync.domain.events.listener.lag", "listener", listener.name());
+            this.failures = meterRegistry.counter("skillsync.domain.events.listener.failures", "listener", listener.name());
+            this.overflows = meterRegistry.counter("skillsync.domain.events.listener.overflows", "listener", listener.name());
+            this.lanes = new ThreadPoolExecutor[laneCount];
+            for (int i = 0; i < laneCount; i++) {
+                String threadName = "event-" + listener.name() + "-" + i;
+                lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(queueCapacity),
+                        runnable -> {
+                            Thread thread = new Thread(runnable, threadName);
+                            thread.setDaemon(true);
+                            return thread;
+                        },
+                        (runnable, executor) -> {
+                            if (executor.isShutdown()) {
+                                throw new IllegalStateException("Domain event dispatcher is shut down");
+                            }
+                            overflows.increment();
+                            try {
+                                overflowTransaction.executeWithoutResult(status -> runnable.run());
+                            } catch (RuntimeException e) {
+                                // A listener failure marks the new transaction rollback-only; never fail the publisher
+                                failures.increment();
+                                logger.error("Domain event listener {} failed on an overflowed event", listener.name(), e);
+                            }
+                        });
+            }
+
+            meterRegistry.gauge("skillsync.domain.events.listener.queue.depth",
+                    Tags.of("listener", listener.name()), this, ListenerLanes::queueDepth);
+        }
+
+        void submit(DomainEvent event) {
+            long publishedAt = System.nanoTime();
+            Long userId = event.userId();
+            int lane = userId == null ? 0 : Math.floorMod(userId.hashCode(), lanes.length);
+            lanes[lane].execute(() -> {
+                lag.record(System.nanoTime() - publishedAt, TimeUnit.NANOSECONDS);
+                try {
+                    latency.record(() -> listener.onEvent(event));
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    logger.error("Domain event listener {} failed on {}", listener.name(), event, e);
+                }
+            });
+        }
+
+        double queueDepth() {
+            int depth = 0;
+            for (ThreadPoolExecutor lane : lanes) {
+                depth += lane.getQueue().size();
+            }
+            return depth;
+        }
+
+        void shutdown() {
+            for (ThreadPoolExecutor lane : lanes) {
+                lane.shutdown();
+            }
+        }
+
+        boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            for (ThreadPoolExecutor lane : lanes) {
+                if (!lane.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.sasken.skillsync.event;
+
+/**
+ * Reacts to domain events off the request thread. Each listener gets its own queues, so a slow
+ * listener only delays itself, and sees a given learner's events in the order they committed.
+ * Listeners run outside any transaction and must open their own when they write.
+ */
+public interface DomainEventListener {
+
+    // Used as the metrics tag and in thread names
+    String name();
+
+    boolean supports(DomainEvent event);
+
+    void onEvent(DomainEvent event);
+}
@@ -0,0 +1,4 @@
+package com.sasken.skillsync.event;
+
+public record EnrollmentCreatedEvent(Long enrollmentId, Long userId, Long courseId) implements DomainEvent {
+}
@@ -0,0 +1,58 @@
+package com.sasken.skillsync.event;
+
+import com.sasken.skillsync.exception.ResourceNotFoundException;
+import com.sasken.skillsync.model.Course;
+import com.sasken.skillsync.model.User;
+import com.sasken.skillsync.repository.CourseRepository;
+import com.sasken.skillsync.service.EntityReferenceIndex;
+import com.sasken.skillsync.service.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Tells learners about enrollments, completions and certificates once they have been committed
+@Component
+public class NotificationEventListener implements DomainEventListener {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private EntityReferenceIndex entityReferenceIndex;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Override
+    public String name() {
+        return "notifications";
+    }
+
+    @Override
+    public boolean supports(DomainEvent event) {
+        return event instanceof EnrollmentCreatedEvent
+                || event instanceof EnrollmentCompletedEvent
+                || event instanceof CertificateIssuedEvent;
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        if (event instanceof EnrollmentCreatedEvent created) {
+            notificationService.sendEnrollmentNotification(user(created.userId()), course(created.courseId()), "enrolled");
+        } else if (event instanceof EnrollmentCompletedEvent completed) {
+            notificationService.sendEnrollmentNotification(user(completed.userId()), course(completed.courseId()), "completed");
+        } else if (event instanceof CertificateIssuedEvent issued) {
+            notificationService.sendCertificateNotification(user(issued.userId()), course(issued.courseId()),
+                    issued.certificateNumber());
+        }
+    }
+
+    private User user(Long userId) {
+        return entityReferenceIndex.userReference(userId);
+    }
+
+    // Served from the second-level cache; the title goes into the message
+    private Course course(Long courseId) {
+        return courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
+    }
+}
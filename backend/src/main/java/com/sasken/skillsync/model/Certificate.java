@@ -1,16 +1,24 @@
 package com.sasken.skillsync.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "certificates")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "certificates")
+@NaturalIdCache(region = "certificates-by-number")
 public class Certificate {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @NaturalId
     @Column(name = "certificate_number", unique = true)
     private String certificateNumber;
     
@@ -3,11 +3,12 @@ package com.sasken.skillsync.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "enrollments")
+@Table(name = "enrollments", uniqueConstraints = @UniqueConstraint(name = "uk_enrollments_user_course", columnNames = {"user_id", "course_id"}))
 public class Enrollment {
     
     @Id
@@ -59,6 +60,12 @@ public class Enrollment {
     @Column(name = "notes")
     private String notes;
 
+    // Defaulted in the schema so rows inserted by data.sql and the native insert start at 0
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public enum EnrollmentStatus {
         PENDING, ENROLLED, IN_PROGRESS, COMPLETED, DROPPED, SUSPENDED
     }
@@ -84,6 +91,10 @@ public class Enrollment {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -0,0 +1,8 @@
+package com.sasken.skillsync.model;
+
+/**
+ * Identifies a learner's state in one course: the (user_id, course_id) pair that keys both the
+ * progress and enrollments tables.
+ */
+public record LearnerCourseKey(Long userId, Long courseId) {
+}
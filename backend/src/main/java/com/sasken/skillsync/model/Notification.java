@@ -1,6 +1,7 @@
 package com.sasken.skillsync.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
@@ -45,6 +46,7 @@ public class Notification {
     @Column(name = "scheduled_for")
     private LocalDateTime scheduledFor;
     
+    @ColumnDefault("false")
     @Column(name = "email_sent")
     private boolean emailSent = false;
     
@@ -1,10 +1,11 @@
 package com.sasken.skillsync.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "progress")
+@Table(name = "progress", uniqueConstraints = @UniqueConstraint(name = "uk_progress_user_course", columnNames = {"user_id", "course_id"}))
 public class Progress {
     
     @Id
@@ -53,6 +54,12 @@ public class Progress {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Defaulted in the schema so rows inserted by data.sql and the native upsert start at 0
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     public enum ProgressStatus {
         NOT_STARTED, IN_PROGRESS, COMPLETED, PAUSED
     }
@@ -75,6 +82,10 @@ public class Progress {
         return id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     public void setId(Long id) {
         this.id = id;
     }
@@ -0,0 +1,48 @@
+package com.sasken.skillsync.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Streams progress rows with the dimensions analytics groups by: the learner's department, the
+ * course category and the status of the matching enrollment, if any.
+ */
+@Repository
+public class AnalyticsRepository {
+
+    public static final String COURSE_ID = "course_id";
+    public static final String DEPARTMENT = "department";
+    public static final String CATEGORY = "category";
+    public static final String STATUS = "status";
+    public static final String ENROLLMENT_STATUS = "enrollment_status";
+    public static final String COMPLETION_PERCENTAGE = "completion_percentage";
+    public static final String TIME_SPENT_MINUTES = "time_spent_minutes";
+    public static final String QUIZ_SCORE = "quiz_score";
+    public static final String STARTED_AT = "started_at";
+    public static final String COMPLETED_AT = "completed_at";
+
+    private static final String SELECT_PROGRESS_FACTS =
+            "SELECT p.course_id, u.department, c.category, p.status, e.status AS enrollment_status, " +
+            "p.completion_percentage, p.time_spent_minutes, p.quiz_score, p.started_at, p.completed_at " +
+            "FROM progress p JOIN users u ON u.id = p.user_id JOIN courses c ON c.id = p.course_id " +
+            "LEFT JOIN enrollments e ON e.user_id = p.user_id AND e.course_id = p.course_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public long countProgress() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM progress", Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Hands every progress row to {@code handler} from a forward-only cursor.
+     */
+    public void scanProgressFacts(RowCallbackHandler handler) {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(1000);
+        streaming.query(SELECT_PROGRESS_FACTS, handler);
+    }
+}
@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CertificateRepository extends JpaRepository<Certificate, Long> {
+public interface CertificateRepository extends JpaRepository<Certificate, Long>, CertificateRepositoryCustom {
     
     List<Certificate> findByUserId(Long userId);
     
@@ -19,8 +19,6 @@ public interface CertificateRepository extends JpaRepository<Certificate, Long>
     
     List<Certificate> findByStatus(Certificate.CertificateStatus status);
     
-    Optional<Certificate> findByCertificateNumber(String certificateNumber);
-    
     @Query("SELECT c FROM Certificate c WHERE c.user.id = :userId AND c.course.id = :courseId")
     Optional<Certificate> findByUserIdAndCourseId(@Param("userId") Long userId, @Param("courseId") Long courseId);
     
@@ -0,0 +1,11 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.Certificate;
+
+import java.util.Optional;
+
+public interface CertificateRepositoryCustom {
+
+    // Resolved through the natural-id cache, so certificate verification skips the database on repeat lookups
+    Optional<Certificate> findByCertificateNumber(String certificateNumber);
+}
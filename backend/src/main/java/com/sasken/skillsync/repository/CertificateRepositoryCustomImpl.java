@@ -0,0 +1,21 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.Certificate;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class CertificateRepositoryCustomImpl implements CertificateRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Certificate> findByCertificateNumber(String certificateNumber) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Certificate.class)
+                .loadOptional(certificateNumber);
+    }
+}
@@ -0,0 +1,82 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.Certificate;
+import com.sasken.skillsync.model.ChangeLogEntry;
+import com.sasken.skillsync.model.Course;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.Progress;
+import com.sasken.skillsync.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Adds a change log entry for every insert, update and delete of a tracked entity that Hibernate
+ * flushes. Writes that bypass Hibernate (the keyed upserts and increments) are recorded by the
+ * services that issue them.
+ */
+@Component
+public class ChangeLogEntityListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final Map<Class<?>, String> TRACKED = Map.of(
+            Enrollment.class, "enrollment",
+            Progress.class, "progress",
+            Certificate.class, "certificate",
+            User.class, "user",
+            Course.class, "course");
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getEntity(), event.getId(), ChangeLogEntry.Operation.CREATED);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getEntity(), event.getId(), ChangeLogEntry.Operation.UPDATED);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getEntity(), event.getId(), ChangeLogEntry.Operation.DELETED);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void record(Object entity, Object id, ChangeLogEntry.Operation operation) {
+        String entityType = TRACKED.get(entity.getClass());
+        if (entityType != null) {
+            changeLogRepository.record(entityType, (Long) id, operation);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.ChangeLogEntry;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Keeps an in-memory view in step with the change log. The view is built once by its rebuild
+ * callback and from then on its apply callback is handed the ids named by each page of new
+ * entries, grouped by entity type, in position order. The callbacks re-read those rows and
+ * update the view.
+ *
+ * The position for a rebuild is taken before the scan starts, so changes committed during the
+ * scan are handed over again afterwards; views must therefore tolerate applying a change they
+ * already reflect. Refreshes and rebuilds of one follower never run concurrently.
+ */
+public class ChangeLogFollower {
+
+    private static final int CHANGES_PER_PAGE = 1000;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final Runnable rebuild;
+    private final Consumer<Map<String, Set<Long>>> apply;
+    private volatile long position = -1;
+
+    public ChangeLogFollower(ChangeLogRepository changeLogRepository, Runnable rebuild,
+                             Consumer<Map<String, Set<Long>>> apply) {
+        this.changeLogRepository = changeLogRepository;
+        this.rebuild = rebuild;
+        this.apply = apply;
+    }
+
+    /**
+     * Whether the view has been built, so reads can trigger the first refresh themselves.
+     */
+    public boolean isBuilt() {
+        return position >= 0;
+    }
+
+    /**
+     * Builds the view if it has not been built yet, then applies every committed change since.
+     */
+    public synchronized void refresh() {
+        if (position < 0) {
+            rebuild();
+        }
+
+        List<ChangeLogEntry> changes;
+        do {
+            changes = changeLogRepository.findAfter(position, CHANGES_PER_PAGE);
+            if (changes.isEmpty()) {
+                return;
+            }
+            Map<String, Set<Long>> changedIds = new HashMap<>();
+            for (ChangeLogEntry change : changes) {
+                changedIds.computeIfAbsent(change.getEntityType(), key -> new HashSet<>()).add(change.getEntityId());
+            }
+            apply.accept(changedIds);
+            position = changes.get(changes.size() - 1).getPosition();
+        } while (changes.size() == CHANGES_PER_PAGE);
+    }
+
+    public synchronized void rebuild() {
+        long from = changeLogRepository.committedPosition();
+        rebuild.run();
+        position = from;
+    }
+}
@@ -0,0 +1,186 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.ChangeLogEntry;
+import com.sasken.skillsync.model.LearnerCourseKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * The append-only change log for users, courses, enrollments, progress and certificates. Entries are written on
+ * the transaction's connection, so they commit or roll back together with the change itself.
+ *
+ * Positions are handed out here rather than by the database, and a position counts as in flight
+ * until its transaction completes. Readers never go past the lowest position in flight: a
+ * transaction that took a lower position but commits later can therefore not be overtaken, and
+ * a reader that has seen a position has seen everything before it. Rolled-back positions leave
+ * gaps. This relies on one application instance writing the log.
+ */
+@Repository
+public class ChangeLogRepository {
+
+    private static final Map<String, String> TABLES = Map.of(
+            "enrollment", "enrollments",
+            "progress", "progress",
+            "certificate", "certificates");
+
+    private static final int KEYS_PER_LOOKUP = 500;
+
+    private static final String INSERT =
+            "INSERT INTO change_log (position, entity_type, entity_id, operation, changed_at) " +
+            "VALUES (:position, :entityType, :entityId, :operation, :changedAt)";
+
+    private static final String FIND_AFTER =
+            "SELECT position, entity_type, entity_id, operation, changed_at FROM change_log " +
+            "WHERE position > :after AND position < :horizon ORDER BY position LIMIT :limit";
+
+    private final Object positionLock = new Object();
+    private final NavigableSet<Long> inFlight = new TreeSet<>();
+    private long lastPosition = -1;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void record(String entityType, Long entityId, ChangeLogEntry.Operation operation) {
+        append(List.of(entry(entityType, entityId, operation)));
+    }
+
+    /**
+     * Records rows that a bulk statement just wrote by their (user, course) key. A row still at
+     * version 0 was inserted by that statement; any other row was updated.
+     */
+    public void recordLearnerCourses(String entityType, Collection<LearnerCourseKey> keys) {
+        String table = TABLES.get(entityType);
+        if (table == null) {
+            throw new IllegalArgumentException("Entity type " + entityType + " is not part of the change log");
+        }
+        List<Object[]> tuples = keys.stream().map(key -> new Object[] {key.userId(), key.courseId()}).toList();
+        List<ChangeLogEntry> entries = new ArrayList<>();
+        for (int from = 0; from < tuples.size(); from += KEYS_PER_LOOKUP) {
+            entries.addAll(jdbcTemplate.query("SELECT id, version FROM " + table + " WHERE (user_id, course_id) IN (:keys)",
+                    Map.of("keys", tuples.subList(from, Math.min(tuples.size(), from + KEYS_PER_LOOKUP))),
+                    (rs, rowNum) -> entry(entityType, rs.getLong(1), rs.getLong(2) == 0
+                            ? ChangeLogEntry.Operation.CREATED : ChangeLogEntry.Operation.UPDATED)));
+        }
+        append(entries);
+    }
+
+    /**
+     * The position up to which every entry is committed or rolled back. A reader that has seen
+     * this position can resume from it without missing a later commit.
+     */
+    public long committedPosition() {
+        synchronized (positionLock) {
+            initialize();
+            return horizon() - 1;
+        }
+    }
+
+    /**
+     * Up to {@code limit} committed entries after {@code position}, in position order.
+     */
+    public List<ChangeLogEntry> findAfter(long position, int limit) {
+        long horizon;
+        synchronized (positionLock) {
+            initialize();
+            horizon = horizon();
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("after", position)
+                .addValue("horizon", horizon)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(FIND_AFTER, parameters, (rs, rowNum) -> {
+            ChangeLogEntry entry = new ChangeLogEntry();
+            entry.setPosition(rs.getLong("position"));
+            entry.setEntityType(rs.getString("entity_type"));
+            entry.setEntityId(rs.getLong("entity_id"));
+            entry.setOperation(ChangeLogEntry.Operation.valueOf(rs.getString("operation")));
+            entry.setChangedAt(rs.getTimestamp("changed_at").toLocalDateTime());
+            return entry;
+        });
+    }
+
+    private void append(List<ChangeLogEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long first;
+        synchronized (positionLock) {
+            initialize();
+            first = lastPosition + 1;
+            lastPosition += entries.size();
+            for (long position = first; position <= lastPosition; position++) {
+                inFlight.add(position);
+            }
+        }
+
+        // Registered before the insert, so a failed insert still gives its positions back
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    release(first, entries.size());
+                }
+            });
+        }
+        try {
+            SqlParameterSource[] batch = new SqlParameterSource[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                ChangeLogEntry entry = entries.get(i);
+                batch[i] = new MapSqlParameterSource()
+                        .addValue("position", first + i)
+                        .addValue("entityType", entry.getEntityType())
+                        .addValue("entityId", entry.getEntityId())
+                        .addValue("operation", entry.getOperation().name())
+                        .addValue("changedAt", entry.getChangedAt());
+            }
+            jdbcTemplate.batchUpdate(INSERT, batch);
+        } finally {
+            if (!inTransaction) {
+                release(first, entries.size());
+            }
+        }
+    }
+
+    private void release(long first, int count) {
+        synchronized (positionLock) {
+            for (long position = first; position < first + count; position++) {
+                inFlight.remove(position);
+            }
+        }
+    }
+
+    private long horizon() {
+        return inFlight.isEmpty() ? lastPosition + 1 : inFlight.first();
+    }
+
+    // The table is created with the schema, after this bean, so the counter is read on first use
+    private void initialize() {
+        if (lastPosition < 0) {
+            Long max = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT MAX(position) FROM change_log", Long.class);
+            lastPosition = max != null ? max : 0;
+        }
+    }
+
+    private static ChangeLogEntry entry(String entityType, Long entityId, ChangeLogEntry.Operation operation) {
+        ChangeLogEntry entry = new ChangeLogEntry();
+        entry.setEntityType(entityType);
+        entry.setEntityId(entityId);
+        entry.setOperation(operation);
+        entry.setChangedAt(LocalDateTime.now());
+        return entry;
+    }
+}
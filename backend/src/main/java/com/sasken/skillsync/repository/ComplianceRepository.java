@@ -0,0 +1,103 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads the few user and enrollment columns that the compliance rollup and the user bitmap index
+ * are keyed by, either for every row or for a set of ids. Enrollments come with the learner's
+ * department joined in.
+ */
+@Repository
+public class ComplianceRepository {
+
+    private static final int IDS_PER_LOOKUP = 500;
+
+    private static final String SELECT =
+            "SELECT e.id, e.user_id, u.department, e.course_id, e.status, e.enrolled_at " +
+            "FROM enrollments e JOIN users u ON u.id = e.user_id";
+
+    private static final String SELECT_USERS = "SELECT id, department, role, is_active FROM users";
+
+    private static final RowMapper<UserState> USER_MAPPER = (rs, rowNum) -> new UserState(
+            rs.getLong("id"),
+            rs.getString("department"),
+            rs.getString("role") != null ? User.UserRole.valueOf(rs.getString("role")) : null,
+            rs.getBoolean("is_active"));
+
+    private static final RowMapper<EnrollmentState> MAPPER = (rs, rowNum) -> new EnrollmentState(
+            rs.getLong("id"),
+            rs.getLong("user_id"),
+            rs.getString("department"),
+            rs.getLong("course_id"),
+            rs.getString("status") != null ? Enrollment.EnrollmentStatus.valueOf(rs.getString("status")) : null,
+            rs.getTimestamp("enrolled_at") != null ? rs.getTimestamp("enrolled_at").toLocalDateTime() : null);
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Streams every enrollment to {@code action} without holding the result in memory.
+     */
+    public void forEachEnrollment(Consumer<EnrollmentState> action) {
+        streaming().query(SELECT, (RowCallbackHandler) rs -> action.accept(MAPPER.mapRow(rs, 0)));
+    }
+
+    public void forEachUser(Consumer<UserState> action) {
+        streaming().query(SELECT_USERS, (RowCallbackHandler) rs -> action.accept(USER_MAPPER.mapRow(rs, 0)));
+    }
+
+    /**
+     * The current state of the given enrollments; ids of deleted enrollments are missing from the result.
+     */
+    public List<EnrollmentState> findByIds(Collection<Long> enrollmentIds) {
+        return findIn(SELECT + " WHERE e.id", enrollmentIds, MAPPER);
+    }
+
+    public List<EnrollmentState> findByUserIds(Collection<Long> userIds) {
+        return findIn(SELECT + " WHERE e.user_id", userIds, MAPPER);
+    }
+
+    /**
+     * The current state of the given users; ids of deleted users are missing from the result.
+     */
+    public List<UserState> findUsersByIds(Collection<Long> userIds) {
+        return findIn(SELECT_USERS + " WHERE id", userIds, USER_MAPPER);
+    }
+
+    private <T> List<T> findIn(String selectWhereColumn, Collection<Long> ids, RowMapper<T> mapper) {
+        List<Long> all = List.copyOf(ids);
+        List<T> states = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IDS_PER_LOOKUP) {
+            states.addAll(jdbcTemplate.query(selectWhereColumn + " IN (:ids)",
+                    Map.of("ids", all.subList(from, Math.min(all.size(), from + IDS_PER_LOOKUP))), mapper));
+        }
+        return states;
+    }
+
+    private JdbcTemplate streaming() {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        streaming.setFetchSize(1000);
+        return streaming;
+    }
+
+    public record UserState(Long id, String department, User.UserRole role, boolean active) {
+    }
+
+    public record EnrollmentState(Long id, Long userId, String department, Long courseId,
+                                  Enrollment.EnrollmentStatus status, LocalDateTime enrolledAt) {
+    }
+}
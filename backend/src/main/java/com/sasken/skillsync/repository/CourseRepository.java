@@ -1,11 +1,15 @@
 package com.sasken.skillsync.repository;
 
 import com.sasken.skillsync.model.Course;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import java.util.List;
 
 @Repository
@@ -15,21 +19,26 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     
     List<Course> findByType(Course.CourseType type);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Course> findByIsActive(boolean isActive);
     
     List<Course> findByIsMandatory(boolean isMandatory);
     
     List<Course> findByTrainerId(Long trainerId);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Course c WHERE c.trainer.id = :trainerId AND c.isActive = true")
     List<Course> findActiveCoursesByTrainer(@Param("trainerId") Long trainerId);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Course c WHERE c.category = :category AND c.isActive = true")
     List<Course> findActiveCoursesByCategory(@Param("category") Course.CourseCategory category);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Course c WHERE c.type = :type AND c.isActive = true")
     List<Course> findActiveCoursesByType(@Param("type") Course.CourseType type);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Course c WHERE c.isMandatory = true AND c.isActive = true")
     List<Course> findActiveMandatoryCourses();
     
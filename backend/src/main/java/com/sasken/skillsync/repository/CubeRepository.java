@@ -0,0 +1,102 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.Course;
+import com.sasken.skillsync.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads enrollments and certificates with the coordinates the training cube counts them by: the
+ * course category and type, the learner's department and role, the month the row dates from and
+ * its status. Rows are read for an id range, so a rebuild can scan one table in parallel slices,
+ * or for a set of enrollment, user or course ids.
+ */
+@Repository
+public class CubeRepository {
+
+    private static final int IDS_PER_LOOKUP = 500;
+
+    private static final RowMapper<FactRow> MAPPER = (rs, rowNum) -> new FactRow(
+            rs.getLong("id"),
+            rs.getString("category") != null ? Course.CourseCategory.valueOf(rs.getString("category")) : null,
+            rs.getString("type") != null ? Course.CourseType.valueOf(rs.getString("type")) : null,
+            rs.getString("department"),
+            rs.getString("role") != null ? User.UserRole.valueOf(rs.getString("role")) : null,
+            rs.getTimestamp("occurred_at") != null ? rs.getTimestamp("occurred_at").toLocalDateTime() : null,
+            rs.getString("status"));
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * The lowest and highest id in {@code table}, or null when it is empty.
+     */
+    public long[] idRange(FactTable table) {
+        return jdbcTemplate.getJdbcTemplate().queryForObject("SELECT MIN(id), MAX(id) FROM " + table.name,
+                (rs, rowNum) -> rs.getObject(1) == null ? null : new long[] {rs.getLong(1), rs.getLong(2)});
+    }
+
+    /**
+     * Streams the rows with ids from {@code fromId} to {@code toId}, both inclusive, to {@code action}.
+     */
+    public void forEachInRange(FactTable table, long fromId, long toId, Consumer<FactRow> action) {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        streaming.setFetchSize(1000);
+        streaming.query(table.select + " WHERE f.id BETWEEN ? AND ?",
+                (RowCallbackHandler) rs -> action.accept(MAPPER.mapRow(rs, 0)), fromId, toId);
+    }
+
+    /**
+     * The current state of the given rows; ids of deleted rows are missing from the result.
+     */
+    public List<FactRow> findByIds(FactTable table, Collection<Long> ids) {
+        return findIn(table.select + " WHERE f.id", ids);
+    }
+
+    public List<FactRow> findByUserIds(FactTable table, Collection<Long> userIds) {
+        return findIn(table.select + " WHERE f.user_id", userIds);
+    }
+
+    public List<FactRow> findByCourseIds(FactTable table, Collection<Long> courseIds) {
+        return findIn(table.select + " WHERE f.course_id", courseIds);
+    }
+
+    private List<FactRow> findIn(String selectWhereColumn, Collection<Long> ids) {
+        List<Long> all = List.copyOf(ids);
+        List<FactRow> rows = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IDS_PER_LOOKUP) {
+            rows.addAll(jdbcTemplate.query(selectWhereColumn + " IN (:ids)",
+                    Map.of("ids", all.subList(from, Math.min(all.size(), from + IDS_PER_LOOKUP))), MAPPER));
+        }
+        return rows;
+    }
+
+    public enum FactTable {
+        ENROLLMENTS("enrollments", "enrolled_at"),
+        CERTIFICATES("certificates", "issued_at");
+
+        private final String name;
+        private final String select;
+
+        FactTable(String name, String dateColumn) {
+            this.name = name;
+            this.select = "SELECT f.id, c.category, c.type, u.department, u.role, f." + dateColumn + " AS occurred_at, " +
+                    "f.status FROM " + name + " f JOIN users u ON u.id = f.user_id JOIN courses c ON c.id = f.course_id";
+        }
+    }
+
+    public record FactRow(Long id, Course.CourseCategory category, Course.CourseType type, String department,
+                          User.UserRole role, LocalDateTime occurredAt, String status) {
+    }
+}
@@ -1,17 +1,22 @@
 package com.sasken.skillsync.repository;
 
 import com.sasken.skillsync.model.Enrollment;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+public interface EnrollmentRepository extends JpaRepository<Enrollment, Long>, EnrollmentRepositoryCustom {
     
     List<Enrollment> findByUserId(Long userId);
     
@@ -74,4 +79,13 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
 
     @Query("SELECT e FROM Enrollment e WHERE e.user.id = :userId AND e.type = 'OPTIONAL'")
     List<Enrollment> findOptionalEnrollmentsByUserId(@Param("userId") Long userId);
+
+    // For exports: rows arrive in fetch-size chunks, are not dirty-checked and bypass the second-level cache.
+    // On MySQL the fetch size only takes effect with useCursorFetch=true on the connection (see MySqlCursorFetchPostProcessor)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("SELECT e FROM Enrollment e ORDER BY e.id")
+    Stream<Enrollment> streamAllOrderById();
 }
\ No newline at end of file
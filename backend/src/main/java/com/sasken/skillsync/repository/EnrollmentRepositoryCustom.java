@@ -0,0 +1,31 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.LearnerCourseKey;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+public interface EnrollmentRepositoryCustom {
+
+    /**
+     * Inserts the enrollment unless the (user, course) pair is already enrolled, relying on the
+     * unique constraint rather than a prior lookup. Returns whether a row was inserted.
+     */
+    boolean insertIfAbsent(Enrollment enrollment);
+
+    /**
+     * Rolls minutes into each pair's total time spent in one JDBC batch. Pairs without an
+     * enrollment are skipped. Returns the pairs whose row was updated.
+     */
+    Set<LearnerCourseKey> addTotalTimeSpent(Map<LearnerCourseKey, Long> minutesByLearnerCourse, LocalDateTime accessedAt);
+
+    /**
+     * Mirrors a learner's completion percentage onto their enrollment with one keyed UPDATE and no
+     * prior read: 100% completes it, anything above 0% moves a pending or enrolled enrollment to
+     * in progress, and completed, dropped or suspended enrollments keep their status.
+     * Returns false if the learner is not enrolled in the course.
+     */
+    boolean updateCompletionState(Long userId, Long courseId, Double completionPercentage, LocalDateTime updatedAt);
+}
@@ -0,0 +1,89 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.LearnerCourseKey;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+public class EnrollmentRepositoryCustomImpl implements EnrollmentRepositoryCustom {
+
+    // A plain insert works on both databases: a duplicate key only fails the statement, not the
+    // surrounding transaction, and unlike ON DUPLICATE KEY UPDATE it reports whether a row was added
+    private static final String INSERT =
+            "INSERT INTO enrollments (user_id, course_id, status, type, enrolled_at, completion_percentage, " +
+            "total_time_spent, certificate_earned, notes) " +
+            "VALUES (:userId, :courseId, :status, :type, :enrolledAt, :completionPercentage, " +
+            ":totalTimeSpent, :certificateEarned, :notes)";
+
+    private static final String ADD_TOTAL_TIME_SPENT =
+            "UPDATE enrollments SET total_time_spent = COALESCE(total_time_spent, 0) + :minutes, " +
+            "last_accessed_at = :accessedAt, version = version + 1 " +
+            "WHERE user_id = :userId AND course_id = :courseId";
+
+    private static final String UPDATE_COMPLETION_STATE =
+            "UPDATE enrollments SET completion_percentage = :completionPercentage, " +
+            "status = CASE WHEN :completionPercentage >= 100 THEN 'COMPLETED' " +
+            "WHEN :completionPercentage > 0 AND status IN ('PENDING', 'ENROLLED') THEN 'IN_PROGRESS' " +
+            "ELSE status END, " +
+            "completed_at = CASE WHEN :completionPercentage >= 100 THEN COALESCE(completed_at, :updatedAt) ELSE completed_at END, " +
+            "last_accessed_at = :updatedAt, version = version + 1 " +
+            "WHERE user_id = :userId AND course_id = :courseId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean insertIfAbsent(Enrollment enrollment) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("userId", enrollment.getUser().getId())
+                .addValue("courseId", enrollment.getCourse().getId())
+                .addValue("status", enrollment.getStatus().name())
+                .addValue("type", enrollment.getType() != null ? enrollment.getType().name() : null)
+                .addValue("enrolledAt", enrollment.getEnrolledAt())
+                .addValue("completionPercentage", enrollment.getCompletionPercentage())
+                .addValue("totalTimeSpent", enrollment.getTotalTimeSpent())
+                .addValue("certificateEarned", enrollment.getCertificateEarned())
+                .addValue("notes", enrollment.getNotes());
+
+        try {
+            return jdbcTemplate.update(INSERT, parameters) == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Set<LearnerCourseKey> addTotalTimeSpent(Map<LearnerCourseKey, Long> minutesByLearnerCourse, LocalDateTime accessedAt) {
+        return IncrementBatches.run(jdbcTemplate, ADD_TOTAL_TIME_SPENT, minutesByLearnerCourse, accessedAt);
+    }
+
+    @Override
+    public boolean updateCompletionState(Long userId, Long courseId, Double completionPercentage, LocalDateTime updatedAt) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("courseId", courseId)
+                .addValue("completionPercentage", completionPercentage)
+                .addValue("updatedAt", updatedAt);
+        return jdbcTemplate.update(UPDATE_COMPLETION_STATE, parameters) == 1;
+    }
+}
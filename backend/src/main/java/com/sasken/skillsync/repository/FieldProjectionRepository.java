@@ -0,0 +1,145 @@
+package com.sasken.skillsync.repository;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.sasken.skillsync.exception.BadRequestException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Backs the {@code fields} query parameter of list endpoints. Only the requested columns are
+ * selected, so large columns such as a notification message are neither read from the database
+ * nor serialized when the client does not ask for them.
+ *
+ * Fields use the names of the full JSON representation: {@code isActive} is requested as
+ * {@code active}, and a many-to-one association is available as its id ({@code courseId}).
+ * Attributes hidden from JSON through {@code @JsonIgnore} or a write-only {@code @JsonProperty}
+ * cannot be requested. The id is always included.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class FieldProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<Class<?>, Map<String, ProjectableField>> fieldsByEntity = new ConcurrentHashMap<>();
+
+    public <T> List<Map<String, Object>> findFields(Class<T> entityClass, String fields, Specification<T> where, Sort sort) {
+        List<ProjectableField> selected = select(entityClass, fields);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (ProjectableField field : selected) {
+            Path<?> path = root.get(field.attribute());
+            selections.add((field.association() ? path.get("id") : path).alias(field.name()));
+        }
+        query.multiselect(selections);
+        if (where != null) {
+            Predicate predicate = where.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (TupleElement<?> element : tuple.getElements()) {
+                row.put(element.getAlias(), tuple.get(element));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<ProjectableField> select(Class<?> entityClass, String fields) {
+        Map<String, ProjectableField> available = fieldsByEntity.computeIfAbsent(entityClass, this::projectableFields);
+
+        List<ProjectableField> selected = new ArrayList<>();
+        selected.add(available.get("id"));
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty() || trimmed.equals("id")) {
+                continue;
+            }
+            ProjectableField field = available.get(trimmed);
+            if (field == null) {
+                throw new BadRequestException("Unknown field '" + trimmed + "'; available fields: " + available.keySet());
+            }
+            if (!selected.contains(field)) {
+                selected.add(field);
+            }
+        }
+        return selected;
+    }
+
+    private Map<String, ProjectableField> projectableFields(Class<?> entityClass) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(entityClass);
+        Map<String, ProjectableField> fields = new LinkedHashMap<>();
+        for (SingularAttribute<?, ?> attribute : entityType.getSingularAttributes()) {
+            if (hiddenFromJson(attribute)) {
+                continue;
+            }
+            String name = attribute.getName();
+            if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.MANY_TO_ONE
+                    || attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.ONE_TO_ONE) {
+                fields.put(name + "Id", new ProjectableField(name + "Id", name, true));
+            } else if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC) {
+                String jsonName = jsonName(name, attribute.getJavaType());
+                fields.put(jsonName, new ProjectableField(jsonName, name, false));
+            }
+        }
+        return fields;
+    }
+
+    private static boolean hiddenFromJson(SingularAttribute<?, ?> attribute) {
+        if (!(attribute.getJavaMember() instanceof Field field)) {
+            return false;
+        }
+        JsonProperty property = field.getAnnotation(JsonProperty.class);
+        return field.isAnnotationPresent(JsonIgnore.class)
+                || (property != null && property.access() == JsonProperty.Access.WRITE_ONLY);
+    }
+
+    // A boolean field isActive has the getter isActive(), which Jackson names "active"
+    private static String jsonName(String attribute, Class<?> type) {
+        if (type == boolean.class && attribute.length() > 2 && attribute.startsWith("is")
+                && Character.isUpperCase(attribute.charAt(2))) {
+            return Character.toLowerCase(attribute.charAt(2)) + attribute.substring(3);
+        }
+        return attribute;
+    }
+
+    private record ProjectableField(String name, String attribute, boolean association) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.LearnerCourseKey;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs one keyed increment statement per (user, course) pair as a single JDBC batch.
+ */
+final class IncrementBatches {
+
+    private IncrementBatches() {
+    }
+
+    /**
+     * Returns the pairs whose row was updated.
+     */
+    static Set<LearnerCourseKey> run(NamedParameterJdbcTemplate jdbcTemplate, String sql,
+                                     Map<LearnerCourseKey, Long> minutesByLearnerCourse, LocalDateTime accessedAt) {
+        if (minutesByLearnerCourse.isEmpty()) {
+            return Set.of();
+        }
+
+        List<LearnerCourseKey> keys = new ArrayList<>(minutesByLearnerCourse.keySet());
+        SqlParameterSource[] batch = keys.stream()
+                .map(key -> new MapSqlParameterSource()
+                        .addValue("userId", key.userId())
+                        .addValue("courseId", key.courseId())
+                        .addValue("minutes", minutesByLearnerCourse.get(key))
+                        .addValue("accessedAt", accessedAt))
+                .toArray(SqlParameterSource[]::new);
+
+        int[] counts = jdbcTemplate.batchUpdate(sql, batch);
+        Set<LearnerCourseKey> updated = new LinkedHashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            // Drivers may report SUCCESS_NO_INFO for batched statements; count those as applied
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                updated.add(keys.get(i));
+            }
+        }
+        return updated;
+    }
+}
@@ -1,6 +1,7 @@
 package com.sasken.skillsync.repository;
 
 import com.sasken.skillsync.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -50,6 +51,8 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     // Additional methods needed by services and controllers
     List<Notification> findByUserIdOrderBySentAtDesc(Long userId);
 
+    List<Notification> findByUserIdOrderBySentAtDesc(Long userId, Pageable pageable);
+
     List<Notification> findByUserIdAndIsReadFalseOrderBySentAtDesc(Long userId);
 
     long countByUserIdAndIsReadFalse(Long userId);
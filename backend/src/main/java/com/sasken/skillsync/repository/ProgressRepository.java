@@ -1,17 +1,23 @@
 package com.sasken.skillsync.repository;
 
 import com.sasken.skillsync.model.Progress;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProgressRepository extends JpaRepository<Progress, Long> {
+public interface ProgressRepository extends JpaRepository<Progress, Long>, ProgressRepositoryCustom {
     
     List<Progress> findByUserId(Long userId);
     
@@ -22,6 +28,11 @@ public interface ProgressRepository extends JpaRepository<Progress, Long> {
     @Query("SELECT p FROM Progress p WHERE p.user.id = :userId AND p.course.id = :courseId")
     Optional<Progress> findByUserIdAndCourseId(@Param("userId") Long userId, @Param("courseId") Long courseId);
     
+    // Superset of the requested pairs; callers pick their rows out by key
+    @Query("SELECT p FROM Progress p WHERE p.user.id IN :userIds AND p.course.id IN :courseIds")
+    List<Progress> findByUserIdInAndCourseIdIn(@Param("userIds") Collection<Long> userIds, @Param("courseIds") Collection<Long> courseIds);
+
+    
     @Query("SELECT p FROM Progress p WHERE p.user.id = :userId AND p.status = :status")
     List<Progress> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") Progress.ProgressStatus status);
     
@@ -84,4 +95,13 @@ public interface ProgressRepository extends JpaRepository<Progress, Long> {
 
     @Query("SELECT p FROM Progress p WHERE p.user.id = :userId ORDER BY p.lastAccessedAt DESC")
     List<Progress> findRecentActivityByUserId(@Param("userId") Long userId);
+
+    // For exports: rows arrive in fetch-size chunks, are not dirty-checked and bypass the second-level cache.
+    // On MySQL the fetch size only takes effect with useCursorFetch=true on the connection (see MySqlCursorFetchPostProcessor)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("SELECT p FROM Progress p ORDER BY p.id")
+    Stream<Progress> streamAllOrderById();
 }
\ No newline at end of file
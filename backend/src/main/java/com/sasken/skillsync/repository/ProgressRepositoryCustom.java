@@ -0,0 +1,35 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.LearnerCourseKey;
+import com.sasken.skillsync.model.Progress;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+public interface ProgressRepositoryCustom {
+
+    /**
+     * Inserts the progress row for the (user, course) pair, or updates the existing one, in a single
+     * statement. On update, a null time spent, quiz score, notes or completion date keeps the stored
+     * value, the started and created timestamps are never overwritten, and the version is bumped so
+     * concurrent entity updates see the change. A row already loaded into the current persistence
+     * context is not refreshed, so reload it after calling this.
+     */
+    void upsert(Progress progress);
+
+    /**
+     * Inserts a NOT_STARTED row with no time spent for each pair that has no progress row yet, and
+     * leaves existing rows untouched. Pairs whose user or course does not exist are skipped.
+     * Returns the pairs that were started.
+     */
+    Set<LearnerCourseKey> startMissing(Collection<LearnerCourseKey> keys, LocalDateTime startedAt);
+
+    /**
+     * Adds minutes to each pair's time spent in one JDBC batch, incrementing in the database so no
+     * read is needed and concurrent writers cannot lose minutes. Pairs without a progress row are
+     * skipped. Returns the pairs whose row was updated.
+     */
+    Set<LearnerCourseKey> addTimeSpent(Map<LearnerCourseKey, Long> minutesByLearnerCourse, LocalDateTime accessedAt);
+}
@@ -0,0 +1,167 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.LearnerCourseKey;
+import com.sasken.skillsync.model.Progress;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class ProgressRepositoryCustomImpl implements ProgressRepositoryCustom {
+
+    private static final String UPDATE_COLUMNS_H2 =
+            "completion_percentage = :completionPercentage, " +
+            "time_spent_minutes = COALESCE(:timeSpentMinutes, t.time_spent_minutes), " +
+            "quiz_score = COALESCE(:quizScore, t.quiz_score), " +
+            "max_quiz_score = COALESCE(:maxQuizScore, t.max_quiz_score), " +
+            "notes = COALESCE(:notes, t.notes), " +
+            "status = :status, " +
+            "completed_at = COALESCE(:completedAt, t.completed_at), " +
+            "last_accessed_at = :lastAccessedAt, " +
+            "updated_at = :updatedAt, " +
+            "version = t.version + 1";
+
+    private static final String INSERT_COLUMNS =
+            "(user_id, course_id, completion_percentage, time_spent_minutes, quiz_score, max_quiz_score, notes, " +
+            "status, started_at, completed_at, last_accessed_at, created_at, updated_at)";
+
+    private static final String INSERT_VALUES =
+            "(:userId, :courseId, :completionPercentage, COALESCE(:timeSpentMinutes, 0), :quizScore, :maxQuizScore, :notes, " +
+            ":status, :startedAt, :completedAt, :lastAccessedAt, :createdAt, :updatedAt)";
+
+    private static final String UPSERT_H2 =
+            "MERGE INTO progress t USING (VALUES (:userId, :courseId)) s (user_id, course_id) " +
+            "ON t.user_id = s.user_id AND t.course_id = s.course_id " +
+            "WHEN MATCHED THEN UPDATE SET " + UPDATE_COLUMNS_H2 + " " +
+            "WHEN NOT MATCHED THEN INSERT " + INSERT_COLUMNS + " VALUES " + INSERT_VALUES;
+
+    private static final String UPSERT_MYSQL =
+            "INSERT INTO progress " + INSERT_COLUMNS + " VALUES " + INSERT_VALUES + " " +
+            "ON DUPLICATE KEY UPDATE " +
+            "completion_percentage = VALUES(completion_percentage), " +
+            "time_spent_minutes = COALESCE(:timeSpentMinutes, time_spent_minutes), " +
+            "quiz_score = COALESCE(VALUES(quiz_score), quiz_score), " +
+            "max_quiz_score = COALESCE(VALUES(max_quiz_score), max_quiz_score), " +
+            "notes = COALESCE(VALUES(notes), notes), " +
+            "status = VALUES(status), " +
+            "completed_at = COALESCE(VALUES(completed_at), completed_at), " +
+            "last_accessed_at = VALUES(last_accessed_at), " +
+            "updated_at = VALUES(updated_at), " +
+            "version = version + 1";
+
+    private static final String ADD_TIME_SPENT =
+            "UPDATE progress SET time_spent_minutes = COALESCE(time_spent_minutes, 0) + :minutes, " +
+            "last_accessed_at = :accessedAt, updated_at = :accessedAt, version = version + 1 " +
+            "WHERE user_id = :userId AND course_id = :courseId";
+
+    // Joining users and courses skips pairs whose learner or course has gone
+    private static final String START_IF_MISSING =
+            "INSERT INTO progress (user_id, course_id, completion_percentage, time_spent_minutes, status, " +
+            "started_at, last_accessed_at, created_at, updated_at) " +
+            "SELECT u.id, c.id, 0, 0, 'NOT_STARTED', :startedAt, :startedAt, :startedAt, :startedAt " +
+            "FROM users u JOIN courses c ON c.id = :courseId WHERE u.id = :userId " +
+            "AND NOT EXISTS (SELECT 1 FROM progress p WHERE p.user_id = :userId AND p.course_id = :courseId)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private UpsertDialect dialect;
+
+    @PostConstruct
+    public void init() {
+        dialect = UpsertDialect.of(entityManager);
+    }
+
+    @Override
+    public void upsert(Progress progress) {
+        // Runs on the transaction's JDBC connection, so pending entity changes must reach it first
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("userId", progress.getUser().getId())
+                .addValue("courseId", progress.getCourse().getId())
+                .addValue("completionPercentage", progress.getCompletionPercentage())
+                .addValue("timeSpentMinutes", progress.getTimeSpentMinutes())
+                .addValue("quizScore", progress.getQuizScore())
+                .addValue("maxQuizScore", progress.getMaxQuizScore())
+                .addValue("notes", progress.getNotes())
+                .addValue("status", progress.getStatus().name())
+                .addValue("startedAt", progress.getStartedAt())
+                .addValue("completedAt", progress.getCompletedAt())
+                .addValue("lastAccessedAt", progress.getLastAccessedAt())
+                .addValue("createdAt", progress.getCreatedAt())
+                .addValue("updatedAt", progress.getUpdatedAt());
+
+        if (dialect == UpsertDialect.MYSQL) {
+            jdbcTemplate.update(UPSERT_MYSQL, parameters);
+            return;
+        }
+
+        try {
+            jdbcTemplate.update(UPSERT_H2, parameters);
+        } catch (DuplicateKeyException e) {
+            // H2's MERGE is not atomic: a concurrent insert of the same pair can win between the
+            // match and the insert. That row is committed now, so the retry takes the update branch.
+            jdbcTemplate.update(UPSERT_H2, parameters);
+        }
+    }
+
+    @Override
+    public Set<LearnerCourseKey> startMissing(Collection<LearnerCourseKey> keys, LocalDateTime startedAt) {
+        if (keys.isEmpty()) {
+            return Set.of();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+
+        // A superset of the requested pairs, as keys only, so most calls end here without inserting
+        Set<LearnerCourseKey> existing = new HashSet<>(entityManager.createQuery(
+                        "SELECT new com.sasken.skillsync.model.LearnerCourseKey(p.user.id, p.course.id) FROM Progress p " +
+                        "WHERE p.user.id IN :userIds AND p.course.id IN :courseIds", LearnerCourseKey.class)
+                .setParameter("userIds", keys.stream().map(LearnerCourseKey::userId).collect(Collectors.toSet()))
+                .setParameter("courseIds", keys.stream().map(LearnerCourseKey::courseId).collect(Collectors.toSet()))
+                .getResultList());
+
+        Set<LearnerCourseKey> started = new LinkedHashSet<>();
+        for (LearnerCourseKey key : keys) {
+            if (existing.contains(key)) {
+                continue;
+            }
+            MapSqlParameterSource parameters = new MapSqlParameterSource()
+                    .addValue("userId", key.userId())
+                    .addValue("courseId", key.courseId())
+                    .addValue("startedAt", startedAt);
+            try {
+                if (jdbcTemplate.update(START_IF_MISSING, parameters) > 0) {
+                    started.add(key);
+                }
+            } catch (DuplicateKeyException e) {
+                // A concurrent writer started the same pair first, which is all this needed
+            }
+        }
+        return started;
+    }
+
+    @Override
+    public Set<LearnerCourseKey> addTimeSpent(Map<LearnerCourseKey, Long> minutesByLearnerCourse, LocalDateTime accessedAt) {
+        return IncrementBatches.run(jdbcTemplate, ADD_TIME_SPENT, minutesByLearnerCourse, accessedAt);
+    }
+}
@@ -0,0 +1,62 @@
+package com.sasken.skillsync.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Cheap change detection for HTTP validators. A table's version is the row count, the highest id
+ * and whichever of max(updated_at) and sum(version) the table has: an insert raises the id, a
+ * delete lowers the count, and every update path (entity callbacks as well as the bulk upserts)
+ * moves updated_at or the version column forward.
+ */
+@Repository
+public class TableVersionRepository {
+
+    private static final Map<String, String> AGGREGATES = Map.of(
+            "users", "COUNT(*), MAX(id), MAX(updated_at)",
+            "courses", "COUNT(*), MAX(id), MAX(updated_at)",
+            "sessions", "COUNT(*), MAX(id), MAX(updated_at)",
+            "progress", "COUNT(*), MAX(id), MAX(updated_at), SUM(version)",
+            "enrollments", "COUNT(*), MAX(id), SUM(version)");
+
+    private static final Pattern COLUMN = Pattern.compile("[a-z_]+");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public String version(String table) {
+        return version(table, null, null);
+    }
+
+    /**
+     * The version of the rows of {@code table} whose {@code column} equals {@code value}, or of the
+     * whole table when column is null.
+     */
+    public String version(String table, String column, Object value) {
+        String aggregates = AGGREGATES.get(table);
+        if (aggregates == null) {
+            throw new IllegalArgumentException("No version aggregates for table " + table);
+        }
+        String sql = "SELECT " + aggregates + " FROM " + table;
+        Object[] args = {};
+        if (column != null) {
+            if (!COLUMN.matcher(column).matches()) {
+                throw new IllegalArgumentException("Invalid column " + column);
+            }
+            sql += " WHERE " + column + " = ?";
+            args = new Object[] {value};
+        }
+        return jdbcTemplate.query(sql, rs -> {
+            rs.next();
+            StringBuilder version = new StringBuilder(table);
+            for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+                version.append(':').append(rs.getObject(i));
+            }
+            return version.toString();
+        }, args);
+    }
+}
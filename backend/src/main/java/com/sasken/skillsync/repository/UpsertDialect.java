@@ -0,0 +1,30 @@
+package com.sasken.skillsync.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * The databases this application runs on spell "insert or update" differently, so repository
+ * fragments pick their statement from the dialect Hibernate was configured with.
+ */
+enum UpsertDialect {
+    H2, MYSQL;
+
+    static UpsertDialect of(EntityManager entityManager) {
+        Dialect dialect = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+
+        if (dialect instanceof MySQLDialect) {
+            return MYSQL;
+        }
+        if (dialect instanceof H2Dialect) {
+            return H2;
+        }
+        throw new IllegalStateException("No upsert statement available for dialect " + dialect.getClass().getName());
+    }
+}
@@ -0,0 +1,11 @@
+package com.sasken.skillsync.repository;
+
+import com.sasken.skillsync.model.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    // Resolved through the natural-id cache, so repeated lookups for the same email skip the database
+    Optional<User> findByEmail(String email);
+}
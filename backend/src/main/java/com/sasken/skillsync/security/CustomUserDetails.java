@@ -26,6 +26,10 @@ public class CustomUserDetails implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    // Entity loaded during authentication, kept so the login response needs no second lookup
+    @JsonIgnore
+    private transient User user;
+
     public CustomUserDetails(Long id, String email, String password, String firstName, String lastName, 
                            String employeeId, String department, User.UserRole role, 
                            Collection<? extends GrantedAuthority> authorities) {
@@ -43,7 +47,7 @@ public class CustomUserDetails implements UserDetails {
     public static CustomUserDetails create(User user) {
         List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
 
-        return new CustomUserDetails(
+        CustomUserDetails userDetails = new CustomUserDetails(
                 user.getId(),
                 user.getEmail(),
                 user.getPassword(),
@@ -54,6 +58,12 @@ public class CustomUserDetails implements UserDetails {
                 user.getRole(),
                 authorities
         );
+        userDetails.user = user;
+        return userDetails;
+    }
+
+    public User getUser() {
+        return user;
     }
 
     public Long getId() {
@@ -2,33 +2,54 @@ package com.sasken.skillsync.security;
 
 import com.sasken.skillsync.model.User;
 import com.sasken.skillsync.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        User user = LoginMetrics.phaseTimer(meterRegistry, LoginMetrics.PHASE_DB)
+                .record(() -> userRepository.findByEmail(email))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email : " + email));
 
         return CustomUserDetails.create(user);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id : " + id));
 
         return CustomUserDetails.create(user);
     }
-} 
\ No newline at end of file
+
+    // Called by the authentication provider after a successful login when the stored hash
+    // was produced with a lower BCrypt strength than the one currently configured
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email : " + userDetails.getUsername()));
+
+        user.setPassword(newPassword);
+        user.setUpdatedAt(LocalDateTime.now());
+        return CustomUserDetails.create(userRepository.save(user));
+    }
+}
@@ -0,0 +1,22 @@
+package com.sasken.skillsync.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+public final class LoginMetrics {
+
+    public static final String PHASE_TIMER = "skillsync.login.phase";
+
+    public static final String PHASE_DB = "db";
+    public static final String PHASE_HASH_VERIFY = "hash_verify";
+    public static final String PHASE_TOKEN = "token";
+
+    private LoginMetrics() {}
+
+    public static Timer phaseTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder(PHASE_TIMER)
+                .description("Time spent in each phase of a login request")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+}
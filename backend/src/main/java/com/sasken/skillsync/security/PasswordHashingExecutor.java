@@ -0,0 +1,122 @@
+package com.sasken.skillsync.security;
+
+import com.sasken.skillsync.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs BCrypt work on a small dedicated pool so a burst of logins cannot occupy every
+ * request thread and core. Admission is bounded by a semaphore (running + queued tasks);
+ * callers that cannot get a slot within the queue timeout are rejected instead of piling up.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    public enum Priority {
+        VERIFY, ENCODE
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore permits;
+    private final long queueTimeoutMs;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Timer queueWaitTimer;
+
+    public PasswordHashingExecutor(@Value("${security.password.hashing.threads:0}") int threads,
+                                   @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${security.password.hashing.queue-timeout-ms:2000}") long queueTimeoutMs,
+                                   MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.permits = new Semaphore(poolSize + queueCapacity);
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.queueWaitTimer = meterRegistry.timer("skillsync.password.hashing.queue.wait");
+
+        meterRegistry.gauge("skillsync.password.hashing.queue.size", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("skillsync.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    public <T> T execute(Priority priority, Callable<T> work) {
+        try {
+            if (!permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new PasswordHashingRejectedException("Password hashing capacity exhausted, please retry shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing capacity", e);
+        }
+
+        long enqueuedAt = System.nanoTime();
+        PrioritizedTask<T> task = new PrioritizedTask<>(priority, sequence.getAndIncrement(), () -> {
+            try {
+                queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return work.call();
+            } finally {
+                permits.release();
+            }
+        });
+
+        try {
+            executor.execute(task);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw new PasswordHashingRejectedException("Password hashing executor is not accepting work", e);
+        }
+
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class PrioritizedTask<T> extends FutureTask<T> implements Comparable<PrioritizedTask<?>> {
+        private final Priority priority;
+        private final long sequence;
+
+        PrioritizedTask(Priority priority, long sequence, Callable<T> callable) {
+            super(callable);
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask<?> other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
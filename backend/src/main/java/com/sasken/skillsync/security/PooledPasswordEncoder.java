@@ -0,0 +1,41 @@
+package com.sasken.skillsync.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Delegates to a real encoder but runs every hash on the {@link PasswordHashingExecutor}.
+ * Verifications (logins) are scheduled ahead of new hashes (registrations, password changes).
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+    private final Timer verifyTimer;
+    private final Timer encodeTimer;
+
+    public PooledPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.verifyTimer = LoginMetrics.phaseTimer(meterRegistry, LoginMetrics.PHASE_HASH_VERIFY);
+        this.encodeTimer = meterRegistry.timer("skillsync.password.hashing.encode");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute(PasswordHashingExecutor.Priority.ENCODE,
+                () -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute(PasswordHashingExecutor.Priority.VERIFY,
+                () -> verifyTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,123 @@
+package com.sasken.skillsync.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiting keyed by authenticated user id, or by client IP for anonymous
+ * requests. Must run after {@link JwtAuthenticationFilter} so the principal is available.
+ * The first policy whose path pattern matches the request applies.
+ *
+ * Buckets live in a concurrent cache bounded by rate-limit.max-keys, so lookups for different keys
+ * never contend on a shared lock; once the bound is reached, rarely used keys are evicted first.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final List<RateLimitPolicy> policies;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<String, Counter> throttledCounters = new HashMap<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public RateLimitFilter(List<RateLimitPolicy> policies, int maxKeys, MeterRegistry meterRegistry) {
+        this.policies = policies;
+        this.buckets = Caffeine.newBuilder().maximumSize(maxKeys).build();
+
+        for (RateLimitPolicy policy : policies) {
+            throttledCounters.put(policy.getName(), Counter.builder("skillsync.ratelimit.throttled")
+                    .description("Requests rejected by the rate limiter")
+                    .tag("policy", policy.getName())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("skillsync.ratelimit.keys", buckets, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = tryAcquire(urlPathHelper.getPathWithinApplication(request), request);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = retryAfterSeconds(waitNanos);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"status\":429,\"error\":\"Too Many Requests\",\"message\":\""
+                    + message(retryAfterSeconds) + "\"}");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Takes a token for a request to {@code path}, relative to the application, from the bucket of the
+     * policy matching it, charged to the caller of {@code request}. BatchController uses this to charge
+     * each entry of a batch as if it had been sent on its own.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String path, HttpServletRequest request) {
+        RateLimitPolicy policy = findPolicy(path);
+        if (policy == null) {
+            return 0;
+        }
+
+        String key = policy.getName() + ":" + resolveClientKey(request);
+        long waitNanos = buckets.get(key, k -> policy.newBucket()).tryConsume();
+        if (waitNanos > 0) {
+            throttledCounters.get(policy.getName()).increment();
+            logger.debug("Rate limit exceeded for {}", key);
+        }
+        return waitNanos;
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    public static String message(long retryAfterSeconds) {
+        return "Rate limit exceeded, retry after " + retryAfterSeconds + " seconds";
+    }
+
+    private RateLimitPolicy findPolicy(String path) {
+        for (RateLimitPolicy policy : policies) {
+            if (pathMatcher.match(policy.getPathPattern(), path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    private String resolveClientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
+            return "user:" + userDetails.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,36 @@
+package com.sasken.skillsync.security;
+
+public class RateLimitPolicy {
+
+    private final String name;
+    private final String pathPattern;
+    private final long capacity;
+    private final double refillPerSecond;
+
+    public RateLimitPolicy(String name, String pathPattern, long capacity, double refillPerSecond) {
+        this.name = name;
+        this.pathPattern = pathPattern;
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPathPattern() {
+        return pathPattern;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public double getRefillPerSecond() {
+        return refillPerSecond;
+    }
+
+    public TokenBucket newBucket() {
+        return new TokenBucket(capacity, refillPerSecond);
+    }
+}
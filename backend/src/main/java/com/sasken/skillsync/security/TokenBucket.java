@@ -0,0 +1,56 @@
+package com.sasken.skillsync.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket. The token count and last refill time are swapped together with a
+ * single CAS, so concurrent requests for the same key never block each other.
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long capacity;
+    private final double refillPerNano;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(long capacity, double refillPerSecond) {
+        this(capacity, refillPerSecond, System::nanoTime);
+    }
+
+    public TokenBucket(long capacity, double refillPerSecond, LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / NANOS_PER_SECOND;
+        this.nanoClock = nanoClock;
+        this.state = new AtomicReference<>(new State(capacity, nanoClock.getAsLong()));
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryConsume() {
+        while (true) {
+            State current = state.get();
+            long now = nanoClock.getAsLong();
+            double tokens = Math.min(capacity, current.tokens + (now - current.refilledAt) * refillPerNano);
+
+            if (tokens < 1.0) {
+                return (long) Math.ceil((1.0 - tokens) / refillPerNano);
+            }
+            if (state.compareAndSet(current, new State(tokens - 1.0, now))) {
+                return 0;
+            }
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    private record State(double tokens, long refilledAt) {}
+}
@@ -0,0 +1,436 @@
+package com.sasken.skillsync.service;
+
+import com.sasken.skillsync.exception.BadRequestException;
+import com.sasken.skillsync.model.Course;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.Progress;
+import com.sasken.skillsync.repository.AnalyticsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A column-per-attribute copy of the progress table for analytics, so averages and counts by
+ * department, category, course, status or month scan a few primitive arrays instead of running
+ * aggregates against the tables the application writes to.
+ *
+ * Departments and courses are dictionary encoded into ints, enums are stored as their ordinal in
+ * a byte, and dates are packed into an int as {@code (year * 12 + month - 1) << 5 | day}, so the
+ * month of a date is one shift. Queries split the rows into ranges that are aggregated in
+ * parallel on a fork/join pool and merged.
+ *
+ * The snapshot is rebuilt every analytics.refresh-interval-ms and swapped in whole; answers are
+ * as old as the last rebuild, which each result reports.
+ */
+@Service
+public class AnalyticsSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsSnapshot.class);
+
+    private final AnalyticsRepository analyticsRepository;
+    private final MeterRegistry meterRegistry;
+    private final ForkJoinPool pool;
+    private final int rowsPerTask;
+    private volatile Columns columns;
+
+    public AnalyticsSnapshot(AnalyticsRepository analyticsRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${analytics.parallelism:0}") int parallelism,
+                             @Value("${analytics.rows-per-task:16384}") int rowsPerTask) {
+        this.analyticsRepository = analyticsRepository;
+        this.meterRegistry = meterRegistry;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.rowsPerTask = rowsPerTask;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        long start = System.nanoTime();
+        ColumnsBuilder builder = new ColumnsBuilder((int) Math.min(Integer.MAX_VALUE - 8, analyticsRepository.countProgress() + 64));
+        analyticsRepository.scanProgressFacts(builder::add);
+        columns = builder.build();
+
+        long elapsed = System.nanoTime() - start;
+        meterRegistry.timer("skillsync.analytics.refresh").record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Analytics snapshot built from {} progress rows in {} ms",
+                columns.rows, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Groups the rows matching {@code filter} by {@code groupBy}. Rows without a value for the
+     * dimension, such as rows not completed yet when grouping by completion month, are left out.
+     */
+    public Result query(Dimension groupBy, Filter filter) {
+        Columns snapshot = columns;
+        if (snapshot == null) {
+            refresh();
+            snapshot = columns;
+        }
+        long start = System.nanoTime();
+
+        int[] match = snapshot.encode(filter);
+        List<Group> groups = new ArrayList<>();
+        if (match != null) {
+            int keys = snapshot.cardinality(groupBy);
+            Partial total = pool.invoke(new Scan(snapshot, groupBy, keys, match, 0, snapshot.rows));
+            for (int key = 0; key < keys; key++) {
+                if (total.count[key] > 0) {
+                    groups.add(new Group(snapshot.label(groupBy, key), total.count[key], total.completed[key],
+                            total.completionSum[key] / total.count[key], total.timeSpent[key],
+                            total.quizCount[key] > 0 ? total.quizSum[key] / total.quizCount[key] : null));
+                }
+            }
+        }
+
+        meterRegistry.timer("skillsync.analytics.query", "groupBy", groupBy.name().toLowerCase())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Result(snapshot.builtAt, snapshot.rows, groups);
+    }
+
+    static int packDate(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : monthIndex(dateTime.getYear(), dateTime.getMonthValue()) << 5 | dateTime.getDayOfMonth();
+    }
+
+    private static int monthIndex(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    public enum Dimension {
+        DEPARTMENT, CATEGORY, COURSE, STATUS, ENROLLMENT_STATUS, STARTED_MONTH, COMPLETED_MONTH
+    }
+
+    /**
+     * Restricts a query to one department, category or course and to rows started in a month range;
+     * null fields do not restrict.
+     */
+    public record Filter(String department, Course.CourseCategory category, Long courseId,
+                         YearMonth startedFrom, YearMonth startedTo) {
+    }
+
+    public record Group(String key, long count, long completed, double averageCompletion,
+                        long totalTimeSpent, Double averageQuizScore) {
+    }
+
+    public record Result(LocalDateTime snapshotAt, int rows, List<Group> groups) {
+    }
+
+    private static final class Columns {
+        private final LocalDateTime builtAt = LocalDateTime.now();
+        private final int rows;
+        private final int[] course;
+        private final int[] department;
+        private final byte[] category;
+        private final byte[] status;
+        private final byte[] enrollmentStatus;
+        private final float[] completion;
+        private final int[] timeSpent;
+        private final float[] quizScore;
+        private final int[] startedAt;
+        private final int[] completedAt;
+        private final long[] courseIds;
+        private final String[] departments;
+        private final Map<Long, Integer> courseCodes = new HashMap<>();
+        private final Map<String, Integer> departmentCodes = new HashMap<>();
+        private final int firstMonth;
+        private final int lastMonth;
+
+        private Columns(ColumnsBuilder builder) {
+            rows = builder.rows;
+            course = Arrays.copyOf(builder.course, rows);
+            department = Arrays.copyOf(builder.department, rows);
+            category = Arrays.copyOf(builder.category, rows);
+            status = Arrays.copyOf(builder.status, rows);
+            enrollmentStatus = Arrays.copyOf(builder.enrollmentStatus, rows);
+            completion = Arrays.copyOf(builder.completion, rows);
+            timeSpent = Arrays.copyOf(builder.timeSpent, rows);
+            quizScore = Arrays.copyOf(builder.quizScore, rows);
+            startedAt = Arrays.copyOf(builder.startedAt, rows);
+            completedAt = Arrays.copyOf(builder.completedAt, rows);
+            courseIds = builder.courseIds.stream().mapToLong(Long::longValue).toArray();
+            departments = builder.departments.toArray(String[]::new);
+            courseCodes.putAll(builder.courseCodes);
+            departmentCodes.putAll(builder.departmentCodes);
+
+            int first = Integer.MAX_VALUE;
+            int last = Integer.MIN_VALUE;
+            for (int row = 0; row < rows; row++) {
+                if (startedAt[row] != 0) {
+                    first = Math.min(first, startedAt[row] >>> 5);
+                    last = Math.max(last, startedAt[row] >>> 5);
+                }
+                if (completedAt[row] != 0) {
+                    first = Math.min(first, completedAt[row] >>> 5);
+                    last = Math.max(last, completedAt[row] >>> 5);
+                }
+            }
+            firstMonth = first == Integer.MAX_VALUE ? 0 : first;
+            lastMonth = last == Integer.MIN_VALUE ? -1 : last;
+        }
+
+        int cardinality(Dimension dimension) {
+            return switch (dimension) {
+                case DEPARTMENT -> departments.length;
+                case CATEGORY -> Course.CourseCategory.values().length;
+                case COURSE -> courseIds.length;
+                case STATUS -> Progress.ProgressStatus.values().length;
+                case ENROLLMENT_STATUS -> Enrollment.EnrollmentStatus.values().length;
+                case STARTED_MONTH, COMPLETED_MONTH -> lastMonth - firstMonth + 1;
+            };
+        }
+
+        // The dense group key of a row, or -1 if the row has no value for the dimension
+        int key(Dimension dimension, int row) {
+            return switch (dimension) {
+                case DEPARTMENT -> department[row];
+                case CATEGORY -> category[row];
+                case COURSE -> course[row];
+                case STATUS -> status[row];
+                case ENROLLMENT_STATUS -> enrollmentStatus[row];
+                case STARTED_MONTH -> startedAt[row] == 0 ? -1 : (startedAt[row] >>> 5) - firstMonth;
+                case COMPLETED_MONTH -> completedAt[row] == 0 ? -1 : (completedAt[row] >>> 5) - firstMonth;
+            };
+        }
+
+        String label(Dimension dimension, int key) {
+            return switch (dimension) {
+                case DEPARTMENT -> departments[key];
+                case CATEGORY -> Course.CourseCategory.values()[key].name();
+                case COURSE -> Long.toString(courseIds[key]);
+                case STATUS -> Progress.ProgressStatus.values()[key].name();
+                case ENROLLMENT_STATUS -> Enrollment.EnrollmentStatus.values()[key].name();
+                case STARTED_MONTH, COMPLETED_MONTH -> {
+                    int month = firstMonth + key;
+                    yield YearMonth.of(month / 12, month % 12 + 1).toString();
+                }
+            };
+        }
+
+        /**
+         * The filter as {department, category, course, first started month, last started month},
+         * with -1 for no restriction, or null if no row can match.
+         */
+        int[] encode(Filter filter) {
+            int[] match = {-1, -1, -1, -1, -1};
+            if (filter == null) {
+                return match;
+            }
+            if (filter.department() != null) {
+                Integer code = departmentCodes.get(filter.department());
+                if (code == null) {
+                    return null;
+                }
+                match[0] = code;
+            }
+            if (filter.category() != null) {
+                match[1] = filter.category().ordinal();
+            }
+            if (filter.courseId() != null) {
+                Integer code = courseCodes.get(filter.courseId());
+                if (code == null) {
+                    return null;
+                }
+                match[2] = code;
+            }
+            if (filter.startedFrom() != null) {
+                match[3] = monthIndex(filter.startedFrom().getYear(), filter.startedFrom().getMonthValue());
+            }
+            if (filter.startedTo() != null) {
+                match[4] = monthIndex(filter.startedTo().getYear(), filter.startedTo().getMonthValue());
+            }
+            if (match[3] >= 0 && match[4] >= 0 && match[3] > match[4]) {
+                throw new BadRequestException("startedFrom must not be after startedTo");
+            }
+            return match;
+        }
+
+        boolean matches(int[] match, int row) {
+            if ((match[0] >= 0 && department[row] != match[0])
+                    || (match[1] >= 0 && category[row] != match[1])
+                    || (match[2] >= 0 && course[row] != match[2])) {
+                return false;
+            }
+            if (match[3] >= 0 || match[4] >= 0) {
+                int month = startedAt[row] >>> 5;
+                return startedAt[row] != 0 && (match[3] < 0 || month >= match[3]) && (match[4] < 0 || month <= match[4]);
+            }
+            return true;
+        }
+    }
+
+    private static final class ColumnsBuilder {
+        private int rows;
+        private int[] course;
+        private int[] department;
+        private byte[] category;
+        private byte[] status;
+        private byte[] enrollmentStatus;
+        private float[] completion;
+        private int[] timeSpent;
+        private float[] quizScore;
+        private int[] startedAt;
+        private int[] completedAt;
+        private final List<Long> courseIds = new ArrayList<>();
+        private final List<String> departments = new ArrayList<>();
+        private final Map<Long, Integer> courseCodes = new HashMap<>();
+        private final Map<String, Integer> departmentCodes = new HashMap<>();
+
+        ColumnsBuilder(int capacity) {
+            allocate(capacity);
+        }
+
+        void add(ResultSet rs) throws SQLException {
+            if (rows == course.length) {
+                allocate(Math.max(16, course.length * 2));
+            }
+            long courseId = rs.getLong(AnalyticsRepository.COURSE_ID);
+            course[rows] = courseCodes.computeIfAbsent(courseId, id -> {
+                courseIds.add(id);
+                return courseIds.size() - 1;
+            });
+            String departmentName = rs.getString(AnalyticsRepository.DEPARTMENT);
+            department[rows] = departmentName == null ? -1 : departmentCodes.computeIfAbsent(departmentName, name -> {
+                departments.add(name);
+                return departments.size() - 1;
+            });
+            category[rows] = ordinal(Course.CourseCategory.class, rs.getString(AnalyticsRepository.CATEGORY));
+            status[rows] = ordinal(Progress.ProgressStatus.class, rs.getString(AnalyticsRepository.STATUS));
+            enrollmentStatus[rows] = ordinal(Enrollment.EnrollmentStatus.class, rs.getString(AnalyticsRepository.ENROLLMENT_STATUS));
+            completion[rows] = rs.getFloat(AnalyticsRepository.COMPLETION_PERCENTAGE);
+            timeSpent[rows] = rs.getInt(AnalyticsRepository.TIME_SPENT_MINUTES);
+            float quiz = rs.getFloat(AnalyticsRepository.QUIZ_SCORE);
+            quizScore[rows] = rs.wasNull() ? Float.NaN : quiz;
+            startedAt[rows] = packDate(rs.getTimestamp(AnalyticsRepository.STARTED_AT));
+            completedAt[rows] = packDate(rs.getTimestamp(AnalyticsRepository.COMPLETED_AT));
+            rows++;
+        }
+
+        Columns build() {
+            return new Columns(this);
+        }
+
+        private void allocate(int capacity) {
+            course = course == null ? new int[capacity] : Arrays.copyOf(course, capacity);
+            department = department == null ? new int[capacity] : Arrays.copyOf(department, capacity);
+            category = category == null ? new byte[capacity] : Arrays.copyOf(category, capacity);
+            status = status == null ? new byte[capacity] : Arrays.copyOf(status, capacity);
+            enrollmentStatus = enrollmentStatus == null ? new byte[capacity] : Arrays.copyOf(enrollmentStatus, capacity);
+            completion = completion == null ? new float[capacity] : Arrays.copyOf(completion, capacity);
+            timeSpent = timeSpent == null ? new int[capacity] : Arrays.copyOf(timeSpent, capacity);
+            quizScore = quizScore == null ? new float[capacity] : Arrays.copyOf(quizScore, capacity);
+            startedAt = startedAt == null ? new int[capacity] : Arrays.copyOf(startedAt, capacity);
+            completedAt = completedAt == null ? new int[capacity] : Arrays.copyOf(completedAt, capacity);
+        }
+
+        private static <E extends Enum<E>> byte ordinal(Class<E> type, String name) {
+            return name == null ? -1 : (byte) Enum.valueOf(type, name).ordinal();
+        }
+
+        private static int packDate(Timestamp timestamp) {
+            return timestamp == null ? 0 : AnalyticsSnapshot.packDate(timestamp.toLocalDateTime());
+        }
+    }
+
+    // Per-key sums of one range of rows
+    private static final class Partial {
+        private final long[] count;
+        private final long[] completed;
+        private final double[] completionSum;
+        private final long[] timeSpent;
+        private final double[] quizSum;
+        private final long[] quizCount;
+
+        Partial(int keys) {
+            count = new long[keys];
+            completed = new long[keys];
+            completionSum = new double[keys];
+            timeSpent = new long[keys];
+            quizSum = new double[keys];
+            quizCount = new long[keys];
+        }
+
+        Partial merge(Partial other) {
+            for (int key = 0; key < count.length; key++) {
+                count[key] += other.count[key];
+                completed[key] += other.completed[key];
+                completionSum[key] += other.completionSum[key];
+                timeSpent[key] += other.timeSpent[key];
+                quizSum[key] += other.quizSum[key];
+                quizCount[key] += other.quizCount[key];
+            }
+            return this;
+        }
+    }
+
+    private final class Scan extends RecursiveTask<Partial> {
+        private final Columns columns;
+        private final Dimension groupBy;
+        private final int keys;
+        private final int[] match;
+        private final int from;
+        private final int to;
+
+        Scan(Columns columns, Dimension groupBy, int keys, int[] match, int from, int to) {
+            this.columns = columns;
+            this.groupBy = groupBy;
+            this.keys = keys;
+            this.match = match;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from > rowsPerTask) {
+                int middle = (from + to) >>> 1;
+                Scan left = new Scan(columns, groupBy, keys, match, from, middle);
+                left.fork();
+                Partial right = new Scan(columns, groupBy, keys, match, middle, to).compute();
+                return left.join().merge(right);
+            }
+
+            int completedOrdinal = Progress.ProgressStatus.COMPLETED.ordinal();
+            Partial partial = new Partial(keys);
+            for (int row = from; row < to; row++) {
+                int key = columns.key(groupBy, row);
+                if (key < 0 || !columns.matches(match, row)) {
+                    continue;
+                }
+                partial.count[key]++;
+                if (columns.status[row] == completedOrdinal) {
+                    partial.completed[key]++;
+                }
+                partial.completionSum[key] += columns.completion[row];
+                partial.timeSpent[key] += columns.timeSpent[row];
+                float quiz = columns.quizScore[row];
+                if (!Float.isNaN(quiz)) {
+                    partial.quizSum[key] += quiz;
+                    partial.quizCount[key]++;
+                }
+            }
+            return partial;
+        }
+    }
+}
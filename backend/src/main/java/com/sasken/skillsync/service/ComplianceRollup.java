@@ -0,0 +1,252 @@
+package com.sasken.skillsync.service;
+
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.repository.ChangeLogFollower;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.ComplianceRepository;
+import com.sasken.skillsync.repository.ComplianceRepository.EnrollmentState;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps enrolled, in progress, completed and overdue counters per (department, course), so a
+ * compliance report reads one cell per course instead of loading the department's enrollments.
+ *
+ * The counters are built from one scan of the enrollments and then follow the change log through
+ * a {@link ChangeLogFollower}: every enrollment named there is re-read and moved from the bucket
+ * it was counted in to its current one. Because each enrollment's bucket is remembered, an entry seen twice changes nothing.
+ * Open enrollments become overdue compliance.due-days after they were enrolled; those deadlines
+ * sit in a queue that is checked on every refresh. A user in the change log has all their
+ * enrollments re-read, which moves them along when the department changes.
+ *
+ * Like {@link UserBitmapIndex}, reads do not catch up themselves: the scheduled refresh applies
+ * new changes under the write lock, so a read only waits for counter updates, never for the
+ * database, and can be up to compliance.refresh-interval-ms behind.
+ */
+@Service
+public class ComplianceRollup {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComplianceRollup.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<CellKey, int[]> cells = new HashMap<>();
+    private final Map<Long, Tracked> tracked = new HashMap<>();
+    private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>(Comparator.comparing(Deadline::at));
+    private ChangeLogFollower follower;
+
+    @Autowired
+    private ComplianceRepository complianceRepository;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private UserBitmapIndex userBitmapIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${compliance.due-days:30}")
+    private int dueDays;
+
+    @PostConstruct
+    public void init() {
+        follower = new ChangeLogFollower(changeLogRepository, this::rebuild, this::apply);
+    }
+
+    @Scheduled(fixedDelayString = "${compliance.refresh-interval-ms:1000}")
+    public void refresh() {
+        follower.refresh();
+
+        lock.writeLock().lock();
+        try {
+            expireDeadlines(LocalDateTime.now());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Counts getCounts(String department, Long courseId) {
+        return getCounts(department, List.of(courseId)).get(courseId);
+    }
+
+    /**
+     * The counts of each course for one department, in the order of {@code courseIds}.
+     */
+    public Map<Long, Counts> getCounts(String department, List<Long> courseIds) {
+        if (!follower.isBuilt()) {
+            refresh();
+        }
+        Map<Long, UserBitmapIndex.Coverage> coverage = userBitmapIndex.coverage(department, courseIds);
+        Map<Long, Counts> result = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Long courseId : courseIds) {
+                result.put(courseId, counts(new CellKey(department, courseId), coverage.get(courseId)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void expireDeadlines(LocalDateTime now) {
+        while (!deadlines.isEmpty() && !deadlines.peek().at().isAfter(now)) {
+            Deadline deadline = deadlines.poll();
+            Tracked current = tracked.get(deadline.enrollmentId());
+            if (current != null && current.bucket().open && deadline.at().equals(current.deadline())) {
+                count(current.cell(), current.bucket(), -1);
+                count(current.cell(), Bucket.OVERDUE, 1);
+                tracked.put(deadline.enrollmentId(), new Tracked(current.cell(), Bucket.OVERDUE, current.deadline()));
+            }
+        }
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            tracked.clear();
+            deadlines.clear();
+            complianceRepository.forEachEnrollment(state -> place(state, now));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        meterRegistry.timer("skillsync.compliance.rebuild").record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Compliance rollup built from {} enrollments in {} cells in {} ms",
+                tracked.size(), cells.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private void apply(Map<String, Set<Long>> changedIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> enrollmentIds = new HashSet<>(changedIds.getOrDefault("enrollment", Set.of()));
+        Set<Long> userIds = changedIds.getOrDefault("user", Set.of());
+        List<EnrollmentState> enrollments = enrollmentIds.isEmpty() ? List.of() : complianceRepository.findByIds(enrollmentIds);
+        List<EnrollmentState> moved = userIds.isEmpty() ? List.of() : complianceRepository.findByUserIds(userIds);
+
+        lock.writeLock().lock();
+        try {
+            for (EnrollmentState state : enrollments) {
+                place(state, now);
+                enrollmentIds.remove(state.id());
+            }
+            enrollmentIds.forEach(this::remove);
+            moved.forEach(state -> place(state, now));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void place(EnrollmentState state, LocalDateTime now) {
+        CellKey cell = new CellKey(state.department(), state.courseId());
+        LocalDateTime deadline = state.enrolledAt() != null ? state.enrolledAt().plusDays(dueDays) : null;
+        Bucket bucket = bucket(state.status());
+        if (bucket.open && deadline != null && !deadline.isAfter(now)) {
+            bucket = Bucket.OVERDUE;
+        }
+
+        Tracked previous = tracked.put(state.id(), new Tracked(cell, bucket, deadline));
+        if (previous != null) {
+            count(previous.cell(), previous.bucket(), -1);
+        }
+        count(cell, bucket, 1);
+
+        // An open enrollment with an unchanged deadline already has its entry in the queue
+        boolean queued = previous != null && previous.bucket().open && deadline != null && deadline.equals(previous.deadline());
+        if (bucket.open && deadline != null && !queued) {
+            deadlines.add(new Deadline(deadline, state.id()));
+        }
+    }
+
+    private void remove(Long enrollmentId) {
+        Tracked previous = tracked.remove(enrollmentId);
+        if (previous != null) {
+            count(previous.cell(), previous.bucket(), -1);
+        }
+    }
+
+    private void count(CellKey cell, Bucket bucket, int delta) {
+        if (bucket != Bucket.NONE) {
+            cells.computeIfAbsent(cell, key -> new int[Bucket.NONE.ordinal()])[bucket.ordinal()] += delta;
+        }
+    }
+
+    private Counts counts(CellKey cell, UserBitmapIndex.Coverage coverage) {
+        int[] counts = cells.getOrDefault(cell, new int[Bucket.NONE.ordinal()]);
+        return new Counts(counts[Bucket.ENROLLED.ordinal()], counts[Bucket.IN_PROGRESS.ordinal()],
+                counts[Bucket.COMPLETED.ordinal()], counts[Bucket.OVERDUE.ordinal()],
+                coverage.headcount(), coverage.completed());
+    }
+
+    private static Bucket bucket(Enrollment.EnrollmentStatus status) {
+        if (status == null) {
+            return Bucket.NONE;
+        }
+        return switch (status) {
+            case PENDING, ENROLLED -> Bucket.ENROLLED;
+            case IN_PROGRESS -> Bucket.IN_PROGRESS;
+            case COMPLETED -> Bucket.COMPLETED;
+            case DROPPED, SUSPENDED -> Bucket.NONE;
+        };
+    }
+
+    /**
+     * Enrollments of one department in one course by state. An overdue enrollment is counted as
+     * overdue only, not also as enrolled or in progress. The completion rate is the share of the
+     * department's active users who completed the course, enrolled or not, so staff that were
+     * never enrolled count against it.
+     */
+    public record Counts(int enrolled, int inProgress, int completed, int overdue, int headcount, int compliant) {
+
+        public int total() {
+            return enrolled + inProgress + completed + overdue;
+        }
+
+        public double completionRate() {
+            return headcount == 0 ? 0.0 : compliant * 100.0 / headcount;
+        }
+    }
+
+    // NONE is last so the other buckets index the counter arrays
+    private enum Bucket {
+        ENROLLED(true), IN_PROGRESS(true), COMPLETED(false), OVERDUE(false), NONE(false);
+
+        private final boolean open;
+
+        Bucket(boolean open) {
+            this.open = open;
+        }
+    }
+
+    private record CellKey(String department, Long courseId) {
+    }
+
+    private record Tracked(CellKey cell, Bucket bucket, LocalDateTime deadline) {
+    }
+
+    private record Deadline(LocalDateTime at, Long enrollmentId) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.sasken.skillsync.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write in its own transaction and replays it when a versioned entity was
+ * changed underneath it. Replays back off exponentially with full jitter so writers contending for
+ * the same learner record spread out instead of colliding again in lockstep.
+ *
+ * When the caller already has a transaction the work runs once inside it: the conflict can only
+ * surface at the caller's commit, so only the caller can retry.
+ */
+@Component
+public class ConflictRetryExecutor {
+
+    static final String EXECUTIONS = "skillsync.optimistic.executions";
+    static final String CONFLICTS = "skillsync.optimistic.conflicts";
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public ConflictRetryExecutor(PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${optimistic-retry.max-attempts:5}") int maxAttempts,
+                                 @Value("${optimistic-retry.base-delay-ms:5}") long baseDelayMs,
+                                 @Value("${optimistic-retry.max-delay-ms:200}") long maxDelayMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transactionTemplate.execute(status -> work.get());
+                recordExecution(operation, attempt == 1 ? "first_attempt" : "retried");
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter(CONFLICTS, "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    recordExecution(operation, "exhausted");
+                    throw e;
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void recordExecution(String operation, String outcome) {
+        meterRegistry.counter(EXECUTIONS, "operation", operation, "outcome", outcome).increment();
+    }
+
+    private void backOff(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off after a write conflict", e);
+        }
+    }
+}
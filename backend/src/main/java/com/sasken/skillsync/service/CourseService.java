@@ -13,7 +13,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class CourseService {
 
     @Autowired
@@ -50,6 +50,7 @@ public class CourseService {
         return courseRepository.searchCoursesByKeyword(keyword);
     }
 
+    @Transactional
     public Course createCourse(Course course) {
         course.setCreatedAt(LocalDateTime.now());
         course.setUpdatedAt(LocalDateTime.now());
@@ -57,6 +58,7 @@ public class CourseService {
         return courseRepository.save(course);
     }
 
+    @Transactional
     public Optional<Course> updateCourse(Long id, Course courseDetails) {
         return courseRepository.findById(id).map(course -> {
             course.setTitle(courseDetails.getTitle());
@@ -78,6 +80,7 @@ public class CourseService {
         });
     }
 
+    @Transactional
     public boolean deleteCourse(Long id) {
         return courseRepository.findById(id).map(course -> {
             course.setActive(false);
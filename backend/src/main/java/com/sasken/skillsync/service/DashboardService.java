@@ -0,0 +1,237 @@
+package com.sasken.skillsync.service;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import com.sasken.skillsync.dto.UserDto;
+import com.sasken.skillsync.model.Certificate;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.Notification;
+import com.sasken.skillsync.repository.CertificateRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Assembles the learner home page from independent parts that are read concurrently on the
+ * dashboard executor. Every part has to arrive within the same deadline; a part that is late,
+ * fails or cannot be scheduled is left out and named in "unavailable", so one slow query costs
+ * the learner that tile instead of the whole page.
+ *
+ * Parts map their entities to plain values inside their own read-only transaction, as the
+ * request thread's persistence context is not available to the workers. Cancelling a late part
+ * does not stop its worker, so that transaction carries a timeout derived from the part deadline:
+ * queries still running past it are cancelled by the driver and later ones are not started, which
+ * hands the connection back to the pool. Transaction timeouts are whole seconds and Hibernate
+ * rounds the time left down, so the deadline is rounded up and given one second of headroom.
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private CertificateRepository certificateRepository;
+
+    @Autowired
+    private EntityReferenceIndex entityReferenceIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier(AsyncConfig.DASHBOARD_EXECUTOR)
+    private AsyncTaskExecutor dashboardExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${dashboard.part-timeout-ms:500}")
+    private long partTimeoutMs;
+
+    @Value("${dashboard.recent-notifications:5}")
+    private int recentNotifications;
+
+    public Dashboard getDashboard(Long userId) {
+        entityReferenceIndex.userReference(userId);
+
+        Map<String, Supplier<Object>> parts = new LinkedHashMap<>();
+        parts.put("profile", () -> userService.getUserById(userId).map(UserDto::new).orElse(null));
+        parts.put("enrollments", () -> enrollments(userId));
+        parts.put("progressStats", () -> progressStats(userId));
+        parts.put("unreadCount", () -> notificationService.getUnreadNotificationCount(userId));
+        parts.put("recentNotifications", () -> recentNotifications(userId));
+        parts.put("certificates", () -> certificates(userId));
+        return gather(parts);
+    }
+
+    private Dashboard gather(Map<String, Supplier<Object>> parts) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.setTimeout((int) TimeUnit.MILLISECONDS.toSeconds(partTimeoutMs + 999) + 1);
+
+        long start = System.nanoTime();
+        Map<String, Long> completedAfter = new ConcurrentHashMap<>();
+        Map<String, CompletableFuture<Object>> futures = new LinkedHashMap<>();
+        Dashboard dashboard = new Dashboard();
+
+        for (Map.Entry<String, Supplier<Object>> part : parts.entrySet()) {
+            try {
+                CompletableFuture<Object> future = CompletableFuture.supplyAsync(
+                        () -> readOnly.execute(status -> part.getValue().get()), dashboardExecutor);
+                future.whenComplete((value, e) -> completedAfter.put(part.getKey(), System.nanoTime() - start));
+                futures.put(part.getKey(), future);
+            } catch (TaskRejectedException e) {
+                dashboard.unavailable(part.getKey(), "rejected", 0);
+            }
+        }
+
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(partTimeoutMs);
+        for (Map.Entry<String, CompletableFuture<Object>> part : futures.entrySet()) {
+            String name = part.getKey();
+            try {
+                Object value = part.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                dashboard.available(name, value, completedAfter.getOrDefault(name, System.nanoTime() - start));
+            } catch (TimeoutException e) {
+                part.getValue().cancel(true);
+                dashboard.unavailable(name, "timeout", System.nanoTime() - start);
+            } catch (ExecutionException e) {
+                logger.warn("Dashboard part {} failed", name, e.getCause());
+                dashboard.unavailable(name, "error", completedAfter.getOrDefault(name, System.nanoTime() - start));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                part.getValue().cancel(true);
+                dashboard.unavailable(name, "interrupted", System.nanoTime() - start);
+            }
+        }
+
+        dashboard.timings.forEach((name, timing) -> meterRegistry.timer("skillsync.dashboard.part",
+                "part", name, "outcome", timing.outcome).record(timing.nanos, TimeUnit.NANOSECONDS));
+        return dashboard;
+    }
+
+    private List<Map<String, Object>> enrollments(Long userId) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Enrollment enrollment : enrollmentService.getEnrollmentsByUser(userId)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", enrollment.getId());
+            item.put("courseId", enrollment.getCourse().getId());
+            item.put("courseTitle", enrollment.getCourse().getTitle());
+            item.put("status", enrollment.getStatus());
+            item.put("type", enrollment.getType());
+            item.put("completionPercentage", enrollment.getCompletionPercentage());
+            item.put("enrolledAt", enrollment.getEnrolledAt());
+            item.put("lastAccessedAt", enrollment.getLastAccessedAt());
+            result.add(item);
+        }
+        return result;
+    }
+
+    private Map<String, Object> progressStats(Long userId) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("completedCourses", progressService.getCompletedCoursesCountByUser(userId));
+        stats.put("inProgressCourses", progressService.getInProgressCoursesCountByUser(userId));
+        Double averageCompletion = progressService.getAverageCompletionPercentageByUser(userId);
+        stats.put("averageCompletion", averageCompletion != null ? averageCompletion : 0.0);
+        Integer totalTimeSpent = progressService.getTotalTimeSpentByUser(userId);
+        stats.put("totalTimeSpent", totalTimeSpent != null ? totalTimeSpent : 0);
+        return stats;
+    }
+
+    private List<Map<String, Object>> recentNotifications(Long userId) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Notification notification : notificationService.getRecentNotificationsByUser(userId, recentNotifications)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", notification.getId());
+            item.put("title", notification.getTitle());
+            item.put("type", notification.getType());
+            item.put("priority", notification.getPriority());
+            item.put("read", notification.isRead());
+            item.put("sentAt", notification.getSentAt());
+            result.add(item);
+        }
+        return result;
+    }
+
+    private List<Map<String, Object>> certificates(Long userId) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Certificate certificate : certificateRepository.findByUserId(userId)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", certificate.getId());
+            item.put("certificateNumber", certificate.getCertificateNumber());
+            item.put("courseId", certificate.getCourse().getId());
+            item.put("courseTitle", certificate.getCourse().getTitle());
+            item.put("grade", certificate.getGrade());
+            item.put("status", certificate.getStatus());
+            item.put("issuedAt", certificate.getIssuedAt());
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * The parts that arrived in time, plus how long each part took and why any part is missing.
+     */
+    public static class Dashboard {
+        private final Map<String, Object> parts = new LinkedHashMap<>();
+        private final List<String> unavailable = new ArrayList<>();
+        private final Map<String, PartTiming> timings = new LinkedHashMap<>();
+
+        void available(String name, Object value, long nanos) {
+            parts.put(name, value);
+            timings.put(name, new PartTiming("ok", nanos));
+        }
+
+        void unavailable(String name, String outcome, long nanos) {
+            unavailable.add(name);
+            timings.put(name, new PartTiming(outcome, nanos));
+        }
+
+        public Map<String, Object> getParts() { return parts; }
+        public List<String> getUnavailable() { return unavailable; }
+
+        /**
+         * Per-part latency in Server-Timing syntax, e.g. {@code profile;dur=2.1, certificates;desc="timeout";dur=500.0}.
+         */
+        public String serverTiming() {
+            List<String> entries = new ArrayList<>();
+            timings.forEach((name, timing) -> entries.add(name
+                    + ("ok".equals(timing.outcome) ? "" : ";desc=\"" + timing.outcome + "\"")
+                    + String.format(Locale.ROOT, ";dur=%.1f", timing.nanos / 1_000_000.0)));
+            return String.join(", ", entries);
+        }
+    }
+
+    private record PartTiming(String outcome, long nanos) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.sasken.skillsync.service;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sends notification emails on the email executor so SMTP latency never lands on the caller.
+ * Only plain values are passed in, as entities from the caller's persistence context cannot be
+ * safely touched from the pool thread.
+ */
+@Service
+public class EmailNotificationSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailNotificationSender.class);
+
+    @Autowired(required = false)
+    private JavaMailSender mailSender;
+
+    @Async(AsyncConfig.EMAIL_EXECUTOR)
+    public void send(String to, String subject, String message) {
+        try {
+            if (mailSender != null) {
+                SimpleMailMessage email = new SimpleMailMessage();
+                email.setTo(to);
+                email.setSubject("[SkillSync] " + subject);
+                email.setText(message + "\n\nBest regards,\nSkillSync Training Team");
+                email.setFrom("noreply@skillsync.com");
+
+                mailSender.send(email);
+            } else {
+                // Log that email service is not configured
+                logger.info("Email notification would be sent to {}: {}", to, subject);
+            }
+        } catch (Exception e) {
+            // Log error but don't fail the notification creation
+            logger.error("Failed to send email notification to {}: {}", to, e.getMessage());
+        }
+    }
+}
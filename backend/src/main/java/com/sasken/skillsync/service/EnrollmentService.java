@@ -1,15 +1,19 @@
 package com.sasken.skillsync.service;
 
+import com.sasken.skillsync.event.EnrollmentCompletedEvent;
+import com.sasken.skillsync.event.EnrollmentCreatedEvent;
 import com.sasken.skillsync.model.Course;
 import com.sasken.skillsync.model.Enrollment;
 import com.sasken.skillsync.model.User;
-import com.sasken.skillsync.repository.CourseRepository;
+import com.sasken.skillsync.model.LearnerCourseKey;
+import com.sasken.skillsync.repository.ChangeLogRepository;
 import com.sasken.skillsync.repository.EnrollmentRepository;
-import com.sasken.skillsync.repository.UserRepository;
 import com.sasken.skillsync.exception.ResourceNotFoundException;
 import com.sasken.skillsync.exception.BadRequestException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -17,20 +21,23 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class EnrollmentService {
 
     @Autowired
     private EnrollmentRepository enrollmentRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ChangeLogRepository changeLogRepository;
 
     @Autowired
-    private CourseRepository courseRepository;
+    private EntityReferenceIndex entityReferenceIndex;
 
     @Autowired
-    private NotificationService notificationService;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ConflictRetryExecutor conflictRetryExecutor;
 
     public List<Enrollment> getAllEnrollments() {
         return enrollmentRepository.findAll();
@@ -52,18 +59,10 @@ public class EnrollmentService {
         return enrollmentRepository.findById(id);
     }
 
+    @Transactional
     public Enrollment createEnrollment(Long userId, Long courseId, Enrollment.EnrollmentType type, String notes) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
-
-        // Check if user is already enrolled in this course
-        Optional<Enrollment> existingEnrollment = enrollmentRepository.findByUserIdAndCourseId(userId, courseId);
-        if (existingEnrollment.isPresent()) {
-            throw new BadRequestException("User is already enrolled in this course");
-        }
+        User user = entityReferenceIndex.userReference(userId);
+        Course course = entityReferenceIndex.courseReference(courseId);
 
         // Check course capacity
         if (course.getMaxParticipants() != null) {
@@ -82,45 +81,59 @@ public class EnrollmentService {
         enrollment.setCompletionPercentage(0.0);
         enrollment.setNotes(notes);
 
-        Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        // The unique (user, course) constraint decides, so concurrent requests cannot both enroll
+        if (!enrollmentRepository.insertIfAbsent(enrollment)) {
+            throw new BadRequestException("User is already enrolled in this course");
+        }
+        changeLogRepository.recordLearnerCourses("enrollment", List.of(new LearnerCourseKey(userId, courseId)));
+        Enrollment savedEnrollment = enrollmentRepository.findByUserIdAndCourseId(userId, courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found for user " + userId + " and course " + courseId));
 
-        // Send notification
-        notificationService.sendEnrollmentNotification(user, course, "enrolled");
+        // The notification is sent by a listener once the enrollment has committed
+        eventPublisher.publishEvent(new EnrollmentCreatedEvent(savedEnrollment.getId(), userId, courseId));
 
         return savedEnrollment;
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Enrollment updateEnrollmentStatus(Long enrollmentId, Enrollment.EnrollmentStatus status) {
-        Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found with id: " + enrollmentId));
+        return conflictRetryExecutor.execute("enrollment.updateStatus", () -> {
+            Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found with id: " + enrollmentId));
 
-        enrollment.setStatus(status);
-        
-        if (status == Enrollment.EnrollmentStatus.COMPLETED) {
-            enrollment.setCompletionPercentage(100.0);
-            enrollment.setCompletedAt(LocalDateTime.now());
-            
-            // Send completion notification
-            notificationService.sendEnrollmentNotification(enrollment.getUser(), enrollment.getCourse(), "completed");
-        }
+            enrollment.setStatus(status);
 
-        return enrollmentRepository.save(enrollment);
+            if (status == Enrollment.EnrollmentStatus.COMPLETED) {
+                enrollment.setCompletionPercentage(100.0);
+                enrollment.setCompletedAt(LocalDateTime.now());
+
+                // Send completion notification after commit
+                eventPublisher.publishEvent(new EnrollmentCompletedEvent(enrollment.getId(),
+                        enrollment.getUser().getId(), enrollment.getCourse().getId()));
+            }
+
+            return enrollmentRepository.save(enrollment);
+        });
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Enrollment updateCompletionPercentage(Long enrollmentId, Double percentage) {
-        Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found with id: " + enrollmentId));
+        return conflictRetryExecutor.execute("enrollment.updateCompletionPercentage", () -> {
+            Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found with id: " + enrollmentId));
 
-        enrollment.setCompletionPercentage(percentage);
-        
-        if (percentage >= 100.0) {
-            enrollment.setStatus(Enrollment.EnrollmentStatus.COMPLETED);
-            enrollment.setCompletedAt(LocalDateTime.now());
-        }
+            enrollment.setCompletionPercentage(percentage);
+
+            if (percentage >= 100.0) {
+                enrollment.setStatus(Enrollment.EnrollmentStatus.COMPLETED);
+                enrollment.setCompletedAt(LocalDateTime.now());
+            }
 
-        return enrollmentRepository.save(enrollment);
+            return enrollmentRepository.save(enrollment);
+        });
     }
 
+    @Transactional
     public void deleteEnrollment(Long enrollmentId) {
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found with id: " + enrollmentId));
@@ -0,0 +1,61 @@
+package com.sasken.skillsync.service;
+
+import com.sasken.skillsync.exception.ResourceNotFoundException;
+import com.sasken.skillsync.model.Course;
+import com.sasken.skillsync.model.User;
+import com.sasken.skillsync.repository.CourseRepository;
+import com.sasken.skillsync.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Hands out uninitialized references for users and courses that are only needed as foreign keys.
+ * Users and courses are soft-deleted, so once an id has been seen it stays valid and can be
+ * remembered without invalidation. Unknown ids fall back to the second-level cache and then a
+ * single existence query; missing ids are never remembered, so new rows are picked up immediately.
+ */
+@Component
+public class EntityReferenceIndex {
+
+    private final Set<Long> knownUserIds = ConcurrentHashMap.newKeySet();
+    private final Set<Long> knownCourseIds = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public User userReference(Long userId) {
+        requireExisting(userId, knownUserIds, User.class, userRepository::existsById, "User not found with id: ");
+        return userRepository.getReferenceById(userId);
+    }
+
+    public Course courseReference(Long courseId) {
+        requireExisting(courseId, knownCourseIds, Course.class, courseRepository::existsById, "Course not found with id: ");
+        return courseRepository.getReferenceById(courseId);
+    }
+
+    private void requireExisting(Long id, Set<Long> knownIds, Class<?> entityClass,
+                                 Predicate<Long> existsInDatabase, String notFoundMessage) {
+        if (id == null) {
+            throw new ResourceNotFoundException(notFoundMessage + id);
+        }
+        if (knownIds.contains(id)) {
+            return;
+        }
+        if (entityManagerFactory.getCache().contains(entityClass, id) || existsInDatabase.test(id)) {
+            knownIds.add(id);
+            return;
+        }
+        throw new ResourceNotFoundException(notFoundMessage + id);
+    }
+}
@@ -0,0 +1,98 @@
+package com.sasken.skillsync.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * Producers claim a run of slots with one CAS on the tail, so a batch is either enqueued whole
+ * or rejected whole, then publish each element by writing it into its slot. The consumer treats
+ * an empty slot as "not yet published", clears each slot it takes and only then advances the
+ * head, which is what lets producers reuse the slot.
+ */
+public class EventRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public EventRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 1 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + requestedCapacity);
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity);
+        if (capacity < requestedCapacity) {
+            capacity <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public boolean offer(E element) {
+        return offerAll(List.of(element));
+    }
+
+    /**
+     * Enqueues all elements in order, or none of them if there is not enough free space.
+     */
+    public boolean offerAll(List<? extends E> elements) {
+        int count = elements.size();
+        if (count == 0) {
+            return true;
+        }
+        if (count > capacity()) {
+            return false;
+        }
+
+        long start;
+        do {
+            start = tail.get();
+            if (start + count - head.get() > capacity()) {
+                return false;
+            }
+        } while (!tail.compareAndSet(start, start + count));
+
+        for (int i = 0; i < count; i++) {
+            slots.lazySet((int) (start + i) & mask, elements.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Hands up to {@code maxElements} published elements to the consumer, in enqueue order.
+     * Must only be called from the single consumer thread.
+     *
+     * @return the number of elements drained
+     */
+    public int drain(Consumer<? super E> consumer, int maxElements) {
+        long current = head.get();
+        int drained = 0;
+        while (drained < maxElements) {
+            int index = (int) current & mask;
+            E element = slots.get(index);
+            if (element == null) {
+                // Empty, or claimed by a producer that has not written it yet
+                break;
+            }
+            slots.lazySet(index, null);
+            current++;
+            head.lazySet(current);
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,113 @@
+package com.sasken.skillsync.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.Progress;
+import com.sasken.skillsync.repository.EnrollmentRepository;
+import com.sasken.skillsync.repository.ProgressRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables as one JSON array straight from a database cursor. Each row is written and
+ * detached before the next one is read, and the persistence context is cleared every
+ * {@value #CLEAR_INTERVAL} rows to drop the association proxies as well, so memory use does not
+ * depend on the number of rows.
+ *
+ * Associations are written as their ids; reading an id from a lazy proxy does not load it.
+ */
+@Service
+public class ExportService {
+
+    private static final int CLEAR_INTERVAL = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long exportProgress(OutputStream out) throws IOException {
+        try (Stream<Progress> rows = progressRepository.streamAllOrderById()) {
+            return writeArray(out, rows, (generator, progress) -> {
+                generator.writeNumberField("id", progress.getId());
+                generator.writeNumberField("userId", progress.getUser().getId());
+                generator.writeNumberField("courseId", progress.getCourse().getId());
+                generator.writeObjectField("status", progress.getStatus());
+                generator.writeObjectField("completionPercentage", progress.getCompletionPercentage());
+                generator.writeObjectField("timeSpentMinutes", progress.getTimeSpentMinutes());
+                generator.writeObjectField("quizScore", progress.getQuizScore());
+                generator.writeObjectField("maxQuizScore", progress.getMaxQuizScore());
+                generator.writeObjectField("startedAt", progress.getStartedAt());
+                generator.writeObjectField("lastAccessedAt", progress.getLastAccessedAt());
+                generator.writeObjectField("completedAt", progress.getCompletedAt());
+                generator.writeObjectField("updatedAt", progress.getUpdatedAt());
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportEnrollments(OutputStream out) throws IOException {
+        try (Stream<Enrollment> rows = enrollmentRepository.streamAllOrderById()) {
+            return writeArray(out, rows, (generator, enrollment) -> {
+                generator.writeNumberField("id", enrollment.getId());
+                generator.writeNumberField("userId", enrollment.getUser().getId());
+                generator.writeNumberField("courseId", enrollment.getCourse().getId());
+                generator.writeObjectField("status", enrollment.getStatus());
+                generator.writeObjectField("type", enrollment.getType());
+                generator.writeObjectField("completionPercentage", enrollment.getCompletionPercentage());
+                generator.writeObjectField("grade", enrollment.getGrade());
+                generator.writeObjectField("totalTimeSpent", enrollment.getTotalTimeSpent());
+                generator.writeObjectField("certificateEarned", enrollment.getCertificateEarned());
+                generator.writeObjectField("enrolledAt", enrollment.getEnrolledAt());
+                generator.writeObjectField("startedAt", enrollment.getStartedAt());
+                generator.writeObjectField("completedAt", enrollment.getCompletedAt());
+                generator.writeObjectField("lastAccessedAt", enrollment.getLastAccessedAt());
+            });
+        }
+    }
+
+    private <T> long writeArray(OutputStream out, Stream<T> rows, RowWriter<T> rowWriter) throws IOException {
+        long count = 0;
+        // The servlet container owns the response stream, so the generator must not close it
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartArray();
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                generator.writeStartObject();
+                rowWriter.write(generator, row);
+                generator.writeEndObject();
+                entityManager.detach(row);
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(JsonGenerator generator, T row) throws IOException;
+    }
+}
@@ -0,0 +1,146 @@
+package com.sasken.skillsync.service;
+
+import com.sasken.skillsync.model.LearnerCourseKey;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.EnrollmentRepository;
+import com.sasken.skillsync.repository.ProgressRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects course player heartbeats in memory and writes the accumulated minutes periodically, so a
+ * heartbeat costs a map lookup and an add instead of a read-modify-write transaction.
+ *
+ * Each (user, course) pair has its own LongAdder, which spreads concurrent adds over striped
+ * cells; an add only touches the map's lock when the pair is new. A flush drains every adder with
+ * sumThenReset, so adds racing the flush land in this batch or the next one. Adders that were
+ * already empty are removed to keep the map limited to active learners, but a heartbeat that
+ * fetched the adder just before its removal may still add to it, so removed adders are drained
+ * once more on the following flush.
+ *
+ * A flush first starts progress for pairs that have none, so the minutes reach progress and
+ * enrollment alike, and records change log entries only for the rows it actually updated.
+ */
+@Component
+public class HeartbeatAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(HeartbeatAggregator.class);
+
+    private final ConcurrentHashMap<LearnerCourseKey, LongAdder> pendingMinutes = new ConcurrentHashMap<>();
+    // Only touched by flush, which never runs concurrently with itself
+    private Map<LearnerCourseKey, LongAdder> removed = new HashMap<>();
+    private final ProgressRepository progressRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final ChangeLogRepository changeLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter heartbeats;
+    private final Counter flushedMinutes;
+    private final Counter unmatched;
+    private final Timer flushTimer;
+
+    public HeartbeatAggregator(ProgressRepository progressRepository,
+                               EnrollmentRepository enrollmentRepository,
+                               ChangeLogRepository changeLogRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.progressRepository = progressRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.changeLogRepository = changeLogRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.heartbeats = meterRegistry.counter("skillsync.heartbeat.received");
+        this.flushedMinutes = meterRegistry.counter("skillsync.heartbeat.minutes.flushed");
+        this.unmatched = meterRegistry.counter("skillsync.heartbeat.unmatched");
+        this.flushTimer = meterRegistry.timer("skillsync.heartbeat.flush");
+
+        meterRegistry.gaugeMapSize("skillsync.heartbeat.pending.keys", List.of(), pendingMinutes);
+    }
+
+    public void record(Long userId, Long courseId, long minutes) {
+        heartbeats.increment();
+        add(new LearnerCourseKey(userId, courseId), minutes);
+    }
+
+    private void add(LearnerCourseKey key, long minutes) {
+        LongAdder adder = pendingMinutes.get(key);
+        if (adder == null) {
+            adder = pendingMinutes.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.add(minutes);
+    }
+
+    @Scheduled(fixedDelayString = "${progress.heartbeat.flush-interval-ms:15000}")
+    public synchronized void flush() {
+        Map<LearnerCourseKey, Long> drained = new HashMap<>();
+        // Late adds to adders removed by the previous flush
+        removed.forEach((key, adder) -> drain(drained, key, adder.sumThenReset()));
+        removed = new HashMap<>();
+        for (Map.Entry<LearnerCourseKey, LongAdder> entry : pendingMinutes.entrySet()) {
+            long minutes = entry.getValue().sumThenReset();
+            if (minutes != 0) {
+                drain(drained, entry.getKey(), minutes);
+            } else if (pendingMinutes.remove(entry.getKey(), entry.getValue())) {
+                removed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int updated = flushTimer.record(() -> transactionTemplate.execute(status -> {
+                Set<LearnerCourseKey> started = progressRepository.startMissing(drained.keySet(), now);
+                Set<LearnerCourseKey> progress = progressRepository.addTimeSpent(drained, now);
+                // Enrollments only count time that was also added to progress, so the two totals agree
+                Map<LearnerCourseKey, Long> matched = new HashMap<>(drained);
+                matched.keySet().retainAll(progress);
+                Set<LearnerCourseKey> enrollments = enrollmentRepository.addTotalTimeSpent(matched, now);
+
+                Set<LearnerCourseKey> changedProgress = new HashSet<>(progress);
+                changedProgress.addAll(started);
+                changeLogRepository.recordLearnerCourses("progress", changedProgress);
+                changeLogRepository.recordLearnerCourses("enrollment", enrollments);
+                return progress.size();
+            }));
+
+            long total = drained.values().stream().mapToLong(Long::longValue).sum();
+            flushedMinutes.increment(total);
+            if (updated < drained.size()) {
+                // Heartbeats for a user or course that no longer exists
+                unmatched.increment(drained.size() - updated);
+            }
+        } catch (RuntimeException e) {
+            // Keep the minutes for the next flush rather than dropping them
+            logger.warn("Failed to flush {} heartbeat totals, will retry: {}", drained.size(), e.getMessage());
+            drained.forEach(this::add);
+        }
+    }
+
+    private static void drain(Map<LearnerCourseKey, Long> drained, LearnerCourseKey key, long minutes) {
+        if (minutes != 0) {
+            drained.merge(key, minutes, Long::sum);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
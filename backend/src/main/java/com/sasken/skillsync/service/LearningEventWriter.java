@@ -0,0 +1,281 @@
+package com.sasken.skillsync.service;
+
+import com.sasken.skillsync.dto.LearningEvent;
+import com.sasken.skillsync.model.LearnerCourseKey;
+import com.sasken.skillsync.model.Progress;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.EnrollmentRepository;
+import com.sasken.skillsync.repository.ProgressRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Applies learning-activity events submitted in bulk by course players.
+ *
+ * Request threads only enqueue into a bounded ring buffer and are turned away when it is full.
+ * One writer thread drains it, folds each batch into a single change per (user, course) and
+ * applies the whole batch in one transaction: minutes as a batched increment, percentages and
+ * quiz scores on progress rows loaded with one query, the enrollment kept in step by key, and
+ * completions through the regular completion path so certificates are still issued. Having a
+ * single writer means events for the same learner never race each other; conflicts with other
+ * writers are retried as a batch.
+ *
+ * Submitters hold the read side of a lock while they check that the writer is running and
+ * enqueue, and stop takes the write side to clear the flag. Every batch accepted before stop is
+ * therefore in the buffer when the writer drains it for the last time, and later ones are rejected.
+ */
+@Component
+public class LearningEventWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LearningEventWriter.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final EventRingBuffer<LearningEvent> buffer;
+    private final int batchSize;
+    private final ProgressRepository progressRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final ChangeLogRepository changeLogRepository;
+    private final ProgressService progressService;
+    private final ConflictRetryExecutor conflictRetryExecutor;
+    private final Counter acceptedEvents;
+    private final Counter rejectedEvents;
+    private final Counter appliedEvents;
+    private final Counter failedEvents;
+    private final DistributionSummary batchSizes;
+    private final Timer batchTimer;
+
+    private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private volatile Thread writerThread;
+
+    public LearningEventWriter(ProgressRepository progressRepository,
+                               EnrollmentRepository enrollmentRepository,
+                               ChangeLogRepository changeLogRepository,
+                               ProgressService progressService,
+                               ConflictRetryExecutor conflictRetryExecutor,
+                               MeterRegistry meterRegistry,
+                               @Value("${progress.events.capacity:8192}") int capacity,
+                               @Value("${progress.events.batch-size:500}") int batchSize) {
+        this.buffer = new EventRingBuffer<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.progressRepository = progressRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.changeLogRepository = changeLogRepository;
+        this.progressService = progressService;
+        this.conflictRetryExecutor = conflictRetryExecutor;
+        this.acceptedEvents = meterRegistry.counter("skillsync.events.accepted");
+        this.rejectedEvents = meterRegistry.counter("skillsync.events.rejected");
+        this.appliedEvents = meterRegistry.counter("skillsync.events.applied");
+        this.failedEvents = meterRegistry.counter("skillsync.events.failed");
+        this.batchSizes = meterRegistry.summary("skillsync.events.batch.size");
+        this.batchTimer = meterRegistry.timer("skillsync.events.batch");
+
+        Gauge.builder("skillsync.events.queue.depth", buffer, EventRingBuffer::size).register(meterRegistry);
+        Gauge.builder("skillsync.events.queue.capacity", buffer, EventRingBuffer::capacity).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::run, "learning-event-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Enqueues all events, or none when the buffer cannot take them all.
+     *
+     * @return false if the caller should back off and resubmit
+     */
+    public boolean submit(List<LearningEvent> events) {
+        boolean accepted;
+        stopLock.readLock().lock();
+        try {
+            accepted = running && buffer.offerAll(events);
+        } finally {
+            stopLock.readLock().unlock();
+        }
+        if (!accepted) {
+            rejectedEvents.increment(events.size());
+            return false;
+        }
+        acceptedEvents.increment(events.size());
+        LockSupport.unpark(writerThread);
+        return true;
+    }
+
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    private void run() {
+        List<LearningEvent> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            buffer.drain(batch::add, batchSize);
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                applyBatch(batch);
+            } catch (RuntimeException e) {
+                // Never let one batch stop the writer
+                logger.error("Unexpected failure applying {} learning events", batch.size(), e);
+                failedEvents.increment(batch.size());
+            }
+            batch.clear();
+        }
+    }
+
+    private void applyBatch(List<LearningEvent> batch) {
+        Map<LearnerCourseKey, PendingChange> changes = new LinkedHashMap<>();
+        for (LearningEvent event : batch) {
+            changes.computeIfAbsent(new LearnerCourseKey(event.getUserId(), event.getCourseId()), k -> new PendingChange())
+                    .add(event);
+        }
+        batchSizes.record(batch.size());
+
+        try {
+            batchTimer.record(() -> conflictRetryExecutor.execute("progress.events",
+                    () -> apply(changes, LocalDateTime.now())));
+            appliedEvents.increment(batch.size());
+        } catch (RuntimeException e) {
+            // Isolate the learner whose change cannot be applied instead of dropping the batch
+            logger.warn("Batch of {} learning events failed, applying per learner: {}", batch.size(), e.getMessage());
+            changes.forEach((key, change) -> {
+                try {
+                    conflictRetryExecutor.execute("progress.events", () -> apply(Map.of(key, change), LocalDateTime.now()));
+                    appliedEvents.increment(change.eventCount);
+                } catch (RuntimeException single) {
+                    logger.warn("Dropping {} learning events for user {} course {}: {}",
+                            change.eventCount, key.userId(), key.courseId(), single.getMessage());
+                    failedEvents.increment(change.eventCount);
+                }
+            });
+        }
+    }
+
+    private Void apply(Map<LearnerCourseKey, PendingChange> changes, LocalDateTime now) {
+        // Rows for first activity are created up front, so the minutes increment below finds them
+        Set<LearnerCourseKey> started = progressRepository.startMissing(changes.keySet(), now);
+        if (!started.isEmpty()) {
+            changeLogRepository.recordLearnerCourses("progress", started);
+        }
+
+        Map<LearnerCourseKey, Long> minutes = new HashMap<>();
+        changes.forEach((key, change) -> {
+            if (change.minutes > 0) {
+                minutes.put(key, change.minutes);
+            }
+        });
+        if (!minutes.isEmpty()) {
+            changeLogRepository.recordLearnerCourses("progress", progressRepository.addTimeSpent(minutes, now));
+            changeLogRepository.recordLearnerCourses("enrollment", enrollmentRepository.addTotalTimeSpent(minutes, now));
+        }
+
+        Map<LearnerCourseKey, PendingChange> stateChanges = changes.entrySet().stream()
+                .filter(entry -> entry.getValue().changesState())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (stateChanges.isEmpty()) {
+            return null;
+        }
+
+        // Loaded after the increment so the entities carry the new minutes when they are flushed
+        Set<Long> userIds = stateChanges.keySet().stream().map(LearnerCourseKey::userId).collect(Collectors.toSet());
+        Set<Long> courseIds = stateChanges.keySet().stream().map(LearnerCourseKey::courseId).collect(Collectors.toSet());
+        Map<LearnerCourseKey, Progress> progressByKey = progressRepository.findByUserIdInAndCourseIdIn(userIds, courseIds)
+                .stream()
+                .collect(Collectors.toMap(p -> new LearnerCourseKey(p.getUser().getId(), p.getCourse().getId()), p -> p));
+
+        stateChanges.forEach((key, change) -> {
+            change.applyTo(progressByKey.get(key), now);
+
+            if (change.completionPercentage != null && !change.completed) {
+                enrollmentRepository.updateCompletionState(key.userId(), key.courseId(), change.completionPercentage, now);
+                changeLogRepository.recordLearnerCourses("enrollment", List.of(key));
+            }
+            if (change.completed) {
+                progressService.markAsCompleted(key.userId(), key.courseId());
+            }
+        });
+        return null;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stopLock.writeLock().unlock();
+        }
+        Thread thread = writerThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            // Whatever is still queued is applied before the repositories go away
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    // Net effect of one batch's events on a single learner's course, in arrival order
+    private static class PendingChange {
+        private long minutes;
+        private Double completionPercentage;
+        private Double quizScore;
+        private Double maxQuizScore;
+        private boolean completed;
+        private int eventCount;
+
+        void add(LearningEvent event) {
+            eventCount++;
+            switch (event.getType()) {
+                case PROGRESS -> completionPercentage = event.getCompletionPercentage();
+                case HEARTBEAT -> minutes += event.getMinutes();
+                case QUIZ -> {
+                    quizScore = event.getScore();
+                    maxQuizScore = event.getMaxScore();
+                }
+                case COMPLETION -> completed = true;
+            }
+        }
+
+        boolean changesState() {
+            return completionPercentage != null || quizScore != null || completed;
+        }
+
+        void applyTo(Progress progress, LocalDateTime now) {
+            if (completionPercentage != null && !completed) {
+                ProgressService.applyCompletionPercentage(progress, completionPercentage, now);
+            }
+            if (quizScore != null) {
+                progress.setQuizScore(quizScore);
+                progress.setMaxQuizScore(maxQuizScore);
+            }
+            progress.setLastAccessedAt(now);
+            progress.setUpdatedAt(now);
+        }
+    }
+}
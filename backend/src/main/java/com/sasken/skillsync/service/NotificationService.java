@@ -4,11 +4,8 @@ import com.sasken.skillsync.model.Course;
 import com.sasken.skillsync.model.Notification;
 import com.sasken.skillsync.model.User;
 import com.sasken.skillsync.repository.NotificationRepository;
-import com.sasken.skillsync.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,17 +15,17 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class NotificationService {
 
     @Autowired
     private NotificationRepository notificationRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private EntityReferenceIndex entityReferenceIndex;
 
-    @Autowired(required = false)
-    private JavaMailSender mailSender;
+    @Autowired
+    private EmailNotificationSender emailNotificationSender;
 
     public List<Notification> getAllNotifications() {
         return notificationRepository.findAll();
@@ -46,12 +43,12 @@ public class NotificationService {
         return notificationRepository.findById(id);
     }
 
+    @Transactional
     public Notification createNotification(Long userId, String title, String message, 
                                          Notification.NotificationType type, 
                                          Notification.NotificationPriority priority,
                                          String relatedEntityType, Long relatedEntityId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        User user = entityReferenceIndex.userReference(userId);
 
         Notification notification = new Notification();
         notification.setUser(user);
@@ -67,12 +64,13 @@ public class NotificationService {
 
         Notification savedNotification = notificationRepository.save(notification);
 
-        // Send email notification asynchronously
-        sendEmailNotificationAsync(user, title, message);
+        // Sent on the email executor; only the address crosses threads
+        emailNotificationSender.send(user.getEmail(), title, message);
 
         return savedNotification;
     }
 
+    @Transactional
     public Notification markAsRead(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found with id: " + notificationId));
@@ -82,6 +80,7 @@ public class NotificationService {
         return notificationRepository.save(notification);
     }
 
+    @Transactional
     public void markAllAsRead(Long userId) {
         List<Notification> unreadNotifications = notificationRepository.findByUserIdAndIsReadFalse(userId);
         for (Notification notification : unreadNotifications) {
@@ -91,15 +90,18 @@ public class NotificationService {
         notificationRepository.saveAll(unreadNotifications);
     }
 
+    @Transactional
     public void deleteNotification(Long notificationId) {
         notificationRepository.deleteById(notificationId);
     }
 
+    @Transactional
     public void deleteAllNotificationsByUser(Long userId) {
         notificationRepository.deleteByUserId(userId);
     }
 
     // Specific notification methods
+    @Transactional
     public void sendEnrollmentNotification(User user, Course course, String action) {
         String title = "Course " + action.substring(0, 1).toUpperCase() + action.substring(1);
         String message = String.format("You have %s in the course: %s", action, course.getTitle());
@@ -115,6 +117,7 @@ public class NotificationService {
         );
     }
 
+    @Transactional
     public void sendCertificateNotification(User user, Course course, String certificateId) {
         String title = "Certificate Issued";
         String message = String.format("Your certificate for %s has been issued. Certificate ID: %s", 
@@ -131,6 +134,7 @@ public class NotificationService {
         );
     }
 
+    @Transactional
     public void sendCourseReminderNotification(User user, Course course, String reminderType) {
         String title = "Course Reminder";
         String message = String.format("Reminder: Your course '%s' %s", 
@@ -147,6 +151,7 @@ public class NotificationService {
         );
     }
 
+    @Transactional
     public void sendOverdueNotification(User user, Course course) {
         String title = "Overdue Training";
         String message = String.format("Your training '%s' is overdue. Please complete it as soon as possible.", 
@@ -163,27 +168,6 @@ public class NotificationService {
         );
     }
 
-    @Async
-    public void sendEmailNotificationAsync(User user, String subject, String message) {
-        try {
-            if (mailSender != null) {
-                SimpleMailMessage email = new SimpleMailMessage();
-                email.setTo(user.getEmail());
-                email.setSubject("[SkillSync] " + subject);
-                email.setText(message + "\n\nBest regards,\nSkillSync Training Team");
-                email.setFrom("noreply@skillsync.com");
-
-                mailSender.send(email);
-            } else {
-                // Log that email service is not configured
-                System.out.println("Email notification would be sent to " + user.getEmail() + ": " + subject);
-            }
-        } catch (Exception e) {
-            // Log error but don't fail the notification creation
-            System.err.println("Failed to send email notification: " + e.getMessage());
-        }
-    }
-
     // Scheduled task to send reminder notifications
     @Scheduled(cron = "0 0 9 * * ?") // Daily at 9 AM
     public void sendDailyReminders() {
@@ -204,6 +188,10 @@ public class NotificationService {
         return notificationRepository.findByPriority(priority);
     }
 
+    public List<Notification> getRecentNotificationsByUser(Long userId, int limit) {
+        return notificationRepository.findByUserIdOrderBySentAtDesc(userId, PageRequest.of(0, limit));
+    }
+
     public List<Notification> getRecentNotifications(int limit) {
         return notificationRepository.findTopNByOrderBySentAtDesc(limit);
     }
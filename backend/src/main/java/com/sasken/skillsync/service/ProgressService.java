@@ -1,35 +1,52 @@
 package com.sasken.skillsync.service;
 
+import com.sasken.skillsync.event.CourseCompletedEvent;
 import com.sasken.skillsync.model.Course;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.LearnerCourseKey;
 import com.sasken.skillsync.model.Progress;
 import com.sasken.skillsync.model.User;
+import com.sasken.skillsync.repository.ChangeLogRepository;
 import com.sasken.skillsync.repository.CourseRepository;
+import com.sasken.skillsync.repository.EnrollmentRepository;
 import com.sasken.skillsync.repository.ProgressRepository;
-import com.sasken.skillsync.repository.UserRepository;
 import com.sasken.skillsync.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class ProgressService {
 
     @Autowired
     private ProgressRepository progressRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Autowired
     private CourseRepository courseRepository;
 
     @Autowired
-    private EnrollmentService enrollmentService;
+    private EntityReferenceIndex entityReferenceIndex;
+
+    @Autowired
+    private ConflictRetryExecutor conflictRetryExecutor;
 
     public List<Progress> getAllProgress() {
         return progressRepository.findAll();
@@ -51,107 +68,196 @@ public class ProgressService {
         return progressRepository.findById(id);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Progress createOrUpdateProgress(Long userId, Long courseId, Double completionPercentage, 
                                          Integer timeSpentMinutes, Double quizScore, Double maxQuizScore, String notes) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
-
-        Optional<Progress> existingProgress = progressRepository.findByUserIdAndCourseId(userId, courseId);
-        
-        Progress progress;
-        if (existingProgress.isPresent()) {
-            progress = existingProgress.get();
-        } else {
-            progress = new Progress();
+        return conflictRetryExecutor.execute("progress.createOrUpdate", () -> {
+            // Only the foreign keys are needed, so neither row is loaded
+            User user = entityReferenceIndex.userReference(userId);
+            Course course = entityReferenceIndex.courseReference(courseId);
+            LocalDateTime now = LocalDateTime.now();
+
+            // Describes both the row to insert and the columns to overwrite; the upsert keeps the
+            // original start and creation timestamps when the row already exists
+            Progress progress = new Progress();
             progress.setUser(user);
             progress.setCourse(course);
-            progress.setStartedAt(LocalDateTime.now());
-            progress.setCreatedAt(LocalDateTime.now());
-        }
+            progress.setCompletionPercentage(completionPercentage);
+            progress.setTimeSpentMinutes(timeSpentMinutes);
+            progress.setQuizScore(quizScore);
+            progress.setMaxQuizScore(maxQuizScore);
+            progress.setNotes(notes);
+            progress.setStartedAt(now);
+            progress.setCreatedAt(now);
+            progress.setLastAccessedAt(now);
+            progress.setUpdatedAt(now);
+
+            return writeCompletionState(progress, now);
+        });
+    }
 
-        progress.setCompletionPercentage(completionPercentage);
-        progress.setTimeSpentMinutes(timeSpentMinutes);
-        progress.setQuizScore(quizScore);
-        progress.setMaxQuizScore(maxQuizScore);
-        progress.setNotes(notes);
-        progress.setLastAccessedAt(LocalDateTime.now());
-        progress.setUpdatedAt(LocalDateTime.now());
-
-        // Update status based on completion percentage
-        if (completionPercentage >= 100.0) {
+    // Completes the learner's progress and enrollment; enrolled learners then get a certificate the first time
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<Progress> markAsCompleted(Long userId, Long courseId) {
+        return conflictRetryExecutor.execute("progress.markCompleted", () -> {
+            Optional<Progress> progressOpt = progressRepository.findByUserIdAndCourseId(userId, courseId);
+            if (progressOpt.isEmpty()) {
+                return Optional.empty();
+            }
+
+            Progress progress = progressOpt.get();
+
+            // Update progress to completed
+            progress.setCompletionPercentage(100.0);
             progress.setStatus(Progress.ProgressStatus.COMPLETED);
             progress.setCompletedAt(LocalDateTime.now());
-        } else if (completionPercentage > 0.0) {
-            progress.setStatus(Progress.ProgressStatus.IN_PROGRESS);
-        } else {
-            progress.setStatus(Progress.ProgressStatus.NOT_STARTED);
-        }
+            progress.setLastAccessedAt(LocalDateTime.now());
+            progress.setUpdatedAt(LocalDateTime.now());
+
+            // Calculate time spent based on course duration if not already set
+            if (progress.getTimeSpentMinutes() == null || progress.getTimeSpentMinutes() == 0) {
+                Course course = progress.getCourse();
+                if (course != null && course.getDurationHours() != null) {
+                    progress.setTimeSpentMinutes(course.getDurationHours() * 60);
+                }
+            }
+
+            progressRepository.save(progress);
 
-        Progress savedProgress = progressRepository.save(progress);
+            // Update enrollment status
+            Optional<Enrollment> enrollmentOpt = enrollmentRepository.findByUserIdAndCourseId(userId, courseId);
 
-        // Update enrollment completion percentage if enrollment exists
-        try {
-            // Find enrollment and update completion percentage
-            var enrollmentOpt = enrollmentService.getEnrollmentsByUser(userId).stream()
-                    .filter(e -> e.getCourse().getId().equals(courseId))
-                    .findFirst();
             if (enrollmentOpt.isPresent()) {
-                enrollmentService.updateCompletionPercentage(enrollmentOpt.get().getId(), completionPercentage);
+                Enrollment enrollment = enrollmentOpt.get();
+                enrollment.setStatus(Enrollment.EnrollmentStatus.COMPLETED);
+                enrollment.setCompletionPercentage(100.0);
+                enrollment.setCompletedAt(LocalDateTime.now());
+                enrollment.setGrade("A");
+                enrollmentRepository.save(enrollment);
+
+                // The certificate is issued by a listener once the completion has committed
+                eventPublisher.publishEvent(new CourseCompletedEvent(userId, courseId));
             }
-        } catch (Exception e) {
-            // Log but don't fail if enrollment update fails
-            System.err.println("Failed to update enrollment completion percentage: " + e.getMessage());
-        }
 
-        return savedProgress;
+            return Optional.of(progress);
+        });
     }
 
-    public Progress updateTimeSpent(Long userId, Long courseId, Integer additionalMinutes) {
-        Progress progress = progressRepository.findByUserIdAndCourseId(userId, courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Progress not found for user " + userId + " and course " + courseId));
+    // Real-time percentage update: upserts progress, derives time spent from the course duration
+    // and moves an existing enrollment along with it
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Progress updateProgressPercentage(Long userId, Long courseId, Double completionPercentage) {
+        return conflictRetryExecutor.execute("progress.updatePercentage", () -> {
+            User user = entityReferenceIndex.userReference(userId);
+            Course course = courseRepository.findById(courseId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
+
+            // Values for the upserted row; an existing row keeps its start and creation timestamps
+            LocalDateTime now = LocalDateTime.now();
+            Progress progress = new Progress();
+            progress.setUser(user);
+            progress.setCourse(course);
+            progress.setStartedAt(now);
+            progress.setCreatedAt(now);
+            progress.setUpdatedAt(now);
+            progress.setTimeSpentMinutes(null);
+            progress.setCompletionPercentage(completionPercentage);
+            progress.setLastAccessedAt(now);
+
+            // Calculate time spent based on percentage and course duration
+            if (course.getDurationHours() != null) {
+                int totalMinutes = course.getDurationHours() * 60;
+                progress.setTimeSpentMinutes((int) (totalMinutes * (completionPercentage / 100.0)));
+            }
 
-        int currentTime = progress.getTimeSpentMinutes() != null ? progress.getTimeSpentMinutes() : 0;
-        progress.setTimeSpentMinutes(currentTime + additionalMinutes);
-        progress.setLastAccessedAt(LocalDateTime.now());
-        progress.setUpdatedAt(LocalDateTime.now());
+            return writeCompletionState(progress, now);
+        });
+    }
 
-        return progressRepository.save(progress);
+    // Incremented in the database, so concurrent updates cannot lose minutes and need no conflict retry
+    @Transactional
+    public Progress updateTimeSpent(Long userId, Long courseId, Integer additionalMinutes) {
+        Set<LearnerCourseKey> updated = progressRepository.addTimeSpent(
+                Map.of(new LearnerCourseKey(userId, courseId), additionalMinutes.longValue()), LocalDateTime.now());
+        if (updated.isEmpty()) {
+            throw new ResourceNotFoundException("Progress not found for user " + userId + " and course " + courseId);
+        }
+        changeLogRepository.recordLearnerCourses("progress", updated);
+
+        return progressRepository.findByUserIdAndCourseId(userId, courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Progress not found for user " + userId + " and course " + courseId));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Progress updateQuizScore(Long userId, Long courseId, Double score, Double maxScore) {
-        Progress progress = progressRepository.findByUserIdAndCourseId(userId, courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Progress not found for user " + userId + " and course " + courseId));
+        return conflictRetryExecutor.execute("progress.updateQuizScore", () -> {
+            Progress progress = progressRepository.findByUserIdAndCourseId(userId, courseId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Progress not found for user " + userId + " and course " + courseId));
 
-        progress.setQuizScore(score);
-        progress.setMaxQuizScore(maxScore);
-        progress.setLastAccessedAt(LocalDateTime.now());
-        progress.setUpdatedAt(LocalDateTime.now());
+            progress.setQuizScore(score);
+            progress.setMaxQuizScore(maxScore);
+            progress.setLastAccessedAt(LocalDateTime.now());
+            progress.setUpdatedAt(LocalDateTime.now());
 
-        return progressRepository.save(progress);
+            return progressRepository.save(progress);
+        });
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Progress updateCompletionPercentage(Long userId, Long courseId, Double percentage) {
-        Progress progress = progressRepository.findByUserIdAndCourseId(userId, courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Progress not found for user " + userId + " and course " + courseId));
+        return conflictRetryExecutor.execute("progress.updateCompletionPercentage", () -> {
+            // Unlike createOrUpdateProgress this only updates, so a missing row is still a 404
+            if (!progressRepository.existsByUserIdAndCourseId(userId, courseId)) {
+                throw new ResourceNotFoundException("Progress not found for user " + userId + " and course " + courseId);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            Progress progress = new Progress();
+            progress.setUser(entityReferenceIndex.userReference(userId));
+            progress.setCourse(entityReferenceIndex.courseReference(courseId));
+            progress.setCompletionPercentage(percentage);
+            progress.setStartedAt(now);
+            progress.setCreatedAt(now);
+            progress.setLastAccessedAt(now);
+            progress.setUpdatedAt(now);
+
+            return writeCompletionState(progress, now);
+        });
+    }
 
-        progress.setCompletionPercentage(percentage);
-        progress.setLastAccessedAt(LocalDateTime.now());
-        progress.setUpdatedAt(LocalDateTime.now());
+    /**
+     * The one write path for a learner's completion state. The progress row is upserted and the
+     * enrollment is updated by the same (user, course) key, in the caller's transaction, so the
+     * percentage stored on both can no longer drift apart. Neither row is read beforehand.
+     */
+    private Progress writeCompletionState(Progress values, LocalDateTime now) {
+        Long userId = values.getUser().getId();
+        Long courseId = values.getCourse().getId();
+        applyCompletionPercentage(values, values.getCompletionPercentage(), now);
+
+        progressRepository.upsert(values);
+        enrollmentRepository.updateCompletionState(userId, courseId, values.getCompletionPercentage(), now);
+        List<LearnerCourseKey> key = List.of(new LearnerCourseKey(userId, courseId));
+        changeLogRepository.recordLearnerCourses("progress", key);
+        changeLogRepository.recordLearnerCourses("enrollment", key);
+
+        return progressRepository.findByUserIdAndCourseId(userId, courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Progress not found for user " + userId + " and course " + courseId));
+    }
 
-        // Update status based on completion percentage
-        if (percentage >= 100.0) {
+    // Sets the percentage and the status it implies; shared with the batched event writer
+    static void applyCompletionPercentage(Progress progress, Double completionPercentage, LocalDateTime now) {
+        progress.setCompletionPercentage(completionPercentage);
+        if (completionPercentage >= 100.0) {
             progress.setStatus(Progress.ProgressStatus.COMPLETED);
-            progress.setCompletedAt(LocalDateTime.now());
-        } else if (percentage > 0.0) {
+            progress.setCompletedAt(now);
+        } else if (completionPercentage > 0.0) {
             progress.setStatus(Progress.ProgressStatus.IN_PROGRESS);
+        } else {
+            progress.setStatus(Progress.ProgressStatus.NOT_STARTED);
         }
-
-        return progressRepository.save(progress);
     }
 
+    @Transactional
     public void deleteProgress(Long progressId) {
         progressRepository.deleteById(progressId);
     }
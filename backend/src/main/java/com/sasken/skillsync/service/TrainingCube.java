@@ -0,0 +1,412 @@
+package com.sasken.skillsync.service;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import com.sasken.skillsync.exception.BadRequestException;
+import com.sasken.skillsync.model.Certificate;
+import com.sasken.skillsync.model.Course;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.User;
+import com.sasken.skillsync.repository.ChangeLogFollower;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.CubeRepository;
+import com.sasken.skillsync.repository.CubeRepository.FactRow;
+import com.sasken.skillsync.repository.CubeRepository.FactTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Enrollment and certificate counts pre-aggregated by course category, course type, department,
+ * role, month and status. Every cell of the cube is one combination of those coordinates, so a
+ * rollup, slice or dice only adds up cells in memory, however many rows they stand for.
+ *
+ * The cube is built by scanning both tables in id ranges on the cube executor and is rebuilt that
+ * way every night. In between it follows the change log through a {@link ChangeLogFollower}:
+ * changed enrollments and certificates, and every row of a changed user or course, are read again
+ * and moved from the cell they were counted in to their current one. Like the user bitmap index, queries never wait for the
+ * database, so answers can be up to cube.refresh-interval-ms behind.
+ */
+@Service
+public class TrainingCube {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrainingCube.class);
+
+    // Bit offset of each dimension's code within a cell key; code 0 stands for a missing value
+    private static final int[] SHIFTS = new int[Dimension.values().length];
+
+    static {
+        int shift = 0;
+        for (Dimension dimension : Dimension.values()) {
+            SHIFTS[dimension.ordinal()] = shift;
+            shift += dimension.bits;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final CubeRepository cubeRepository;
+    private final ChangeLogFollower follower;
+    private final MeterRegistry meterRegistry;
+    private final AsyncTaskExecutor executor;
+    private final int partitions;
+    private volatile Cube cube;
+
+    public TrainingCube(CubeRepository cubeRepository, ChangeLogRepository changeLogRepository,
+                        MeterRegistry meterRegistry, @Qualifier(AsyncConfig.CUBE_EXECUTOR) AsyncTaskExecutor executor,
+                        @Value("${cube.rebuild-partitions:4}") int partitions) {
+        this.cubeRepository = cubeRepository;
+        this.follower = new ChangeLogFollower(changeLogRepository, this::build, this::apply);
+        this.meterRegistry = meterRegistry;
+        this.executor = executor;
+        this.partitions = Math.max(1, partitions);
+    }
+
+    @Scheduled(fixedDelayString = "${cube.refresh-interval-ms:5000}")
+    public void refresh() {
+        follower.refresh();
+    }
+
+    /**
+     * Replaces the cube with one built from a fresh scan. Each table is split into
+     * cube.rebuild-partitions id ranges that are scanned concurrently; queries keep using the old
+     * cube until the new one is complete.
+     */
+    @Scheduled(cron = "${cube.rebuild-cron:0 30 2 * * *}")
+    public void rebuild() {
+        follower.rebuild();
+    }
+
+    private void build() {
+        long start = System.nanoTime();
+        Cube next = new Cube();
+
+        Map<Fact, List<CompletableFuture<Cells>>> scans = new EnumMap<>(Fact.class);
+        for (Fact fact : Fact.values()) {
+            List<CompletableFuture<Cells>> slices = new ArrayList<>();
+            long[] range = cubeRepository.idRange(fact.table);
+            if (range != null) {
+                long width = Math.max(1, (range[1] - range[0] + partitions) / partitions);
+                for (long low = range[0]; low <= range[1]; low += width) {
+                    long fromId = low;
+                    long toId = Math.min(range[1], low + width - 1);
+                    slices.add(CompletableFuture.supplyAsync(() -> scan(next, fact, fromId, toId), executor));
+                }
+            }
+            scans.put(fact, slices);
+        }
+        scans.forEach((fact, slices) -> slices.forEach(slice -> next.cells.get(fact).addAll(slice.join())));
+
+        lock.writeLock().lock();
+        try {
+            cube = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        meterRegistry.timer("skillsync.cube.rebuild").record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Training cube built from {} enrollments and {} certificates into {} cells in {} ms",
+                next.cells.get(Fact.ENROLLMENTS).rows.size(), next.cells.get(Fact.CERTIFICATES).rows.size(),
+                next.cells.get(Fact.ENROLLMENTS).counts.size() + next.cells.get(Fact.CERTIFICATES).counts.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * Counts the rows of {@code fact} whose coordinates are among {@code filter}'s values for every
+     * filtered dimension, summed per combination of the {@code groupBy} dimensions. Without groupBy
+     * there is one group with the total; without a filter every row counts.
+     */
+    public Result query(Fact fact, List<Dimension> groupBy, Map<Dimension, Set<String>> filter) {
+        if (!follower.isBuilt()) {
+            refresh();
+        }
+        long start = System.nanoTime();
+        Map<Long, long[]> groups = new HashMap<>();
+        long total = 0;
+        Cube current;
+        lock.readLock().lock();
+        try {
+            current = cube;
+            Map<Dimension, BitSet> allowed = new EnumMap<>(Dimension.class);
+            filter.forEach((dimension, values) -> allowed.put(dimension, current.codes(fact, dimension, values)));
+            long groupMask = 0;
+            for (Dimension dimension : groupBy) {
+                groupMask |= dimension.mask() << SHIFTS[dimension.ordinal()];
+            }
+
+            for (Map.Entry<Long, long[]> cell : current.cells.get(fact).counts.entrySet()) {
+                long key = cell.getKey();
+                if (matches(key, allowed)) {
+                    long count = cell.getValue()[0];
+                    groups.computeIfAbsent(key & groupMask, group -> new long[1])[0] += count;
+                    total += count;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Group> result = new ArrayList<>(groups.size());
+        Comparator<Long> order = (left, right) -> 0;
+        for (Dimension dimension : groupBy) {
+            order = order.thenComparingInt(group -> code(group, dimension));
+        }
+        groups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(order))
+                .forEach(group -> {
+                    Map<String, String> coordinates = new LinkedHashMap<>();
+                    groupBy.forEach(dimension -> coordinates.put(dimension.parameter(),
+                            current.label(fact, dimension, code(group.getKey(), dimension))));
+                    result.add(new Group(coordinates, group.getValue()[0]));
+                });
+        meterRegistry.timer("skillsync.cube.query").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Result(fact.name().toLowerCase(), total, result);
+    }
+
+    private void apply(Map<String, Set<Long>> changedIds) {
+        Set<Long> userIds = changedIds.getOrDefault("user", Set.of());
+        Set<Long> courseIds = changedIds.getOrDefault("course", Set.of());
+        Map<Fact, Set<Long>> removed = new EnumMap<>(Fact.class);
+        Map<Fact, List<FactRow>> rows = new EnumMap<>(Fact.class);
+        for (Fact fact : Fact.values()) {
+            Set<Long> ids = changedIds.getOrDefault(fact.entityType, Set.of());
+            List<FactRow> current = new ArrayList<>();
+            if (!ids.isEmpty()) {
+                current.addAll(cubeRepository.findByIds(fact.table, ids));
+            }
+            if (!userIds.isEmpty()) {
+                current.addAll(cubeRepository.findByUserIds(fact.table, userIds));
+            }
+            if (!courseIds.isEmpty()) {
+                current.addAll(cubeRepository.findByCourseIds(fact.table, courseIds));
+            }
+            removed.put(fact, ids);
+            rows.put(fact, current);
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Fact fact : Fact.values()) {
+                Cells cells = cube.cells.get(fact);
+                removed.get(fact).forEach(cells::remove);
+                for (FactRow row : rows.get(fact)) {
+                    cells.remove(row.id());
+                    cells.add(row.id(), cube.key(fact, row));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Cells scan(Cube target, Fact fact, long fromId, long toId) {
+        Cells slice = new Cells();
+        cubeRepository.forEachInRange(fact.table, fromId, toId, row -> slice.add(row.id(), target.key(fact, row)));
+        return slice;
+    }
+
+    private static boolean matches(long key, Map<Dimension, BitSet> allowed) {
+        for (Map.Entry<Dimension, BitSet> filter : allowed.entrySet()) {
+            if (!filter.getValue().get(code(key, filter.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int code(long key, Dimension dimension) {
+        return (int) ((key >>> SHIFTS[dimension.ordinal()]) & dimension.mask());
+    }
+
+    private static int monthCode(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue();
+    }
+
+    public enum Fact {
+        ENROLLMENTS(FactTable.ENROLLMENTS, "enrollment", Enrollment.EnrollmentStatus.values()),
+        CERTIFICATES(FactTable.CERTIFICATES, "certificate", Certificate.CertificateStatus.values());
+
+        private final FactTable table;
+        private final String entityType;
+        private final Enum<?>[] statuses;
+
+        Fact(FactTable table, String entityType, Enum<?>[] statuses) {
+            this.table = table;
+            this.entityType = entityType;
+            this.statuses = statuses;
+        }
+    }
+
+    // MONTH is when the enrollment was made or the certificate issued
+    public enum Dimension {
+        CATEGORY(4), TYPE(4), DEPARTMENT(20), ROLE(4), MONTH(20), STATUS(4);
+
+        private final int bits;
+
+        Dimension(int bits) {
+            this.bits = bits;
+        }
+
+        public String parameter() {
+            return name().toLowerCase();
+        }
+
+        private long mask() {
+            return (1L << bits) - 1;
+        }
+    }
+
+    public record Group(Map<String, String> coordinates, long count) {
+    }
+
+    public record Result(String fact, long total, List<Group> groups) {
+    }
+
+    // Row id -> cell key for every counted row, and the count per cell key
+    private static final class Cells {
+        private final Map<Long, Long> rows = new HashMap<>();
+        private final Map<Long, long[]> counts = new HashMap<>();
+
+        private void add(Long id, long key) {
+            rows.put(id, key);
+            counts.computeIfAbsent(key, cell -> new long[1])[0]++;
+        }
+
+        private void remove(Long id) {
+            Long key = rows.remove(id);
+            if (key != null) {
+                long[] count = counts.get(key);
+                if (--count[0] == 0) {
+                    counts.remove(key);
+                }
+            }
+        }
+
+        private void addAll(Cells slice) {
+            rows.putAll(slice.rows);
+            slice.counts.forEach((key, count) -> counts.computeIfAbsent(key, cell -> new long[1])[0] += count[0]);
+        }
+    }
+
+    // Departments are the only open-ended dimension, so they get codes as they are first seen
+    private static final class Cube {
+        private final Map<Fact, Cells> cells = new EnumMap<>(Fact.class);
+        private final Map<String, Integer> departmentCodes = new ConcurrentHashMap<>();
+        private final Map<Integer, String> departments = new ConcurrentHashMap<>();
+        private final AtomicInteger nextDepartment = new AtomicInteger(1);
+
+        private Cube() {
+            for (Fact fact : Fact.values()) {
+                cells.put(fact, new Cells());
+            }
+        }
+
+        private long key(Fact fact, FactRow row) {
+            long key = 0;
+            key |= (long) ordinal(row.category()) << SHIFTS[Dimension.CATEGORY.ordinal()];
+            key |= (long) ordinal(row.type()) << SHIFTS[Dimension.TYPE.ordinal()];
+            key |= (long) department(row.department()) << SHIFTS[Dimension.DEPARTMENT.ordinal()];
+            key |= (long) ordinal(row.role()) << SHIFTS[Dimension.ROLE.ordinal()];
+            key |= (long) (row.occurredAt() != null ? monthCode(YearMonth.from(row.occurredAt())) : 0)
+                    << SHIFTS[Dimension.MONTH.ordinal()];
+            key |= (long) status(fact, row.status()) << SHIFTS[Dimension.STATUS.ordinal()];
+            return key;
+        }
+
+        private int department(String department) {
+            if (department == null) {
+                return 0;
+            }
+            return departmentCodes.computeIfAbsent(department, name -> {
+                int code = nextDepartment.getAndIncrement();
+                if (code > Dimension.DEPARTMENT.mask()) {
+                    throw new IllegalStateException("Too many departments for the training cube");
+                }
+                departments.put(code, name);
+                return code;
+            });
+        }
+
+        private static int status(Fact fact, String status) {
+            for (Enum<?> value : fact.statuses) {
+                if (value.name().equals(status)) {
+                    return value.ordinal() + 1;
+                }
+            }
+            return 0;
+        }
+
+        private static int ordinal(Enum<?> value) {
+            return value != null ? value.ordinal() + 1 : 0;
+        }
+
+        // Values that were never seen, such as an unknown department, simply match nothing
+        private BitSet codes(Fact fact, Dimension dimension, Collection<String> values) {
+            BitSet codes = new BitSet();
+            for (String value : values) {
+                try {
+                    switch (dimension) {
+                        case CATEGORY -> codes.set(Course.CourseCategory.valueOf(value.toUpperCase()).ordinal() + 1);
+                        case TYPE -> codes.set(Course.CourseType.valueOf(value.toUpperCase()).ordinal() + 1);
+                        case ROLE -> codes.set(User.UserRole.valueOf(value.toUpperCase()).ordinal() + 1);
+                        case MONTH -> codes.set(monthCode(YearMonth.parse(value)));
+                        case DEPARTMENT -> {
+                            Integer code = departmentCodes.get(value);
+                            if (code != null) {
+                                codes.set(code);
+                            }
+                        }
+                        case STATUS -> {
+                            int code = status(fact, value.toUpperCase());
+                            if (code == 0) {
+                                throw new IllegalArgumentException(value);
+                            }
+                            codes.set(code);
+                        }
+                    }
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    throw new BadRequestException("Unknown " + dimension.parameter() + " '" + value + "' for " +
+                            fact.name().toLowerCase());
+                }
+            }
+            return codes;
+        }
+
+        private String label(Fact fact, Dimension dimension, int code) {
+            if (code == 0) {
+                return null;
+            }
+            return switch (dimension) {
+                case CATEGORY -> Course.CourseCategory.values()[code - 1].name();
+                case TYPE -> Course.CourseType.values()[code - 1].name();
+                case ROLE -> User.UserRole.values()[code - 1].name();
+                case STATUS -> fact.statuses[code - 1].name();
+                case DEPARTMENT -> departments.get(code);
+                case MONTH -> YearMonth.of((code - 1) / 12, (code - 1) % 12 + 1).toString();
+            };
+        }
+    }
+}
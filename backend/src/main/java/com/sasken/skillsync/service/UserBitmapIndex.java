@@ -0,0 +1,305 @@
+package com.sasken.skillsync.service;
+
+import com.sasken.skillsync.exception.BadRequestException;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.User;
+import com.sasken.skillsync.repository.ChangeLogFollower;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.ComplianceRepository;
+import com.sasken.skillsync.repository.ComplianceRepository.EnrollmentState;
+import com.sasken.skillsync.repository.ComplianceRepository.UserState;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of user ids by department, role, active flag, and enrollment status per
+ * course, so set questions such as "active users of a department who have not completed a
+ * mandatory course" are answered with bitmap AND, OR and ANDNOT instead of joins.
+ *
+ * The bitmaps are built from one scan of users and enrollments and then follow the change log
+ * through a {@link ChangeLogFollower}. Queries do not catch up themselves: the scheduled refresh
+ * applies new changes, so answers can be up to user-index.refresh-interval-ms behind, and a query
+ * never waits for the database.
+ */
+@Service
+public class UserBitmapIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBitmapIndex.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap users = new RoaringBitmap();
+    private final RoaringBitmap activeUsers = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> byDepartment = new HashMap<>();
+    private final Map<User.UserRole, RoaringBitmap> byRole = new EnumMap<>(User.UserRole.class);
+    private final Map<Long, RoaringBitmap> byCourse = new HashMap<>();
+    private final Map<Long, Map<Enrollment.EnrollmentStatus, RoaringBitmap>> byCourseStatus = new HashMap<>();
+    // What each enrollment was indexed as, so its bits can be cleared when it changes or disappears
+    private final Map<Long, EnrollmentState> enrollments = new HashMap<>();
+    private ChangeLogFollower follower;
+
+    @Autowired
+    private ComplianceRepository complianceRepository;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PostConstruct
+    public void init() {
+        follower = new ChangeLogFollower(changeLogRepository, this::rebuild, this::apply);
+    }
+
+    @Scheduled(fixedDelayString = "${user-index.refresh-interval-ms:1000}")
+    public void refresh() {
+        follower.refresh();
+    }
+
+    /**
+     * The ids of the users matching {@code query}, in ascending order.
+     */
+    public long[] find(Query query) {
+        if (!follower.isBuilt()) {
+            refresh();
+        }
+        long start = System.nanoTime();
+        int[] ids;
+        lock.readLock().lock();
+        try {
+            ids = evaluate(query).toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+        meterRegistry.timer("skillsync.userindex.query").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        long[] userIds = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            userIds[i] = Integer.toUnsignedLong(ids[i]);
+        }
+        return userIds;
+    }
+
+    /**
+     * The number of active users in {@code department}, and for each course how many of them have
+     * completed it, in the order of {@code courseIds}.
+     */
+    public Map<Long, Coverage> coverage(String department, List<Long> courseIds) {
+        if (!follower.isBuilt()) {
+            refresh();
+        }
+        Map<Long, Coverage> result = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            RoaringBitmap staff = RoaringBitmap.and(byDepartment.getOrDefault(department, new RoaringBitmap()), activeUsers);
+            for (Long courseId : courseIds) {
+                RoaringBitmap completed = byCourseStatus.getOrDefault(courseId, Map.of())
+                        .getOrDefault(Enrollment.EnrollmentStatus.COMPLETED, new RoaringBitmap());
+                result.put(courseId, new Coverage(staff.getCardinality(), RoaringBitmap.andCardinality(staff, completed)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            users.clear();
+            activeUsers.clear();
+            byDepartment.clear();
+            byRole.clear();
+            byCourse.clear();
+            byCourseStatus.clear();
+            enrollments.clear();
+            complianceRepository.forEachUser(this::addUser);
+            complianceRepository.forEachEnrollment(this::addEnrollment);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        meterRegistry.timer("skillsync.userindex.rebuild").record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("User bitmap index built from {} users and {} enrollments in {} ms",
+                users.getLongCardinality(), enrollments.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private void apply(Map<String, Set<Long>> changedIds) {
+        Set<Long> userIds = changedIds.getOrDefault("user", Set.of());
+        Set<Long> enrollmentIds = changedIds.getOrDefault("enrollment", Set.of());
+        List<UserState> userStates = userIds.isEmpty() ? List.of() : complianceRepository.findUsersByIds(userIds);
+        List<EnrollmentState> enrollmentStates = enrollmentIds.isEmpty() ? List.of() : complianceRepository.findByIds(enrollmentIds);
+
+        lock.writeLock().lock();
+        try {
+            userIds.forEach(this::removeUser);
+            userStates.forEach(this::addUser);
+            enrollmentIds.forEach(this::removeEnrollment);
+            enrollmentStates.forEach(this::addEnrollment);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addUser(UserState user) {
+        int id = bit(user.id());
+        users.add(id);
+        if (user.active()) {
+            activeUsers.add(id);
+        }
+        if (user.department() != null) {
+            byDepartment.computeIfAbsent(user.department(), key -> new RoaringBitmap()).add(id);
+        }
+        if (user.role() != null) {
+            byRole.computeIfAbsent(user.role(), key -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    // Departments and roles are few, so clearing the bit everywhere is cheaper than remembering where it was
+    private void removeUser(Long userId) {
+        int id = bit(userId);
+        users.remove(id);
+        activeUsers.remove(id);
+        byDepartment.values().forEach(bitmap -> bitmap.remove(id));
+        byRole.values().forEach(bitmap -> bitmap.remove(id));
+    }
+
+    private void addEnrollment(EnrollmentState enrollment) {
+        int id = bit(enrollment.userId());
+        enrollments.put(enrollment.id(), enrollment);
+        byCourse.computeIfAbsent(enrollment.courseId(), key -> new RoaringBitmap()).add(id);
+        if (enrollment.status() != null) {
+            byCourseStatus.computeIfAbsent(enrollment.courseId(), key -> new EnumMap<>(Enrollment.EnrollmentStatus.class))
+                    .computeIfAbsent(enrollment.status(), key -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private void removeEnrollment(Long enrollmentId) {
+        EnrollmentState previous = enrollments.remove(enrollmentId);
+        if (previous == null) {
+            return;
+        }
+        int id = bit(previous.userId());
+        RoaringBitmap course = byCourse.get(previous.courseId());
+        if (course != null) {
+            course.remove(id);
+        }
+        Map<Enrollment.EnrollmentStatus, RoaringBitmap> statuses = byCourseStatus.get(previous.courseId());
+        if (statuses != null && previous.status() != null && statuses.containsKey(previous.status())) {
+            statuses.get(previous.status()).remove(id);
+        }
+    }
+
+    private static int bit(Long userId) {
+        if (userId < 0 || userId > 0xFFFFFFFFL) {
+            throw new IllegalStateException("User id " + userId + " does not fit the bitmap index");
+        }
+        return (int) (long) userId;
+    }
+
+    // Every criterion set on a node must hold; stored bitmaps are only read, results are new bitmaps
+    private RoaringBitmap evaluate(Query query) {
+        if (query == null) {
+            throw new BadRequestException("A query node must not be empty");
+        }
+        List<RoaringBitmap> terms = new ArrayList<>();
+        if (query.getDepartment() != null) {
+            terms.add(byDepartment.getOrDefault(query.getDepartment(), new RoaringBitmap()));
+        }
+        if (query.getRole() != null) {
+            terms.add(byRole.getOrDefault(query.getRole(), new RoaringBitmap()));
+        }
+        if (query.getActive() != null) {
+            terms.add(query.getActive() ? activeUsers : RoaringBitmap.andNot(users, activeUsers));
+        }
+        if (query.getCourseStatus() != null && query.getCourseId() == null) {
+            throw new BadRequestException("courseStatus needs a courseId");
+        }
+        if (query.getCourseId() != null) {
+            terms.add(query.getCourseStatus() == null
+                    ? byCourse.getOrDefault(query.getCourseId(), new RoaringBitmap())
+                    : byCourseStatus.getOrDefault(query.getCourseId(), Map.of())
+                            .getOrDefault(query.getCourseStatus(), new RoaringBitmap()));
+        }
+        if (query.getAnd() != null) {
+            query.getAnd().forEach(operand -> terms.add(evaluate(operand)));
+        }
+        if (query.getOr() != null) {
+            RoaringBitmap union = new RoaringBitmap();
+            query.getOr().forEach(operand -> union.or(evaluate(operand)));
+            terms.add(union);
+        }
+        if (query.getAndNot() != null) {
+            if (query.getAndNot().isEmpty()) {
+                throw new BadRequestException("andNot needs at least one operand");
+            }
+            RoaringBitmap difference = evaluate(query.getAndNot().get(0)).clone();
+            query.getAndNot().subList(1, query.getAndNot().size()).forEach(operand -> difference.andNot(evaluate(operand)));
+            terms.add(difference);
+        }
+
+        if (terms.isEmpty()) {
+            throw new BadRequestException("A query node must set at least one criterion");
+        }
+        RoaringBitmap result = terms.get(0).clone();
+        for (RoaringBitmap term : terms.subList(1, terms.size())) {
+            result.and(term);
+        }
+        return result;
+    }
+
+    public record Coverage(int headcount, int completed) {
+    }
+
+    /**
+     * One node of a user query. All criteria set on a node must hold; {@code and}, {@code or} and
+     * {@code andNot} combine nested nodes, where andNot keeps the users of its first operand that
+     * match none of the others. A courseId alone means enrolled in that course in any status.
+     */
+    public static class Query {
+        private String department;
+        private User.UserRole role;
+        private Boolean active;
+        private Long courseId;
+        private Enrollment.EnrollmentStatus courseStatus;
+        private List<Query> and;
+        private List<Query> or;
+        private List<Query> andNot;
+
+        public String getDepartment() { return department; }
+        public void setDepartment(String department) { this.department = department; }
+        public User.UserRole getRole() { return role; }
+        public void setRole(User.UserRole role) { this.role = role; }
+        public Boolean getActive() { return active; }
+        public void setActive(Boolean active) { this.active = active; }
+        public Long getCourseId() { return courseId; }
+        public void setCourseId(Long courseId) { this.courseId = courseId; }
+        public Enrollment.EnrollmentStatus getCourseStatus() { return courseStatus; }
+        public void setCourseStatus(Enrollment.EnrollmentStatus courseStatus) { this.courseStatus = courseStatus; }
+        public List<Query> getAnd() { return and; }
+        public void setAnd(List<Query> and) { this.and = and; }
+        public List<Query> getOr() { return or; }
+        public void setOr(List<Query> or) { this.or = or; }
+        public List<Query> getAndNot() { return andNot; }
+        public void setAndNot(List<Query> andNot) { this.andNot = andNot; }
+    }
+}
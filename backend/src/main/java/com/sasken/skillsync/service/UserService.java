@@ -12,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class UserService {
 
     @Autowired
@@ -49,6 +49,7 @@ public class UserService {
         return userRepository.findActiveUsersByDepartment(department);
     }
 
+    @Transactional
     public User createUser(User user) {
         // Encode password
         user.setPassword(passwordEncoder.encode(user.getPassword()));
@@ -58,6 +59,7 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    @Transactional
     public Optional<User> updateUser(Long id, User userDetails) {
         return userRepository.findById(id).map(user -> {
             user.setFirstName(userDetails.getFirstName());
@@ -77,6 +79,7 @@ public class UserService {
         });
     }
 
+    @Transactional
     public boolean deleteUser(Long id) {
         return userRepository.findById(id).map(user -> {
             user.setActive(false);
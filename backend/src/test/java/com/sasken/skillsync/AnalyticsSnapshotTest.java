@@ -0,0 +1,140 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.model.Course;
+import com.sasken.skillsync.repository.AnalyticsRepository;
+import com.sasken.skillsync.service.AnalyticsSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Checks the snapshot against the equivalent SQL aggregates, then times both on the same data.
+@DataJpaTest(properties = "analytics.refresh-interval-ms=3600000")
+@Import({AnalyticsSnapshot.class, AnalyticsRepository.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class AnalyticsSnapshotTest {
+
+    private static final int USERS = Integer.getInteger("analytics.test.users", 10_000);
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    private static final String SQL_SELECT =
+            "COUNT(*), SUM(CASE WHEN p.status = 'COMPLETED' THEN 1 ELSE 0 END), AVG(p.completion_percentage), " +
+            "SUM(p.time_spent_minutes), AVG(p.quiz_score) " +
+            "FROM progress p JOIN users u ON u.id = p.user_id JOIN courses c ON c.id = p.course_id ";
+
+    private static boolean seeded;
+
+    @Autowired
+    private AnalyticsSnapshot analyticsSnapshot;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void seed() {
+        if (seeded) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO users (first_name, last_name, email, password, role, department, employee_id, " +
+                "is_active, created_at, updated_at) " +
+                "SELECT 'Learner', X, CONCAT('learner', X, '@analytics.test'), 'x', 'EMPLOYEE', " +
+                "CASE MOD(X, 4) WHEN 0 THEN 'Engineering' WHEN 1 THEN 'HR' WHEN 2 THEN 'Sales' ELSE 'Finance' END, " +
+                "CONCAT('AN', X), true, NOW(), NOW() FROM SYSTEM_RANGE(1, ?)", USERS);
+        jdbcTemplate.update("INSERT INTO progress (user_id, course_id, status, completion_percentage, time_spent_minutes, " +
+                "quiz_score, started_at, completed_at, last_accessed_at, created_at, updated_at) " +
+                "SELECT u.id, c.id, CASE WHEN MOD(u.id + c.id, 3) = 0 THEN 'COMPLETED' ELSE 'IN_PROGRESS' END, " +
+                "CASE WHEN MOD(u.id + c.id, 3) = 0 THEN 100 ELSE MOD(u.id * 7 + c.id, 100) END, MOD(u.id * 13 + c.id, 600), " +
+                "CASE WHEN MOD(u.id, 2) = 0 THEN MOD(u.id + c.id, 10) END, " +
+                "DATEADD('DAY', -MOD(u.id * 31 + c.id, 720), NOW()), " +
+                "CASE WHEN MOD(u.id + c.id, 3) = 0 THEN DATEADD('DAY', -MOD(u.id + c.id, 300), NOW()) END, NOW(), NOW(), NOW() " +
+                "FROM users u CROSS JOIN courses c WHERE u.email LIKE '%@analytics.test'");
+        analyticsSnapshot.refresh();
+        seeded = true;
+    }
+
+    @Test
+    public void testGroupsMatchSql() {
+        assertMatchesSql(AnalyticsSnapshot.Dimension.DEPARTMENT, new AnalyticsSnapshot.Filter(null, null, null, null, null),
+                "SELECT u.department, " + SQL_SELECT + "GROUP BY u.department");
+        assertMatchesSql(AnalyticsSnapshot.Dimension.COURSE,
+                new AnalyticsSnapshot.Filter("HR", Course.CourseCategory.TECHNICAL, null, null, null),
+                "SELECT CAST(p.course_id AS VARCHAR), " + SQL_SELECT +
+                "WHERE u.department = 'HR' AND c.category = 'TECHNICAL' GROUP BY p.course_id");
+
+        YearMonth from = YearMonth.now().minusMonths(6);
+        assertMatchesSql(AnalyticsSnapshot.Dimension.STARTED_MONTH, new AnalyticsSnapshot.Filter(null, null, null, from, null),
+                "SELECT FORMATDATETIME(p.started_at, 'yyyy-MM'), " + SQL_SELECT +
+                "WHERE p.started_at >= '" + from.atDay(1) + "' GROUP BY FORMATDATETIME(p.started_at, 'yyyy-MM')");
+    }
+
+    @Test
+    public void testScanLatencyAgainstSql() {
+        AnalyticsSnapshot.Filter all = new AnalyticsSnapshot.Filter(null, null, null, null, null);
+        String sql = "SELECT c.category, " + SQL_SELECT + "GROUP BY c.category";
+
+        double snapshotMs = time(() -> analyticsSnapshot.query(AnalyticsSnapshot.Dimension.CATEGORY, all));
+        double sqlMs = time(() -> jdbcTemplate.queryForList(sql));
+        int rows = analyticsSnapshot.query(AnalyticsSnapshot.Dimension.CATEGORY, all).rows();
+        System.out.printf("Analytics snapshot benchmark: %,d rows grouped by category, snapshot %.2fms, SQL %.2fms (%.0fx)%n",
+                rows, snapshotMs, sqlMs, sqlMs / snapshotMs);
+    }
+
+    private static double time(Supplier<?> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            assertNotNull(query.get());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    private void assertMatchesSql(AnalyticsSnapshot.Dimension groupBy, AnalyticsSnapshot.Filter filter, String sql) {
+        Map<String, AnalyticsSnapshot.Group> groups = new HashMap<>();
+        analyticsSnapshot.query(groupBy, filter).groups().forEach(group -> groups.put(group.key(), group));
+
+        List<Map<String, Object>> expected = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Map<String, Object> row = new HashMap<>();
+            row.put("key", rs.getString(1));
+            row.put("count", rs.getLong(2));
+            row.put("completed", rs.getLong(3));
+            row.put("averageCompletion", rs.getDouble(4));
+            row.put("totalTimeSpent", rs.getLong(5));
+            double quiz = rs.getDouble(6);
+            row.put("averageQuizScore", rs.wasNull() ? null : quiz);
+            return row;
+        });
+        assertEquals(expected.size(), groups.size(), () -> "Groups by " + groupBy + ": " + groups.keySet());
+        for (Map<String, Object> row : expected) {
+            AnalyticsSnapshot.Group group = groups.get((String) row.get("key"));
+            assertNotNull(group, () -> "Missing group " + row.get("key"));
+            assertEquals(row.get("count"), group.count());
+            assertEquals(row.get("completed"), group.completed());
+            assertEquals((Double) row.get("averageCompletion"), group.averageCompletion(), 1e-3);
+            assertEquals(row.get("totalTimeSpent"), group.totalTimeSpent());
+            if (row.get("averageQuizScore") == null) {
+                assertEquals(null, group.averageQuizScore());
+            } else {
+                assertEquals((Double) row.get("averageQuizScore"), group.averageQuizScore(), 1e-3);
+            }
+        }
+    }
+}
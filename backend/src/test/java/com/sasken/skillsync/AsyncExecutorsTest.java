@@ -0,0 +1,123 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import com.sasken.skillsync.service.EmailNotificationSender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringJUnitConfig(AsyncExecutorsTest.TestConfig.class)
+@TestPropertySource(properties = {
+        "async.executors.email.core-size=1", "async.executors.email.max-size=1", "async.executors.email.queue-capacity=1",
+        "async.executors.pdf.core-size=1", "async.executors.pdf.max-size=1", "async.executors.pdf.queue-capacity=1"})
+@DirtiesContext
+public class AsyncExecutorsTest {
+
+    @Configuration
+    @EnableAsync
+    @Import({AsyncConfig.class, EmailNotificationSender.class, SimpleMeterRegistry.class})
+    static class TestConfig {
+        @Bean
+        JavaMailSender mailSender() {
+            return Mockito.mock(JavaMailSender.class);
+        }
+    }
+
+    @Autowired
+    private EmailNotificationSender emailNotificationSender;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private ThreadPoolTaskExecutor emailExecutor;
+
+    @Autowired
+    private ThreadPoolTaskExecutor pdfExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testEmailIsSentOffThreadWithCallerContext() throws Exception {
+        CompletableFuture<List<Object>> sent = new CompletableFuture<>();
+        Mockito.doAnswer(invocation -> sent.complete(List.of(Thread.currentThread().getName(),
+                        String.valueOf(MDC.get("requestId")),
+                        String.valueOf(SecurityContextHolder.getContext().getAuthentication().getName()))))
+                .when(mailSender).send(Mockito.any(SimpleMailMessage.class));
+
+        MDC.put("requestId", "req-42");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("employee@skillsync.com", null, List.of()));
+        try {
+            emailNotificationSender.send("employee@skillsync.com", "Course Enrolled", "Welcome");
+        } finally {
+            MDC.clear();
+            SecurityContextHolder.clearContext();
+        }
+
+        List<Object> observed = sent.get(5, TimeUnit.SECONDS);
+        assertTrue(((String) observed.get(0)).startsWith("email-"), "Email ran on " + observed.get(0));
+        assertEquals("req-42", observed.get(1));
+        assertEquals("employee@skillsync.com", observed.get(2));
+    }
+
+    @Test
+    public void testSaturatedExecutorsApplyTheirPolicy() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        double discardedBefore = rejected("email", "discard");
+        try {
+            // One running and one queued task fill each executor, anything beyond that is rejected
+            for (int i = 0; i < 3; i++) {
+                emailExecutor.execute(() -> awaitQuietly(blocker));
+            }
+            pdfExecutor.execute(() -> awaitQuietly(blocker));
+            pdfExecutor.execute(() -> awaitQuietly(blocker));
+
+            assertThrows(TaskRejectedException.class, () -> pdfExecutor.execute(() -> { }));
+            assertEquals(discardedBefore + 1, rejected("email", "discard"), 0.0);
+            assertEquals(1, rejected("pdf", "abort"), 0.0);
+            assertEquals(1.0, meterRegistry.get("skillsync.async.queue.depth").tags("executor", "pdf").gauge().value(), 0.0);
+        } finally {
+            blocker.countDown();
+        }
+    }
+
+    private double rejected(String executor, String policy) {
+        return meterRegistry.counter("skillsync.async.rejected", "executor", executor, "policy", policy).count();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
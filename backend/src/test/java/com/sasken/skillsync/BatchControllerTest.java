@@ -0,0 +1,78 @@
+package com.sasken.skillsync;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"rate-limit.enabled=false", "batch.max-requests=5"})
+@DirtiesContext
+public class BatchControllerTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private HttpHeaders headers;
+
+    @BeforeEach
+    public void login() {
+        JsonNode login = restTemplate.postForObject("/auth/login",
+                Map.of("email", "admin@sasken.com", "password", "admin123"), JsonNode.class);
+        headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(login.get("token").asText());
+    }
+
+    @Test
+    public void testEntriesAreAnsweredInOrder() {
+        List<Map<String, Object>> requests = List.of(
+                Map.of("id", "trainers", "path", "/users/role/TRAINER"),
+                Map.of("id", "employee", "path", "/users/4"),
+                Map.of("id", "heartbeat", "method", "POST", "path", "/progress/heartbeat",
+                        "body", Map.of("userId", 4, "courseId", 1, "minutes", 2)),
+                Map.of("id", "missing", "path", "/users/999"),
+                Map.of("id", "unread", "path", "/api/notifications/user/4/count/unread?unused=a%20b"));
+
+        ResponseEntity<JsonNode> response = post(requests);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        JsonNode results = response.getBody().get("responses");
+        assertEquals(5, results.size());
+        assertEquals("trainers", results.get(0).get("id").asText());
+        assertEquals(200, results.get(0).get("status").asInt());
+        assertEquals("trainer@sasken.com", results.get(0).get("body").get(0).get("email").asText());
+        assertEquals("employee@sasken.com", results.get(1).get("body").get("email").asText());
+        assertEquals(202, results.get(2).get("status").asInt());
+        assertEquals(404, results.get(3).get("status").asInt());
+        assertEquals(200, results.get(4).get("status").asInt());
+        assertEquals(1, results.get(4).get("body").asInt());
+    }
+
+    @Test
+    public void testOversizedBatchIsRejected() {
+        List<Map<String, Object>> requests = List.of(
+                Map.of("path", "/users/1"), Map.of("path", "/users/2"), Map.of("path", "/users/3"),
+                Map.of("path", "/users/4"), Map.of("path", "/users/1"), Map.of("path", "/users/2"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, post(requests).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, post(List.of(Map.of("path", "/batch"))).getStatusCode());
+    }
+
+    private ResponseEntity<JsonNode> post(List<Map<String, Object>> requests) {
+        return restTemplate.postForEntity("/batch", new HttpEntity<>(Map.of("requests", requests), headers), JsonNode.class);
+    }
+}
@@ -0,0 +1,82 @@
+package com.sasken.skillsync;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sasken.skillsync.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Batch entries are charged to the caller's buckets just like the requests they stand for
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"rate-limit.default.capacity=4", "rate-limit.default.refill-per-second=0.001",
+                "rate-limit.progress-update.capacity=1", "rate-limit.progress-update.refill-per-second=0.001"})
+@DirtiesContext
+public class BatchRateLimitTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private HttpHeaders login(String email, String password) {
+        JsonNode login = restTemplate.postForObject("/auth/login",
+                Map.of("email", email, "password", password), JsonNode.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(login.get("token").asText());
+        return headers;
+    }
+
+    @Test
+    public void testEntriesBeyondTheBucketAreThrottled() {
+        HttpHeaders headers = login("admin@sasken.com", "admin123");
+
+        // The batch itself takes one of the admin's four tokens, leaving three for its entries
+        List<Map<String, Object>> requests = List.of(
+                Map.of("path", "/users/1"), Map.of("path", "/users/2"), Map.of("path", "/users/3?detail=full"),
+                Map.of("path", "/users/4"), Map.of("method", "DELETE", "path", "/users/4"));
+        ResponseEntity<JsonNode> response = restTemplate.postForEntity("/batch",
+                new HttpEntity<>(Map.of("requests", requests), headers), JsonNode.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        JsonNode results = response.getBody().get("responses");
+        assertEquals(200, results.get(0).get("status").asInt());
+        assertEquals(200, results.get(2).get("status").asInt());
+        assertEquals(429, results.get(3).get("status").asInt());
+        assertTrue(results.get(3).get("headers").get(HttpHeaders.RETRY_AFTER).asInt() > 0);
+        // A throttled write is not executed
+        assertEquals(429, results.get(4).get("status").asInt());
+        assertTrue(userRepository.existsById(4L));
+    }
+
+    @Test
+    public void testEncodedPathIsChargedToItsHandlersPolicy() {
+        // Its own user, so the admin's default bucket above is left alone
+        HttpHeaders headers = login("employee@sasken.com", "employee123");
+
+        Map<String, Object> update = Map.of("method", "POST", "path", "/progress/update%2Dprogress",
+                "body", Map.of("userId", 4, "courseId", 3, "completionPercentage", 50.0));
+        ResponseEntity<JsonNode> response = restTemplate.postForEntity("/batch",
+                new HttpEntity<>(Map.of("requests", List.of(update, update)), headers), JsonNode.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        JsonNode results = response.getBody().get("responses");
+        assertNotEquals(429, results.get(0).get("status").asInt());
+        assertEquals(429, results.get(1).get("status").asInt());
+    }
+}
@@ -0,0 +1,92 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.model.ChangeLogEntry;
+import com.sasken.skillsync.model.Progress;
+import com.sasken.skillsync.repository.ChangeLogEntityListener;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.service.ConflictRetryExecutor;
+import com.sasken.skillsync.service.EntityReferenceIndex;
+import com.sasken.skillsync.service.ProgressService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ProgressService.class, EntityReferenceIndex.class, ConflictRetryExecutor.class, ChangeLogRepository.class,
+        ChangeLogEntityListener.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class ChangeLogRepositoryTest {
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testBulkAndEntityWritesAreLoggedInOrder() {
+        long start = lastPosition();
+
+        Progress progress = progressService.createOrUpdateProgress(3L, 4L, 10.0, null, null, null, null);
+        progressService.updateQuizScore(3L, 4L, 8.0, 10.0);
+        progressService.deleteProgress(progress.getId());
+
+        List<ChangeLogEntry> entries = changeLogRepository.findAfter(start, 100).stream()
+                .filter(entry -> entry.getEntityType().equals("progress") && entry.getEntityId().equals(progress.getId()))
+                .toList();
+        assertEquals(List.of(ChangeLogEntry.Operation.CREATED, ChangeLogEntry.Operation.UPDATED, ChangeLogEntry.Operation.DELETED),
+                entries.stream().map(ChangeLogEntry::getOperation).toList());
+    }
+
+    @Test
+    public void testReadersDoNotPassAnOpenTransaction() throws Exception {
+        long start = lastPosition();
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    changeLogRepository.record("certificate", 1L, ChangeLogEntry.Operation.UPDATED);
+                    recorded.countDown();
+                    try {
+                        commit.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertTrue(recorded.await(10, TimeUnit.SECONDS));
+
+        // Committed right away, but at a higher position than the open transaction's entry
+        changeLogRepository.record("certificate", 2L, ChangeLogEntry.Operation.UPDATED);
+        assertTrue(changeLogRepository.findAfter(start, 100).isEmpty());
+
+        commit.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(1L, 2L),
+                changeLogRepository.findAfter(start, 100).stream().map(ChangeLogEntry::getEntityId).toList());
+    }
+
+    private long lastPosition() {
+        List<ChangeLogEntry> entries = changeLogRepository.findAfter(0, Integer.MAX_VALUE);
+        return entries.isEmpty() ? 0 : entries.get(entries.size() - 1).getPosition();
+    }
+}
@@ -0,0 +1,183 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.User;
+import com.sasken.skillsync.repository.ChangeLogEntityListener;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.ComplianceRepository;
+import com.sasken.skillsync.repository.CourseRepository;
+import com.sasken.skillsync.repository.EnrollmentRepository;
+import com.sasken.skillsync.repository.UserRepository;
+import com.sasken.skillsync.service.ComplianceRollup;
+import com.sasken.skillsync.service.ConflictRetryExecutor;
+import com.sasken.skillsync.service.EntityReferenceIndex;
+import com.sasken.skillsync.service.ProgressService;
+import com.sasken.skillsync.service.UserBitmapIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {"compliance.refresh-interval-ms=3600000", "user-index.refresh-interval-ms=3600000"})
+@Import({ComplianceRollup.class, UserBitmapIndex.class, ComplianceRepository.class, ProgressService.class,
+        EntityReferenceIndex.class, ConflictRetryExecutor.class, ChangeLogRepository.class, ChangeLogEntityListener.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class ComplianceRollupTest {
+
+    // Cybersecurity Awareness is mandatory and the employee (Engineering) is not enrolled in it
+    private static final Long USER_ID = 4L;
+    private static final Long COURSE_ID = 5L;
+
+    @Autowired
+    private ComplianceRollup complianceRollup;
+
+    @Autowired
+    private UserBitmapIndex userBitmapIndex;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testCountersFollowEnrollmentChanges() {
+        ComplianceRollup.Counts before = counts("Engineering", COURSE_ID);
+
+        Enrollment enrollment = enrollmentRepository.save(new Enrollment(userRepository.getReferenceById(USER_ID),
+                courseRepository.getReferenceById(COURSE_ID), Enrollment.EnrollmentType.MANDATORY));
+        assertCounts(before.enrolled() + 1, before.inProgress(), before.completed(), before.overdue());
+
+        // Keyed native update, recorded by the service rather than by Hibernate
+        progressService.updateCompletionPercentage(USER_ID, COURSE_ID, 40.0);
+        assertCounts(before.enrolled(), before.inProgress() + 1, before.completed(), before.overdue());
+
+        progressService.updateCompletionPercentage(USER_ID, COURSE_ID, 100.0);
+        assertCounts(before.enrolled(), before.inProgress(), before.completed() + 1, before.overdue());
+
+        enrollmentRepository.deleteById(enrollment.getId());
+        assertCounts(before.enrolled(), before.inProgress(), before.completed(), before.overdue());
+    }
+
+    @Test
+    public void testOpenEnrollmentsPastTheDueDateAreOverdue() {
+        Enrollment enrollment = new Enrollment(userRepository.getReferenceById(USER_ID),
+                courseRepository.getReferenceById(COURSE_ID), Enrollment.EnrollmentType.MANDATORY);
+        enrollment.setEnrolledAt(LocalDateTime.now().minusDays(31));
+        enrollment = enrollmentRepository.save(enrollment);
+        try {
+            ComplianceRollup.Counts counts = counts("Engineering", COURSE_ID);
+            assertEquals(1, counts.overdue());
+            assertEquals(0, counts.enrolled());
+            assertMatchesTable("Engineering");
+        } finally {
+            enrollmentRepository.deleteById(enrollment.getId());
+        }
+    }
+
+    @Test
+    public void testDepartmentChangeMovesEnrollments() {
+        int engineering = counts("Engineering", 1L).total();
+        int hr = counts("HR", 1L).total();
+
+        moveEmployee("HR");
+        try {
+            // Reads never go to the database; the move shows up with the next refresh
+            assertEquals(engineering, complianceRollup.getCounts("Engineering", 1L).total());
+            assertEquals(engineering - 1, counts("Engineering", 1L).total());
+            assertEquals(hr + 1, counts("HR", 1L).total());
+        } finally {
+            moveEmployee("Engineering");
+        }
+        assertEquals(engineering, counts("Engineering", 1L).total());
+    }
+
+    @Test
+    public void testCompletionRateIsOverActiveHeadcount() {
+        for (Long courseId : jdbcTemplate.queryForList("SELECT id FROM courses", Long.class)) {
+            assertRateMatchesTable("Engineering", courseId);
+        }
+
+        User employee = userRepository.findById(USER_ID).orElseThrow();
+        employee.setActive(false);
+        userRepository.save(employee);
+        try {
+            ComplianceRollup.Counts counts = counts("Engineering", 1L);
+            assertEquals(0, counts.headcount());
+            assertEquals(0.0, counts.completionRate());
+            // Enrollments of inactive users are still counted by state
+            assertMatchesTable("Engineering");
+        } finally {
+            employee.setActive(true);
+            userRepository.save(employee);
+        }
+        assertRateMatchesTable("Engineering", 1L);
+    }
+
+    private void moveEmployee(String department) {
+        User user = userRepository.findById(USER_ID).orElseThrow();
+        user.setDepartment(department);
+        userRepository.save(user);
+    }
+
+    private void assertCounts(int enrolled, int inProgress, int completed, int overdue) {
+        ComplianceRollup.Counts counts = counts("Engineering", COURSE_ID);
+        assertEquals(List.of(enrolled, inProgress, completed, overdue),
+                List.of(counts.enrolled(), counts.inProgress(), counts.completed(), counts.overdue()));
+        assertMatchesTable("Engineering");
+    }
+
+    // Reads see what the last refresh applied, so refresh both consumers first
+    private ComplianceRollup.Counts counts(String department, Long courseId) {
+        userBitmapIndex.refresh();
+        complianceRollup.refresh();
+        return complianceRollup.getCounts(department, courseId);
+    }
+
+    private void assertRateMatchesTable(String department, Long courseId) {
+        Integer headcount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE department = ? AND is_active",
+                Integer.class, department);
+        Integer compliant = jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT u.id) FROM enrollments e JOIN users u ON u.id = e.user_id " +
+                "WHERE u.department = ? AND u.is_active AND e.course_id = ? AND e.status = 'COMPLETED'", Integer.class, department, courseId);
+        ComplianceRollup.Counts counts = counts(department, courseId);
+        assertEquals(headcount, counts.headcount());
+        assertEquals(compliant, counts.compliant());
+        assertEquals(headcount == 0 ? 0.0 : compliant * 100.0 / headcount, counts.completionRate());
+    }
+
+    // The same numbers straight from the table with a grouped query
+    private void assertMatchesTable(String department) {
+        userBitmapIndex.refresh();
+        complianceRollup.refresh();
+        for (Long courseId : jdbcTemplate.queryForList("SELECT id FROM courses", Long.class)) {
+            Integer completed = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM enrollments e JOIN users u ON u.id = e.user_id " +
+                    "WHERE u.department = ? AND e.course_id = ? AND e.status = 'COMPLETED'", Integer.class, department, courseId);
+            Integer counted = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM enrollments e JOIN users u ON u.id = e.user_id " +
+                    "WHERE u.department = ? AND e.course_id = ? AND e.status NOT IN ('DROPPED', 'SUSPENDED')", Integer.class, department, courseId);
+            ComplianceRollup.Counts counts = complianceRollup.getCounts(department, courseId);
+            assertEquals(completed, counts.completed(), "completed in course " + courseId);
+            assertEquals(counted, counts.total(), "total in course " + courseId);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import com.sasken.skillsync.exception.BadRequestException;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.Progress;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.service.ConflictRetryExecutor;
+import com.sasken.skillsync.service.EmailNotificationSender;
+import com.sasken.skillsync.service.EnrollmentService;
+import com.sasken.skillsync.service.EntityReferenceIndex;
+import com.sasken.skillsync.service.NotificationService;
+import com.sasken.skillsync.service.ProgressService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+// Fires the same (user, course) write from many threads at once and checks exactly one row survives
+@DataJpaTest
+@Import({ProgressService.class, EnrollmentService.class, NotificationService.class, EmailNotificationSender.class,
+        AsyncConfig.class, EntityReferenceIndex.class, ConflictRetryExecutor.class, ChangeLogRepository.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class ConcurrentUpsertTest {
+
+    private static final int THREADS = 16;
+    private static final Long USER_ID = 2L;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testParallelProgressUpdatesForSamePairKeepOneRow() throws Exception {
+        Long courseId = 9L;
+        List<Future<Progress>> results = runConcurrently(attempt ->
+                progressService.createOrUpdateProgress(USER_ID, courseId, 10.0 + attempt, 5, null, null, null));
+
+        for (Future<Progress> result : results) {
+            assertEquals(courseId, result.get().getCourse().getId());
+        }
+        assertEquals(1, countRows("progress", courseId));
+    }
+
+    @Test
+    public void testParallelEnrollmentsForSamePairEnrollOnce() throws Exception {
+        Long courseId = 10L;
+        List<Future<Enrollment>> results = runConcurrently(attempt ->
+                enrollmentService.createEnrollment(USER_ID, courseId, Enrollment.EnrollmentType.OPTIONAL, null));
+
+        int enrolled = 0;
+        for (Future<Enrollment> result : results) {
+            try {
+                result.get();
+                enrolled++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(BadRequestException.class, e.getCause());
+            }
+        }
+        assertEquals(1, enrolled);
+        assertEquals(1, countRows("enrollments", courseId));
+    }
+
+    private <T> List<Future<T>> runConcurrently(Attempt<T> attempt) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                int attemptNumber = i;
+                Callable<T> task = () -> {
+                    start.await();
+                    return attempt.run(attemptNumber);
+                };
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<T> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException ignored) {
+                    // inspected by the caller
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return results;
+    }
+
+    private int countRows(String table, Long courseId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE user_id = ? AND course_id = ?", Integer.class, USER_ID, courseId);
+    }
+
+    private interface Attempt<T> {
+        T run(int attempt);
+    }
+}
@@ -0,0 +1,81 @@
+package com.sasken.skillsync;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "rate-limit.enabled=false")
+@DirtiesContext
+public class ConditionalGetTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private String token;
+
+    @BeforeEach
+    public void login() {
+        JsonNode login = restTemplate.postForObject("/auth/login",
+                Map.of("email", "admin@sasken.com", "password", "admin123"), JsonNode.class);
+        token = login.get("token").asText();
+    }
+
+    @Test
+    public void testUnchangedRowsAnswer304UntilARowChanges() {
+        ResponseEntity<String> first = exchange(HttpMethod.GET, "/users/role/EMPLOYEE", token, null);
+        String etag = first.getHeaders().getETag();
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertNotNull(etag);
+        assertTrue(etag.startsWith("W/"));
+
+        ResponseEntity<String> unchanged = exchange(HttpMethod.GET, "/users/role/EMPLOYEE", token, etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+        assertNull(unchanged.getBody());
+
+        // The same rows rendered differently have a validator of their own
+        assertEquals(HttpStatus.OK, exchange(HttpMethod.GET, "/users/role/EMPLOYEE?fields=email", token, etag).getStatusCode());
+
+        assertEquals(HttpStatus.OK, exchange(HttpMethod.DELETE, "/users/4", token, null).getStatusCode());
+        ResponseEntity<String> changed = exchange(HttpMethod.GET, "/users/role/EMPLOYEE", token, etag);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+        exchange(HttpMethod.PUT, "/users/4/activate", token, null);
+    }
+
+    @Test
+    public void testAuthorizationRunsBeforeTheValidator() {
+        String etag = exchange(HttpMethod.GET, "/users", token, null).getHeaders().getETag();
+
+        ResponseEntity<String> anonymous = exchange(HttpMethod.GET, "/users", null, etag);
+        assertNotEquals(HttpStatus.NOT_MODIFIED, anonymous.getStatusCode());
+        assertTrue(anonymous.getStatusCode().is4xxClientError());
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String path, String bearer, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        if (bearer != null) {
+            headers.setBearerAuth(bearer);
+        }
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        return restTemplate.exchange(path, method, new HttpEntity<>(headers), String.class);
+    }
+}
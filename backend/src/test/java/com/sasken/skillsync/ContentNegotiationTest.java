@@ -0,0 +1,135 @@
+package com.sasken.skillsync;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.Progress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "rate-limit.enabled=false")
+@DirtiesContext
+public class ContentNegotiationTest {
+
+    private static final int ROWS = 2000;
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    private String token;
+
+    @BeforeEach
+    public void login() {
+        JsonNode login = restTemplate.postForObject("/auth/login",
+                Map.of("email", "admin@sasken.com", "password", "admin123"), JsonNode.class);
+        token = login.get("token").asText();
+    }
+
+    @Test
+    public void testBinaryFormatsCarryTheJsonDocument() throws Exception {
+        ResponseEntity<byte[]> json = get("/users", MediaType.APPLICATION_JSON);
+        ResponseEntity<byte[]> cbor = get("/users", MediaType.APPLICATION_CBOR);
+        ResponseEntity<byte[]> smile = get("/users", MediaType.valueOf("application/x-jackson-smile"));
+
+        assertEquals(HttpStatus.OK, cbor.getStatusCode());
+        assertTrue(MediaType.APPLICATION_CBOR.isCompatibleWith(cbor.getHeaders().getContentType()));
+        JsonNode expected = objectMapper.readTree(json.getBody());
+        assertEquals(expected, cborConverter.getObjectMapper().readTree(cbor.getBody()));
+        assertEquals(expected, smileConverter.getObjectMapper().readTree(smile.getBody()));
+
+        ResponseEntity<byte[]> any = get("/users", MediaType.ALL);
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(any.getHeaders().getContentType()));
+    }
+
+    @Test
+    public void testSerializationThroughput() throws Exception {
+        List<Enrollment> enrollments = new ArrayList<>();
+        List<Progress> progress = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setId((long) i);
+            enrollment.setStatus(Enrollment.EnrollmentStatus.IN_PROGRESS);
+            enrollment.setType(Enrollment.EnrollmentType.SELF_ENROLLED);
+            enrollment.setEnrolledAt(now.minusDays(i % 90));
+            enrollment.setStartedAt(now.minusDays(i % 60));
+            enrollment.setLastAccessedAt(now.minusHours(i % 48));
+            enrollment.setCompletionPercentage((i % 100) * 1.0);
+            enrollment.setTotalTimeSpent(i % 600);
+            enrollments.add(enrollment);
+
+            Progress row = new Progress();
+            row.setId((long) i);
+            row.setStatus(Progress.ProgressStatus.IN_PROGRESS);
+            row.setCompletionPercentage((i % 100) * 1.0);
+            row.setTimeSpentMinutes(i % 600);
+            row.setStartedAt(now.minusDays(i % 60));
+            row.setLastAccessedAt(now.minusHours(i % 48));
+            row.setCreatedAt(now.minusDays(i % 60));
+            row.setUpdatedAt(now.minusMinutes(i % 300));
+            progress.add(row);
+        }
+        List<Object> lists = List.of(enrollments, progress);
+
+        Map<String, ObjectMapper> formats = Map.of("json", objectMapper,
+                "cbor", cborConverter.getObjectMapper(), "smile", smileConverter.getObjectMapper());
+        for (String format : List.of("json", "cbor", "smile")) {
+            ObjectMapper mapper = formats.get(format);
+            int bytes = 0;
+            for (Object list : lists) {
+                bytes += mapper.writeValueAsBytes(list).length;
+            }
+            for (int round = 0; round < ROUNDS / 5; round++) {
+                for (Object list : lists) {
+                    mapper.writeValueAsBytes(list);
+                }
+            }
+            long start = System.nanoTime();
+            for (int round = 0; round < ROUNDS; round++) {
+                for (Object list : lists) {
+                    mapper.writeValueAsBytes(list);
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("Serialization benchmark: %-5s %,d bytes per round, %,.0f rows/s%n",
+                    format, bytes, ROUNDS * ROWS * 2 / seconds);
+        }
+    }
+
+    private ResponseEntity<byte[]> get(String path, MediaType accept) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        headers.setAccept(List.of(accept));
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import com.sasken.skillsync.repository.CertificateRepository;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.service.ConflictRetryExecutor;
+import com.sasken.skillsync.service.DashboardService;
+import com.sasken.skillsync.service.EmailNotificationSender;
+import com.sasken.skillsync.service.EnrollmentService;
+import com.sasken.skillsync.service.EntityReferenceIndex;
+import com.sasken.skillsync.service.NotificationService;
+import com.sasken.skillsync.service.ProgressService;
+import com.sasken.skillsync.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "dashboard.part-timeout-ms=300")
+@Import({DashboardService.class, UserService.class, EnrollmentService.class, ProgressService.class,
+        NotificationService.class, EmailNotificationSender.class, AsyncConfig.class, EntityReferenceIndex.class,
+        ConflictRetryExecutor.class, ChangeLogRepository.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class DashboardServiceTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @SpyBean
+    private CertificateRepository certificateRepository;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void testAllPartsAreGathered() {
+        DashboardService.Dashboard dashboard = dashboardService.getDashboard(4L);
+        Map<String, Object> parts = dashboard.getParts();
+
+        assertTrue(dashboard.getUnavailable().isEmpty(), () -> "Unavailable: " + dashboard.getUnavailable());
+        assertEquals(List.of("profile", "enrollments", "progressStats", "unreadCount", "recentNotifications", "certificates"),
+                List.copyOf(parts.keySet()));
+        assertEquals(4, ((List<?>) parts.get("enrollments")).size());
+        assertEquals(2, ((List<?>) parts.get("certificates")).size());
+        assertEquals(2L, ((Map<?, ?>) parts.get("progressStats")).get("completedCourses"));
+        assertTrue(dashboard.serverTiming().matches("profile;dur=[0-9.]+, enrollments;dur=.*certificates;dur=[0-9.]+"),
+                dashboard::serverTiming);
+    }
+
+    @Test
+    public void testSlowPartIsLeftOut() {
+        Mockito.doAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return invocation.callRealMethod();
+        }).when(certificateRepository).findByUserId(4L);
+
+        long start = System.nanoTime();
+        DashboardService.Dashboard dashboard = dashboardService.getDashboard(4L);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(List.of("certificates"), dashboard.getUnavailable());
+        assertFalse(dashboard.getParts().containsKey("certificates"));
+        assertEquals(4, ((List<?>) dashboard.getParts().get("enrollments")).size());
+        assertTrue(dashboard.serverTiming().contains("certificates;desc=\"timeout\""), dashboard::serverTiming);
+        assertTrue(elapsedMs < 1_500, "Dashboard waited " + elapsedMs + "ms for the slow part");
+    }
+
+    @Test
+    public void testLatePartDoesNotQueryPastItsTransactionTimeout() throws Exception {
+        CompletableFuture<Throwable> outcome = new CompletableFuture<>();
+        Mockito.doAnswer(invocation -> {
+            Thread.sleep(2_500);
+            try {
+                // Only user 4 is stubbed, so this is a real query in the part's transaction
+                List<?> result = certificateRepository.findByUserId(3L);
+                outcome.complete(null);
+                return result;
+            } catch (Throwable e) {
+                outcome.complete(e);
+                throw e;
+            }
+        }).when(certificateRepository).findByUserId(4L);
+
+        assertEquals(List.of("certificates"), dashboardService.getDashboard(4L).getUnavailable());
+        // The 300ms deadline becomes a two second transaction timeout
+        assertInstanceOf(TransactionTimedOutException.class, outcome.get(10, TimeUnit.SECONDS));
+    }
+}
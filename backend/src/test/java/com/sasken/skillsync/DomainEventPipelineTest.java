@@ -0,0 +1,213 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import com.sasken.skillsync.event.CertificateIssuingListener;
+import com.sasken.skillsync.event.DomainEvent;
+import com.sasken.skillsync.event.DomainEventDispatcher;
+import com.sasken.skillsync.event.DomainEventListener;
+import com.sasken.skillsync.event.EnrollmentCreatedEvent;
+import com.sasken.skillsync.event.NotificationEventListener;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.UserRepository;
+import com.sasken.skillsync.service.ConflictRetryExecutor;
+import com.sasken.skillsync.service.EmailNotificationSender;
+import com.sasken.skillsync.service.EnrollmentService;
+import com.sasken.skillsync.service.EntityReferenceIndex;
+import com.sasken.skillsync.service.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({EnrollmentService.class, NotificationService.class, EmailNotificationSender.class, AsyncConfig.class,
+        EntityReferenceIndex.class, ConflictRetryExecutor.class, ChangeLogRepository.class, SimpleMeterRegistry.class,
+        DomainEventDispatcher.class, NotificationEventListener.class, CertificateIssuingListener.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class DomainEventPipelineTest {
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testNotificationFollowsCommittedEnrollmentOnly() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // Rolled back: the enrollment never existed, so nobody may hear about it
+        transaction.executeWithoutResult(status -> {
+            enrollmentService.createEnrollment(2L, 11L, Enrollment.EnrollmentType.OPTIONAL, null);
+            status.setRollbackOnly();
+        });
+
+        Enrollment enrollment = enrollmentService.createEnrollment(2L, 12L, Enrollment.EnrollmentType.OPTIONAL, null);
+        await(() -> hasEnrollmentNotification(12L));
+
+        assertEquals(12L, enrollment.getCourse().getId());
+        assertFalse(hasEnrollmentNotification(11L));
+    }
+
+    @Test
+    public void testEventsForOneUserArriveInOrder() throws Exception {
+        Map<Long, List<Long>> seen = new ConcurrentHashMap<>();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        DomainEventListener recorder = new DomainEventListener() {
+            @Override
+            public String name() {
+                return "recorder";
+            }
+
+            @Override
+            public boolean supports(DomainEvent event) {
+                return true;
+            }
+
+            @Override
+            public void onEvent(DomainEvent event) {
+                EnrollmentCreatedEvent created = (EnrollmentCreatedEvent) event;
+                if (created.enrollmentId() % 97 == 0) {
+                    throw new IllegalStateException("Listener failure must not stall the lane");
+                }
+                seen.computeIfAbsent(created.userId(), k -> new CopyOnWriteArrayList<>()).add(created.enrollmentId());
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DomainEventDispatcher dispatcher = new DomainEventDispatcher(List.of(recorder), meterRegistry, transactionManager, 3, 10_000);
+
+        int users = 10;
+        int eventsPerUser = 500;
+        List<Thread> publishers = new ArrayList<>();
+        for (long user = 0; user < users; user++) {
+            long userId = user;
+            Thread publisher = new Thread(() -> {
+                for (long sequence = 1; sequence <= eventsPerUser; sequence++) {
+                    dispatcher.dispatch(new EnrollmentCreatedEvent(sequence, userId, 1L));
+                }
+            });
+            publisher.setUncaughtExceptionHandler((thread, e) -> failures.add(e));
+            publishers.add(publisher);
+            publisher.start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        dispatcher.shutdown();
+
+        assertTrue(failures.isEmpty(), () -> "Publisher failed: " + failures);
+        for (long userId = 0; userId < users; userId++) {
+            List<Long> sequences = seen.get(userId);
+            assertEquals(eventsPerUser - eventsPerUser / 97, sequences.size());
+            for (int i = 1; i < sequences.size(); i++) {
+                assertTrue(sequences.get(i - 1) < sequences.get(i), "Events for user " + userId + " out of order");
+            }
+        }
+        assertEquals(users * (eventsPerUser / 97),
+                meterRegistry.counter("skillsync.domain.events.listener.failures", "listener", "recorder").count(), 0.0);
+        assertEquals(users * eventsPerUser,
+                meterRegistry.timer("skillsync.domain.events.listener.lag", "listener", "recorder").count());
+    }
+
+    @Test
+    public void testOverflowedEventIsHandledInItsOwnTransaction() throws Exception {
+        CountDownLatch busy = new CountDownLatch(1);
+        TransactionTemplate listenerTransaction = new TransactionTemplate(transactionManager);
+        DomainEventListener writer = new DomainEventListener() {
+            @Override
+            public String name() {
+                return "writer";
+            }
+
+            @Override
+            public boolean supports(DomainEvent event) {
+                return true;
+            }
+
+            @Override
+            public void onEvent(DomainEvent event) {
+                EnrollmentCreatedEvent created = (EnrollmentCreatedEvent) event;
+                if (created.enrollmentId() == 1L) {
+                    try {
+                        busy.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return;
+                }
+                // Joins whatever transaction is active and relies on its flush, like the certificate listener does
+                listenerTransaction.executeWithoutResult(status ->
+                        userRepository.findById(3L).orElseThrow().setLastName("Overflow " + created.enrollmentId()));
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DomainEventDispatcher dispatcher = new DomainEventDispatcher(List.of(writer), meterRegistry, transactionManager, 1, 1);
+        String lastName = jdbcTemplate.queryForObject("SELECT last_name FROM users WHERE id = 3", String.class);
+        try {
+            // The first event occupies the only lane and the second fills its queue
+            dispatcher.dispatch(new EnrollmentCreatedEvent(1L, 3L, 1L));
+            dispatcher.dispatch(new EnrollmentCreatedEvent(2L, 3L, 1L));
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            dispatcher.dispatch(new EnrollmentCreatedEvent(3L, 3L, 1L));
+                        }
+                    }));
+
+            assertEquals(1, meterRegistry.counter("skillsync.domain.events.listener.overflows", "listener", "writer").count(), 0.0);
+            assertEquals("Overflow 3", jdbcTemplate.queryForObject("SELECT last_name FROM users WHERE id = 3", String.class));
+        } finally {
+            busy.countDown();
+            dispatcher.shutdown();
+            jdbcTemplate.update("UPDATE users SET last_name = ? WHERE id = 3", lastName);
+        }
+    }
+
+    // Counted in SQL because some seeded notifications cannot be loaded as entities
+    private boolean hasEnrollmentNotification(Long courseId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notifications WHERE user_id = 2 AND type = 'COURSE_ASSIGNMENT' AND related_entity_id = ?",
+                Integer.class, courseId);
+        return count != null && count > 0;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.service.EventRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int BATCHES_PER_PRODUCER = 50_000;
+    private static final int BATCH_SIZE = 10;
+
+    @Test
+    public void testBatchIsRejectedWholeWhenItDoesNotFit() {
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(6);
+        assertEquals(8, buffer.capacity());
+
+        assertTrue(buffer.offerAll(List.of(1, 2, 3, 4, 5)));
+        assertFalse(buffer.offerAll(List.of(6, 7, 8, 9)));
+        assertEquals(5, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, buffer.drain(drained::add, 2));
+        assertTrue(buffer.offerAll(List.of(6, 7, 8, 9, 10)));
+        buffer.drain(drained::add, Integer.MAX_VALUE);
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    // Producers retry when the buffer is full; every event must arrive exactly once and each
+    // producer's events must keep their order
+    @Test
+    public void testConcurrentProducersThroughput() throws Exception {
+        EventRingBuffer<long[]> buffer = new EventRingBuffer<>(4096);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> rejections = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+            rejections.add(executor.submit(() -> {
+                start.await();
+                long rejected = 0;
+                for (int b = 0; b < BATCHES_PER_PRODUCER; b++) {
+                    List<long[]> batch = new ArrayList<>(BATCH_SIZE);
+                    for (int i = 0; i < BATCH_SIZE; i++) {
+                        batch.add(new long[]{producer, (long) b * BATCH_SIZE + i});
+                    }
+                    while (!buffer.offerAll(batch)) {
+                        rejected++;
+                        Thread.yield();
+                    }
+                }
+                return rejected;
+            }));
+        }
+
+        long expected = (long) PRODUCERS * BATCHES_PER_PRODUCER * BATCH_SIZE;
+        long[] nextSequence = new long[PRODUCERS];
+        long received = 0;
+        long startNanos = System.nanoTime();
+        start.countDown();
+        try {
+            while (received < expected) {
+                int drained = buffer.drain(event -> {
+                    int producer = (int) event[0];
+                    assertEquals(nextSequence[producer], event[1]);
+                    nextSequence[producer]++;
+                }, 1024);
+                received += drained;
+                if (drained == 0) {
+                    Thread.yield();
+                }
+            }
+            long rejected = 0;
+            for (Future<Long> result : rejections) {
+                rejected += result.get();
+            }
+            double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+            System.out.printf("Ring buffer benchmark: %d events from %d producers in %.2fs (%.0f events/sec, %d full rejections)%n",
+                    received, PRODUCERS, seconds, received / seconds, rejected);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(expected, received);
+        assertEquals(0, buffer.size());
+    }
+}
@@ -0,0 +1,119 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares request handling on a Tomcat-sized platform pool with one virtual thread per request.
+ * Each simulated request waits on a remote call (as SMTP or an external API would) and then runs
+ * a query; the connection pool is the same size in both modes. Both executors are built by
+ * AsyncConfig, so the virtual case goes through the same switch the application uses.
+ */
+public class ExecutionModeBenchmarkTest {
+
+    private static final int REQUESTS = 2000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int CONNECTIONS = 10;
+    private static final long REMOTE_CALL_MS = 20;
+
+    private HikariDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:execution-mode;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(CONNECTIONS);
+        dataSource.setConnectionTimeout(30_000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    public void testPlatformThreadMode() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("async.executors.dashboard.core-size", String.valueOf(PLATFORM_THREADS))
+                .withProperty("async.executors.dashboard.max-size", String.valueOf(PLATFORM_THREADS))
+                .withProperty("async.executors.dashboard.queue-capacity", String.valueOf(REQUESTS));
+        run(PLATFORM_THREADS + " platform threads", environment);
+    }
+
+    @Test
+    public void testVirtualThreadMode() throws Exception {
+        assumeTrue(JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE),
+                "Virtual threads need JDK 21+");
+        run("virtual threads", new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true"));
+    }
+
+    private void run(String mode, MockEnvironment environment) throws Exception {
+        AsyncTaskExecutor executor = new AsyncConfig(environment, new SimpleMeterRegistry()).dashboardExecutor();
+        if (executor instanceof InitializingBean pool) {
+            pool.afterPropertiesSet();
+        }
+        try {
+            run(mode, executor);
+        } finally {
+            if (executor instanceof DisposableBean pool) {
+                pool.destroy();
+            } else if (executor instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void run(String mode, AsyncTaskExecutor executor) throws Exception {
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        AtomicInteger succeeded = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            executor.execute(() -> {
+                try {
+                    handleRequest();
+                    succeeded.incrementAndGet();
+                } catch (Exception e) {
+                    // Counted as missing below
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(120, TimeUnit.SECONDS), "Requests did not finish in time");
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Execution mode benchmark (%s): %d requests in %.2fs (%.0f requests/sec, %d connections)%n",
+                mode, REQUESTS, seconds, REQUESTS / seconds, CONNECTIONS);
+
+        assertEquals(REQUESTS, succeeded.get());
+    }
+
+    private void handleRequest() throws Exception {
+        Thread.sleep(REMOTE_CALL_MS);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT 1")) {
+            resultSet.next();
+        }
+    }
+}
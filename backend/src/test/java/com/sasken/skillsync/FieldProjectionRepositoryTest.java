@@ -0,0 +1,113 @@
+package com.sasken.skillsync;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sasken.skillsync.exception.BadRequestException;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.Notification;
+import com.sasken.skillsync.model.Progress;
+import com.sasken.skillsync.model.User;
+import com.sasken.skillsync.repository.FieldProjectionRepository;
+import com.sasken.skillsync.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import(FieldProjectionRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class FieldProjectionRepositoryTest {
+
+    private static final int NOTIFICATIONS = 500;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private FieldProjectionRepository fieldProjectionRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testOnlyRequestedFieldsAreReturned() {
+        List<Map<String, Object>> trainers = fieldProjectionRepository.findFields(User.class, "email, active",
+                (root, query, cb) -> cb.equal(root.get("role"), User.UserRole.TRAINER), Sort.by("id"));
+
+        assertEquals(List.of(Map.of("id", 3L, "email", "trainer@sasken.com", "active", true)), trainers);
+        assertEquals(List.of("id", "email", "active"), List.copyOf(trainers.get(0).keySet()));
+
+        List<Map<String, Object>> enrollments = fieldProjectionRepository.findFields(
+                Enrollment.class, "courseId,status",
+                (root, query, cb) -> cb.equal(root.get("user").get("id"), 4L), Sort.by("id"));
+        assertEquals(4, enrollments.size());
+        assertEquals(1L, enrollments.get(0).get("courseId"));
+
+        List<Map<String, Object>> progress = fieldProjectionRepository.findFields(
+                Progress.class, "userId,timeSpentMinutes",
+                (root, query, cb) -> cb.equal(root.get("course").get("id"), 3L), Sort.by("id"));
+        assertEquals(1, progress.size());
+        assertEquals(4L, progress.get(0).get("userId"));
+        assertEquals(600, progress.get(0).get("timeSpentMinutes"));
+    }
+
+    @Test
+    public void testHiddenAndUnknownFieldsAreRejected() {
+        assertThrows(BadRequestException.class,
+                () -> fieldProjectionRepository.findFields(User.class, "email,password", null, null));
+        assertThrows(BadRequestException.class,
+                () -> fieldProjectionRepository.findFields(User.class, "enrollments", null, null));
+        assertThrows(BadRequestException.class,
+                () -> fieldProjectionRepository.findFields(User.class, "nope", null, null));
+    }
+
+    @Test
+    public void testPayloadSize() throws Exception {
+        String message = "x".repeat(1000);
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            jdbcTemplate.update("INSERT INTO notifications (user_id, title, message, type, priority, status, sent_at, is_read, email_sent) "
+                    + "VALUES (3, ?, ?, 'COURSE_REMINDER', 'LOW', 'SENT', NOW(), false, false)", "Reminder " + i, message);
+        }
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .addMixIn(Notification.class, IgnoreUser.class);
+
+        byte[] full = new byte[0];
+        byte[] sparse = new byte[0];
+        long fullNanos = 0;
+        long sparseNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            full = objectMapper.writeValueAsBytes(notificationRepository.findByUserIdOrderBySentAtDesc(3L));
+            fullNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            sparse = objectMapper.writeValueAsBytes(fieldProjectionRepository.findFields(Notification.class, "title,read",
+                    (root, query, cb) -> cb.equal(root.get("user").get("id"), 3L), Sort.by(Sort.Direction.DESC, "sentAt")));
+            sparseNanos += System.nanoTime() - start;
+        }
+        System.out.printf("Sparse fieldset benchmark: %d notifications, full %d bytes in %.2fms, fields=title,read %d bytes in %.2fms%n",
+                NOTIFICATIONS, full.length, fullNanos / ROUNDS / 1_000_000.0, sparse.length, sparseNanos / ROUNDS / 1_000_000.0);
+
+        assertTrue(sparse.length * 5 < full.length, "Sparse payload is not meaningfully smaller");
+    }
+
+    @JsonIgnoreProperties({"user", "hibernateLazyInitializer"})
+    private abstract static class IgnoreUser {
+    }
+}
@@ -0,0 +1,120 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.Progress;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.EnrollmentRepository;
+import com.sasken.skillsync.repository.ProgressRepository;
+import com.sasken.skillsync.service.HeartbeatAggregator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Import({HeartbeatAggregator.class, ChangeLogRepository.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class HeartbeatAggregatorTest {
+
+    private static final int THREADS = 8;
+    private static final int HEARTBEATS_PER_THREAD = 500;
+
+    @Autowired
+    private HeartbeatAggregator heartbeatAggregator;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testConcurrentHeartbeatsAreFlushedIntoProgressAndEnrollment() throws Exception {
+        Progress progressBefore = progressRepository.findByUserIdAndCourseId(4L, 3L).orElseThrow();
+        Enrollment enrollmentBefore = enrollmentRepository.findByUserIdAndCourseId(4L, 3L).orElseThrow();
+        double flushedBefore = meterRegistry.counter("skillsync.heartbeat.minutes.flushed").count();
+
+        // Flushes run alongside the heartbeats so drains race with adds and evictions
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < HEARTBEATS_PER_THREAD; j++) {
+                        heartbeatAggregator.record(4L, 3L, 1);
+                    }
+                    return null;
+                }));
+            }
+            Future<?> flusher = executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 20; j++) {
+                    heartbeatAggregator.flush();
+                }
+                return null;
+            });
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+            flusher.get();
+        } finally {
+            executor.shutdown();
+        }
+        heartbeatAggregator.flush();
+
+        int expected = THREADS * HEARTBEATS_PER_THREAD;
+        Progress progressAfter = progressRepository.findByUserIdAndCourseId(4L, 3L).orElseThrow();
+        Enrollment enrollmentAfter = enrollmentRepository.findByUserIdAndCourseId(4L, 3L).orElseThrow();
+        assertEquals(progressBefore.getTimeSpentMinutes() + expected, progressAfter.getTimeSpentMinutes());
+        // Seeded enrollments have no total yet; the flush treats that as zero
+        int enrollmentMinutesBefore = enrollmentBefore.getTotalTimeSpent() != null ? enrollmentBefore.getTotalTimeSpent() : 0;
+        assertEquals(enrollmentMinutesBefore + expected, enrollmentAfter.getTotalTimeSpent());
+        assertEquals(flushedBefore + expected, meterRegistry.counter("skillsync.heartbeat.minutes.flushed").count(), 0.0);
+    }
+
+    @Test
+    public void testHeartbeatsWithoutProgressRowStartProgress() {
+        Enrollment enrollmentBefore = enrollmentRepository.findByUserIdAndCourseId(3L, 2L).orElseThrow();
+        int enrollmentMinutesBefore = enrollmentBefore.getTotalTimeSpent() != null ? enrollmentBefore.getTotalTimeSpent() : 0;
+
+        heartbeatAggregator.record(3L, 2L, 7);
+        heartbeatAggregator.flush();
+
+        Progress started = progressRepository.findByUserIdAndCourseId(3L, 2L).orElseThrow();
+        assertEquals(7, started.getTimeSpentMinutes());
+        assertEquals(enrollmentMinutesBefore + 7,
+                enrollmentRepository.findByUserIdAndCourseId(3L, 2L).orElseThrow().getTotalTimeSpent());
+    }
+
+    @Test
+    public void testHeartbeatsForMissingCourseAreCountedAsUnmatched() {
+        heartbeatAggregator.record(4L, 999L, 5);
+        heartbeatAggregator.flush();
+        assertEquals(1, meterRegistry.counter("skillsync.heartbeat.unmatched").count(), 0.0);
+
+        // The drained key is evicted by the next flush that finds it idle
+        heartbeatAggregator.flush();
+        assertEquals(0, meterRegistry.get("skillsync.heartbeat.pending.keys").gauge().value(), 0.0);
+    }
+}
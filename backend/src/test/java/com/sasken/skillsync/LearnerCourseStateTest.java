@@ -0,0 +1,97 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.exception.ResourceNotFoundException;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.Progress;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.EnrollmentRepository;
+import com.sasken.skillsync.repository.ProgressRepository;
+import com.sasken.skillsync.service.ConflictRetryExecutor;
+import com.sasken.skillsync.service.EntityReferenceIndex;
+import com.sasken.skillsync.service.ProgressService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ProgressService.class, EntityReferenceIndex.class, ConflictRetryExecutor.class, ChangeLogRepository.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class LearnerCourseStateTest {
+
+    private static final int WARMUP = 100;
+    private static final int UPDATES = 1000;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Test
+    public void testEveryPercentageUpdateMovesTheEnrollmentWithIt() {
+        progressService.createOrUpdateProgress(4L, 3L, 60.0, null, null, null, null);
+        assertInStep(4L, 3L, 60.0, Enrollment.EnrollmentStatus.IN_PROGRESS);
+
+        progressService.updateCompletionPercentage(4L, 3L, 75.0);
+        assertInStep(4L, 3L, 75.0, Enrollment.EnrollmentStatus.IN_PROGRESS);
+
+        progressService.updateProgressPercentage(4L, 3L, 100.0);
+        assertInStep(4L, 3L, 100.0, Enrollment.EnrollmentStatus.COMPLETED);
+        assertNotNull(enrollmentRepository.findByUserIdAndCourseId(4L, 3L).orElseThrow().getCompletedAt());
+
+        // A completed enrollment is never moved back
+        progressService.updateCompletionPercentage(4L, 3L, 90.0);
+        assertInStep(4L, 3L, 90.0, Enrollment.EnrollmentStatus.COMPLETED);
+    }
+
+    @Test
+    public void testCompletionPercentageUpdateNeedsExistingProgress() {
+        assertThrows(ResourceNotFoundException.class, () -> progressService.updateCompletionPercentage(3L, 9L, 50.0));
+        assertTrue(progressRepository.findByUserIdAndCourseId(3L, 9L).isEmpty());
+    }
+
+    @Test
+    public void testUpdateLatency() {
+        for (int i = 0; i < WARMUP; i++) {
+            progressService.updateProgressPercentage(3L, 2L, (double) (i % 99));
+        }
+
+        long[] nanos = new long[UPDATES];
+        for (int i = 0; i < UPDATES; i++) {
+            long start = System.nanoTime();
+            progressService.updateProgressPercentage(3L, 2L, (double) (i % 99) + 1);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("Learner-course update benchmark: %d updates, mean %.3fms, p50 %.3fms, p99 %.3fms%n",
+                UPDATES, Arrays.stream(nanos).average().orElse(0) / 1_000_000.0,
+                nanos[UPDATES / 2] / 1_000_000.0, nanos[UPDATES * 99 / 100] / 1_000_000.0);
+
+        assertInStep(3L, 2L, (double) ((UPDATES - 1) % 99) + 1, Enrollment.EnrollmentStatus.IN_PROGRESS);
+    }
+
+    private void assertInStep(Long userId, Long courseId, double percentage, Enrollment.EnrollmentStatus status) {
+        Progress progress = progressRepository.findByUserIdAndCourseId(userId, courseId).orElseThrow();
+        Enrollment enrollment = enrollmentRepository.findByUserIdAndCourseId(userId, courseId).orElseThrow();
+        assertEquals(percentage, progress.getCompletionPercentage());
+        assertEquals(percentage, enrollment.getCompletionPercentage());
+        assertEquals(status, enrollment.getStatus());
+    }
+}
@@ -0,0 +1,212 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import com.sasken.skillsync.dto.LearningEvent;
+import com.sasken.skillsync.event.CertificateIssuingListener;
+import com.sasken.skillsync.event.DomainEventDispatcher;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.Progress;
+import com.sasken.skillsync.repository.CertificateRepository;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.EnrollmentRepository;
+import com.sasken.skillsync.repository.ProgressRepository;
+import com.sasken.skillsync.service.ConflictRetryExecutor;
+import com.sasken.skillsync.service.EmailNotificationSender;
+import com.sasken.skillsync.service.EnrollmentService;
+import com.sasken.skillsync.service.EntityReferenceIndex;
+import com.sasken.skillsync.service.LearningEventWriter;
+import com.sasken.skillsync.service.NotificationService;
+import com.sasken.skillsync.service.ProgressService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"progress.events.capacity=1024", "progress.events.batch-size=200"})
+@Import({LearningEventWriter.class, ProgressService.class, EnrollmentService.class, NotificationService.class,
+        EmailNotificationSender.class, AsyncConfig.class, EntityReferenceIndex.class, ConflictRetryExecutor.class,
+        ChangeLogRepository.class, SimpleMeterRegistry.class, DomainEventDispatcher.class,
+        CertificateIssuingListener.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class LearningEventWriterTest {
+
+    private static final int BENCHMARK_EVENTS = 50_000;
+
+    @Autowired
+    private LearningEventWriter learningEventWriter;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private CertificateRepository certificateRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private ConflictRetryExecutor conflictRetryExecutor;
+
+    @Test
+    public void testMixedEventsAreFoldedIntoProgressAndEnrollment() throws Exception {
+        int minutesBefore = progressRepository.findByUserIdAndCourseId(4L, 2L).orElseThrow().getTimeSpentMinutes();
+
+        List<LearningEvent> events = new ArrayList<>();
+        events.add(progress(4L, 2L, 40.0));
+        events.add(heartbeat(4L, 2L, 3));
+        events.add(quiz(4L, 2L, 8.0, 10.0));
+        events.add(progress(4L, 2L, 55.0));
+        events.add(heartbeat(4L, 2L, 2));
+        events.add(new LearningEvent(LearningEvent.EventType.COMPLETION, 4L, 4L));
+        submitAndAwait(events);
+
+        Progress progress = progressRepository.findByUserIdAndCourseId(4L, 2L).orElseThrow();
+        assertEquals(55.0, progress.getCompletionPercentage());
+        assertEquals(Progress.ProgressStatus.IN_PROGRESS, progress.getStatus());
+        assertEquals(minutesBefore + 5, progress.getTimeSpentMinutes());
+        assertEquals(8.0, progress.getQuizScore());
+
+        Enrollment enrollment = enrollmentRepository.findByUserIdAndCourseId(4L, 2L).orElseThrow();
+        assertEquals(55.0, enrollment.getCompletionPercentage());
+        // The seeded enrollment was already completed, and completed enrollments are never moved back
+        assertEquals(Enrollment.EnrollmentStatus.COMPLETED, enrollment.getStatus());
+
+        // Completion goes through the regular path, including the certificate issued after commit
+        assertEquals(Progress.ProgressStatus.COMPLETED,
+                progressRepository.findByUserIdAndCourseId(4L, 4L).orElseThrow().getStatus());
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (certificateRepository.findByUserIdAndCourseId(4L, 4L).isEmpty()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Certificate was not issued in time");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testFirstHeartbeatsStartProgressWithTheirMinutes() throws Exception {
+        // The trainer has no progress rows in the seed data
+        assertTrue(progressRepository.findByUserIdAndCourseId(3L, 9L).isEmpty());
+
+        submitAndAwait(List.of(heartbeat(3L, 9L, 4), heartbeat(3L, 9L, 3)));
+
+        Progress progress = progressRepository.findByUserIdAndCourseId(3L, 9L).orElseThrow();
+        assertEquals(7, progress.getTimeSpentMinutes());
+        assertEquals(Progress.ProgressStatus.NOT_STARTED, progress.getStatus());
+        progressRepository.delete(progress);
+    }
+
+    @Test
+    public void testBatchThatDoesNotFitIsRejected() {
+        List<LearningEvent> events = new ArrayList<>();
+        for (int i = 0; i < 2048; i++) {
+            events.add(heartbeat(4L, 1L, 1));
+        }
+        double rejectedBefore = meterRegistry.counter("skillsync.events.rejected").count();
+
+        assertFalse(learningEventWriter.submit(events));
+        assertEquals(rejectedBefore + events.size(), meterRegistry.counter("skillsync.events.rejected").count(), 0.0);
+    }
+
+    @Test
+    public void testEventsAcceptedBeforeStopAreAppliedAndLaterOnesRejected() throws Exception {
+        // A writer of its own, so stopping it leaves the shared one running
+        LearningEventWriter writer = new LearningEventWriter(progressRepository, enrollmentRepository,
+                changeLogRepository, progressService, conflictRetryExecutor, meterRegistry, 64, 8);
+        writer.start();
+        int minutesBefore = progressRepository.findByUserIdAndCourseId(4L, 6L).orElseThrow().getTimeSpentMinutes();
+
+        assertTrue(writer.submit(List.of(heartbeat(4L, 6L, 2), heartbeat(4L, 6L, 3))));
+        writer.stop();
+        assertFalse(writer.submit(List.of(heartbeat(4L, 6L, 100))));
+
+        assertEquals(0, writer.getQueueDepth());
+        assertEquals(minutesBefore + 5, progressRepository.findByUserIdAndCourseId(4L, 6L).orElseThrow().getTimeSpentMinutes());
+    }
+
+    @Test
+    public void testIngestionThroughput() throws Exception {
+        int minutesBefore = progressRepository.findByUserIdAndCourseId(4L, 5L).orElseThrow().getTimeSpentMinutes();
+
+        List<LearningEvent> request = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            request.add(i % 10 == 0 ? progress(4L, 5L, i / 2.0) : heartbeat(4L, 5L, 1));
+        }
+        long heartbeatMinutes = request.stream().filter(e -> e.getType() == LearningEvent.EventType.HEARTBEAT).count();
+
+        double appliedBefore = appliedCount();
+        long start = System.nanoTime();
+        long rejected = 0;
+        for (int submitted = 0; submitted < BENCHMARK_EVENTS; submitted += request.size()) {
+            while (!learningEventWriter.submit(request)) {
+                rejected++;
+                Thread.sleep(1);
+            }
+        }
+        awaitApplied(appliedBefore + BENCHMARK_EVENTS);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Event ingestion benchmark: %d events applied in %.2fs (%.0f events/sec, %.0f batches, %d full rejections)%n",
+                BENCHMARK_EVENTS, seconds, BENCHMARK_EVENTS / seconds,
+                (double) meterRegistry.summary("skillsync.events.batch.size").count(), rejected);
+
+        long expectedMinutes = minutesBefore + heartbeatMinutes * (BENCHMARK_EVENTS / request.size());
+        assertEquals(expectedMinutes, (long) progressRepository.findByUserIdAndCourseId(4L, 5L).orElseThrow().getTimeSpentMinutes());
+    }
+
+    private void submitAndAwait(List<LearningEvent> events) throws InterruptedException {
+        double target = appliedCount() + events.size();
+        assertTrue(learningEventWriter.submit(events));
+        awaitApplied(target);
+    }
+
+    private void awaitApplied(double target) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (appliedCount() < target) {
+            assertTrue(System.currentTimeMillis() < deadline, "Events were not applied in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private double appliedCount() {
+        return meterRegistry.counter("skillsync.events.applied").count();
+    }
+
+    private static LearningEvent progress(Long userId, Long courseId, double percentage) {
+        LearningEvent event = new LearningEvent(LearningEvent.EventType.PROGRESS, userId, courseId);
+        event.setCompletionPercentage(percentage);
+        return event;
+    }
+
+    private static LearningEvent heartbeat(Long userId, Long courseId, int minutes) {
+        LearningEvent event = new LearningEvent(LearningEvent.EventType.HEARTBEAT, userId, courseId);
+        event.setMinutes(minutes);
+        return event;
+    }
+
+    private static LearningEvent quiz(Long userId, Long courseId, double score, double maxScore) {
+        LearningEvent event = new LearningEvent(LearningEvent.EventType.QUIZ, userId, courseId);
+        event.setScore(score);
+        event.setMaxScore(maxScore);
+        return event;
+    }
+}
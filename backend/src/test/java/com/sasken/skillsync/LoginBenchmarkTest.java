@@ -0,0 +1,88 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.controller.AuthController;
+import com.sasken.skillsync.dto.UserDto;
+import com.sasken.skillsync.model.User;
+import com.sasken.skillsync.repository.UserRepository;
+import com.sasken.skillsync.security.CustomUserDetailsService;
+import com.sasken.skillsync.security.JwtTokenProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LoginBenchmarkTest {
+
+    private static final int BCRYPT_COST = 6;
+    private static final int LOGINS = 100;
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testLoginLoadsUserOnce() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(BCRYPT_COST);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        User user = new User("Admin", "User", "admin@sasken.com", encoder.encode("admin123"),
+                User.UserRole.ADMIN, "IT", "EMP001");
+        user.setId(1L);
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail("admin@sasken.com")).thenReturn(Optional.of(user));
+
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService();
+        ReflectionTestUtils.setField(userDetailsService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userDetailsService, "meterRegistry", meterRegistry);
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(encoder);
+
+        JwtTokenProvider tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "skillsyncSecretKey2024SaskenTrainingTrackerApplication");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 86400000);
+
+        AuthController authController = new AuthController();
+        ReflectionTestUtils.setField(authController, "authenticationManager", new ProviderManager(provider));
+        ReflectionTestUtils.setField(authController, "userRepository", userRepository);
+        ReflectionTestUtils.setField(authController, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(authController, "meterRegistry", meterRegistry);
+
+        AuthController.LoginRequest request = new AuthController.LoginRequest();
+        request.setEmail("admin@sasken.com");
+        request.setPassword("admin123");
+
+        long start = System.nanoTime();
+        ResponseEntity<?> response = null;
+        for (int i = 0; i < LOGINS; i++) {
+            response = authController.authenticateUser(request);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Login benchmark: %d logins at BCrypt cost %d in %.2fs (%.1f logins/sec)%n",
+                LOGINS, BCRYPT_COST, seconds, LOGINS / seconds);
+
+        Map<?, ?> body = (Map<?, ?>) response.getBody();
+        assertEquals(1L, ((UserDto) body.get("user")).getId());
+        verify(userRepository, times(LOGINS)).findByEmail("admin@sasken.com");
+        verify(userRepository, never()).findById(any());
+    }
+}
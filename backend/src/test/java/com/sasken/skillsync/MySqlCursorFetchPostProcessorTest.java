@@ -0,0 +1,37 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.config.MySqlCursorFetchPostProcessor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class MySqlCursorFetchPostProcessorTest {
+
+    private final MySqlCursorFetchPostProcessor postProcessor = new MySqlCursorFetchPostProcessor();
+
+    @Test
+    public void testOnlyMySqlPoolsWithoutAnExplicitSettingGetCursorFetch() {
+        // The pools are never started, so no database is needed
+        try (HikariDataSource mysql = pool("jdbc:mysql://localhost:3306/skillsync_db");
+             HikariDataSource explicit = pool("jdbc:mysql://localhost:3306/skillsync_db");
+             HikariDataSource h2 = pool("jdbc:h2:mem:cursor_fetch")) {
+            explicit.addDataSourceProperty("useCursorFetch", "false");
+
+            postProcessor.postProcessAfterInitialization(mysql, "dataSource");
+            postProcessor.postProcessAfterInitialization(explicit, "primaryDataSource");
+            postProcessor.postProcessAfterInitialization(h2, "replicaDataSource");
+
+            assertEquals("true", mysql.getDataSourceProperties().getProperty("useCursorFetch"));
+            assertEquals("false", explicit.getDataSourceProperties().getProperty("useCursorFetch"));
+            assertFalse(h2.getDataSourceProperties().containsKey("useCursorFetch"));
+        }
+    }
+
+    private static HikariDataSource pool(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        return dataSource;
+    }
+}
@@ -0,0 +1,103 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import com.sasken.skillsync.model.Progress;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.ProgressRepository;
+import com.sasken.skillsync.service.ConflictRetryExecutor;
+import com.sasken.skillsync.service.EmailNotificationSender;
+import com.sasken.skillsync.service.EnrollmentService;
+import com.sasken.skillsync.service.EntityReferenceIndex;
+import com.sasken.skillsync.service.NotificationService;
+import com.sasken.skillsync.service.ProgressService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = "optimistic-retry.max-attempts=20")
+@Import({ProgressService.class, EnrollmentService.class, NotificationService.class, EmailNotificationSender.class,
+        AsyncConfig.class, EntityReferenceIndex.class, ConflictRetryExecutor.class, ChangeLogRepository.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class OptimisticRetryTest {
+
+    private static final int THREADS = 8;
+    private static final int MINUTES_PER_UPDATE = 10;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private ConflictRetryExecutor conflictRetryExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testConcurrentTimeSpentIncrementsAreNotLost() throws Exception {
+        int before = progressRepository.findByUserIdAndCourseId(4L, 3L).orElseThrow().getTimeSpentMinutes();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Progress>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return progressService.updateTimeSpent(4L, 3L, MINUTES_PER_UPDATE);
+                }));
+            }
+            start.countDown();
+            for (Future<Progress> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int after = progressRepository.findByUserIdAndCourseId(4L, 3L).orElseThrow().getTimeSpentMinutes();
+        assertEquals(before + THREADS * MINUTES_PER_UPDATE, after);
+    }
+
+    @Test
+    public void testConflictsAreRetriedThenSurfacedWhenBudgetIsSpent() {
+        AtomicInteger calls = new AtomicInteger();
+        String result = conflictRetryExecutor.execute("test.flaky", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Progress.class, 1L);
+            }
+            return "done";
+        });
+        assertEquals("done", result);
+        assertEquals(2.0, meterRegistry.counter("skillsync.optimistic.conflicts", "operation", "test.flaky").count());
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> conflictRetryExecutor.execute("test.hot", () -> {
+            throw new ObjectOptimisticLockingFailureException(Progress.class, 1L);
+        }));
+        assertEquals(20.0, meterRegistry.counter("skillsync.optimistic.conflicts", "operation", "test.hot").count());
+        assertEquals(1.0, meterRegistry.counter("skillsync.optimistic.executions",
+                "operation", "test.hot", "outcome", "exhausted").count());
+    }
+}
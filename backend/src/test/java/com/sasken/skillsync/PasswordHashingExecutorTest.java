@@ -0,0 +1,71 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.exception.PasswordHashingRejectedException;
+import com.sasken.skillsync.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PasswordHashingExecutorTest {
+
+    @Test
+    public void testVerificationsRunBeforeQueuedEncodes() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 10, 1000, new SimpleMeterRegistry());
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        CountDownLatch blocker = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        try {
+            // Occupy the single hashing thread so the following tasks queue up
+            callers.submit(() -> executor.execute(PasswordHashingExecutor.Priority.ENCODE, () -> {
+                blocker.await();
+                return null;
+            }));
+            Thread.sleep(100);
+
+            callers.submit(() -> executor.execute(PasswordHashingExecutor.Priority.ENCODE, () -> order.add("encode")));
+            Thread.sleep(50);
+            callers.submit(() -> executor.execute(PasswordHashingExecutor.Priority.VERIFY, () -> order.add("verify")));
+            Thread.sleep(50);
+
+            blocker.countDown();
+            callers.shutdown();
+            callers.awaitTermination(5, TimeUnit.SECONDS);
+
+            assertEquals(List.of("verify", "encode"), order);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 0, 50, new SimpleMeterRegistry());
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        CountDownLatch blocker = new CountDownLatch(1);
+
+        try {
+            callers.submit(() -> executor.execute(PasswordHashingExecutor.Priority.VERIFY, () -> {
+                blocker.await();
+                return null;
+            }));
+            Thread.sleep(100);
+
+            assertThrows(PasswordHashingRejectedException.class,
+                    () -> executor.execute(PasswordHashingExecutor.Priority.VERIFY, () -> true));
+        } finally {
+            blocker.countDown();
+            callers.shutdown();
+            executor.shutdown();
+        }
+    }
+}
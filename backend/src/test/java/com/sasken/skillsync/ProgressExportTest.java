@@ -0,0 +1,122 @@
+package com.sasken.skillsync;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sasken.skillsync.service.ExportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs in its own surefire execution with a small heap (see pom.xml). The table lives in a file
+ * database so that the rows themselves do not count against that heap.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:file:./target/progress-export-test;CACHE_SIZE=8192")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ExportService.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class ProgressExportTest {
+
+    private static final int ROWS = Integer.getInteger("export.test.rows", 1_000_000);
+    private static final int CHUNK = 100_000;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testExportStreamsWithFlatHeap() throws Exception {
+        ByteArrayOutputStream seeded = new ByteArrayOutputStream();
+        exportService.exportProgress(seeded);
+        JsonNode rows = objectMapper.readTree(seeded.toByteArray());
+        int seededRows = rows.size();
+        assertEquals(4L, rows.get(0).get("userId").asLong());
+        assertTrue(rows.get(0).get("lastAccessedAt").isTextual());
+
+        // Users 1000+ do not exist; the export only reads the foreign key
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        for (int from = 1; from <= ROWS; from += CHUNK) {
+            jdbcTemplate.update("INSERT INTO progress (user_id, course_id, status, completion_percentage, time_spent_minutes, "
+                    + "started_at, last_accessed_at, created_at, updated_at, version) "
+                    + "SELECT X + 1000, 1, 'IN_PROGRESS', MOD(X, 100), MOD(X, 600), NOW(), NOW(), NOW(), NOW(), 0 "
+                    + "FROM SYSTEM_RANGE(?, ?)", from, Math.min(ROWS, from + CHUNK - 1));
+        }
+
+        long baseline = retainedHeap();
+        SamplingOutputStream out = new SamplingOutputStream();
+        long start = System.nanoTime();
+        long exported = exportService.exportProgress(out);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("Streaming export: %,d rows, %,d bytes in %.1fs, max heap %dMB, retained growth %dMB, "
+                        + "max managed entities %d%n", exported, out.bytes, seconds,
+                Runtime.getRuntime().maxMemory() >> 20, (out.maxRetainedHeap - baseline) >> 20, out.maxManagedEntities);
+        assertEquals(seededRows + ROWS, exported);
+        assertTrue(out.maxManagedEntities <= 1000, "Persistence context grew to " + out.maxManagedEntities);
+        assertTrue(out.maxRetainedHeap - baseline < 32L << 20, "Heap grew with the row count");
+    }
+
+    private static long retainedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Discards the export, sampling the persistence context on every flush and the heap after
+     * every few megabytes. Writes happen on the exporting thread, inside its transaction.
+     */
+    private class SamplingOutputStream extends OutputStream {
+        private long bytes;
+        private long nextHeapSample = 16L << 20;
+        private long maxRetainedHeap;
+        private int maxManagedEntities;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+
+        @Override
+        public void flush() {
+            maxManagedEntities = Math.max(maxManagedEntities,
+                    entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+            if (bytes >= nextHeapSample) {
+                nextHeapSample += 16L << 20;
+                maxRetainedHeap = Math.max(maxRetainedHeap, retainedHeap());
+            }
+        }
+    }
+}
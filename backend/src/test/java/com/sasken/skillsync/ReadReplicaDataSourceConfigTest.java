@@ -0,0 +1,42 @@
+package com.sasken.skillsync;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Both pools point at the same in-memory database, so the replica sees the seeded rows
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica_config_db;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=7",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=jdbc:h2:mem:replica_config_db;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.hikari.maximum-pool-size=3"})
+@DirtiesContext
+public class ReadReplicaDataSourceConfigTest {
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @Test
+    public void testEachPoolBindsItsOwnHikariSettings() {
+        assertEquals(7, primaryDataSource.getMaximumPoolSize());
+        assertEquals(5000, primaryDataSource.getConnectionTimeout());
+        assertEquals("primary", primaryDataSource.getPoolName());
+
+        assertEquals(3, replicaDataSource.getMaximumPoolSize());
+        assertEquals("replica", replicaDataSource.getPoolName());
+        assertTrue(replicaDataSource.isReadOnly());
+    }
+}
@@ -0,0 +1,63 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.config.ReadReplicaDataSourceConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    public void setUp() {
+        // Two independent H2 instances in MySQL mode, each tagged with its own name
+        DataSource primary = h2("routing_primary");
+        DataSource replica = h2("routing_replica");
+        DataSource routing = ReadReplicaDataSourceConfig.routingDataSource(primary, replica);
+
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    public void testReadOnlyTransactionsUseReplica() {
+        assertEquals("routing_replica", readOnlyTransaction.execute(status -> whichDatabase()));
+    }
+
+    @Test
+    public void testReadWriteTransactionsUsePrimary() {
+        assertEquals("routing_primary", readWriteTransaction.execute(status -> whichDatabase()));
+    }
+
+    @Test
+    public void testNonTransactionalAccessUsesPrimary() {
+        assertEquals("routing_primary", whichDatabase());
+    }
+
+    private String whichDatabase() {
+        return jdbcTemplate.queryForObject("SELECT name FROM db_marker", String.class);
+    }
+
+    private DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE IF NOT EXISTS db_marker (name VARCHAR(50))");
+        template.execute("DELETE FROM db_marker");
+        template.update("INSERT INTO db_marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
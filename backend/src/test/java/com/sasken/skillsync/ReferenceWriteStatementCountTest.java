@@ -0,0 +1,165 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.Notification;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.CourseRepository;
+import com.sasken.skillsync.repository.UserRepository;
+import com.sasken.skillsync.service.ConflictRetryExecutor;
+import com.sasken.skillsync.service.EmailNotificationSender;
+import com.sasken.skillsync.service.EnrollmentService;
+import com.sasken.skillsync.service.EntityReferenceIndex;
+import com.sasken.skillsync.service.NotificationService;
+import com.sasken.skillsync.service.ProgressService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Counts the SQL each write path sends once the user and course are known, and checks none of it reads them back.
+// Statements are recorded at the connection so native JDBC writes are counted alongside Hibernate's.
+@DataJpaTest
+@Import({ProgressService.class, EnrollmentService.class, NotificationService.class, EmailNotificationSender.class,
+        AsyncConfig.class, EntityReferenceIndex.class, ConflictRetryExecutor.class, ChangeLogRepository.class,
+        SimpleMeterRegistry.class, ReferenceWriteStatementCountTest.StatementRecordingConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class ReferenceWriteStatementCountTest {
+
+    private static final Long USER_ID = 3L;
+    // Separate courses so the enrollment created by one test does not change the other's path
+    private static final Long PROGRESS_COURSE_ID = 7L;
+    private static final Long ENROLLMENT_COURSE_ID = 8L;
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+    private static final Pattern USER_OR_COURSE_READ = Pattern.compile("\\b(from|join)\\s+(users|courses)\\b");
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private EntityReferenceIndex entityReferenceIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        // Steady state: both ids already indexed and both rows in the second-level cache
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            entityReferenceIndex.userReference(USER_ID);
+            userRepository.findById(USER_ID);
+            for (Long courseId : List.of(PROGRESS_COURSE_ID, ENROLLMENT_COURSE_ID)) {
+                entityReferenceIndex.courseReference(courseId);
+                courseRepository.findById(courseId);
+            }
+        });
+        STATEMENTS.clear();
+    }
+
+    @Test
+    public void testCreateProgressIssuesNoUserOrCourseReads() {
+        progressService.createOrUpdateProgress(USER_ID, PROGRESS_COURSE_ID, 10.0, 15, null, null, "started");
+
+        // progress upsert, keyed enrollment update, change log lookups for both and the progress entry
+        // (no enrollment exists for this course), progress reload
+        assertStatements(6);
+    }
+
+    @Test
+    public void testCreateEnrollmentIssuesNoUserOrCourseReads() {
+        enrollmentService.createEnrollment(USER_ID, ENROLLMENT_COURSE_ID, Enrollment.EnrollmentType.OPTIONAL, null);
+
+        // capacity count, enrollment insert, change log lookup and entry, enrollment reload;
+        // the notification follows after commit
+        assertStatements(5);
+    }
+
+    @Test
+    public void testCreateNotificationIssuesNoUserOrCourseReads() {
+        notificationService.createNotification(USER_ID, "Reminder", "Please finish your course",
+                Notification.NotificationType.COURSE_REMINDER, Notification.NotificationPriority.LOW,
+                "COURSE", PROGRESS_COURSE_ID);
+
+        assertStatements(1);
+    }
+
+    private void assertStatements(int expected) {
+        List<String> statements = STATEMENTS;
+        assertEquals(expected, statements.size(), () -> "Unexpected statements: " + statements);
+        statements.forEach(sql -> assertTrue(!USER_OR_COURSE_READ.matcher(sql.toLowerCase()).find(),
+                () -> "Unexpected user or course read: " + sql));
+    }
+
+    @TestConfiguration
+    static class StatementRecordingConfig {
+
+        @Bean
+        static BeanPostProcessor statementRecordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new StatementRecordingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    static class StatementRecordingDataSource extends DelegatingDataSource {
+
+        StatementRecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") && args != null && args[0] instanceof String sql) {
+                            STATEMENTS.add(sql);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
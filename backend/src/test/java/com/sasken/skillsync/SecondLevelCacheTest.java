@@ -0,0 +1,113 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.model.Course;
+import com.sasken.skillsync.model.User;
+import com.sasken.skillsync.repository.CourseRepository;
+import com.sasken.skillsync.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Each step runs in its own transaction so reads go through the shared cache, not the persistence context
+@DataJpaTest
+@DirtiesContext
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    public void testCourseIsServedFromCacheAndRefreshedOnUpdate() {
+        transaction.execute(status -> courseRepository.findById(1L).orElseThrow());
+        statistics.clear();
+
+        transaction.execute(status -> courseRepository.findById(1L).orElseThrow());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("courses").getHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        transaction.executeWithoutResult(status -> {
+            Course course = courseRepository.findById(1L).orElseThrow();
+            course.setTitle("Renamed Course");
+        });
+
+        Course reloaded = transaction.execute(status -> courseRepository.findById(1L).orElseThrow());
+        assertEquals("Renamed Course", reloaded.getTitle());
+    }
+
+    @Test
+    public void testEmailLookupUsesNaturalIdCacheAndFollowsEmailChange() {
+        transaction.execute(status -> userRepository.findByEmail("employee@sasken.com").orElseThrow());
+        statistics.clear();
+
+        User user = transaction.execute(status -> userRepository.findByEmail("employee@sasken.com").orElseThrow());
+        assertEquals(1, statistics.getNaturalIdStatistics(User.class.getName()).getCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        transaction.executeWithoutResult(status -> {
+            User managed = userRepository.findById(user.getId()).orElseThrow();
+            managed.setEmail("renamed.employee@sasken.com");
+        });
+
+        Optional<User> byOldEmail = transaction.execute(status -> userRepository.findByEmail("employee@sasken.com"));
+        Optional<User> byNewEmail = transaction.execute(status -> userRepository.findByEmail("renamed.employee@sasken.com"));
+        assertFalse(byOldEmail.isPresent());
+        assertTrue(byNewEmail.isPresent());
+        assertEquals(user.getId(), byNewEmail.get().getId());
+    }
+
+    @Test
+    public void testCachedCourseQueryIsInvalidatedByInsert() {
+        int before = transaction.execute(status -> courseRepository.findActiveMandatoryCourses()).size();
+        statistics.clear();
+
+        transaction.execute(status -> courseRepository.findActiveMandatoryCourses());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        transaction.executeWithoutResult(status -> {
+            Course course = new Course();
+            course.setTitle("New Mandatory Course");
+            course.setCategory(Course.CourseCategory.COMPLIANCE);
+            course.setType(Course.CourseType.SELF_PACED);
+            course.setMandatory(true);
+            course.setActive(true);
+            courseRepository.save(course);
+        });
+
+        assertEquals(before + 1, transaction.execute(status -> courseRepository.findActiveMandatoryCourses()).size());
+    }
+}
@@ -0,0 +1,42 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.security.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTest {
+
+    @Test
+    public void testBurstThenThrottleThenRefill() {
+        AtomicLong clock = new AtomicLong(0);
+        TokenBucket bucket = new TokenBucket(3, 1.0, clock::get);
+
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+
+        long waitNanos = bucket.tryConsume();
+        assertTrue(waitNanos > 0, "Fourth request in the same instant should be throttled");
+        assertTrue(waitNanos <= TimeUnit.SECONDS.toNanos(1));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, bucket.tryConsume());
+        assertTrue(bucket.tryConsume() > 0);
+    }
+
+    @Test
+    public void testRefillIsCappedAtCapacity() {
+        AtomicLong clock = new AtomicLong(0);
+        TokenBucket bucket = new TokenBucket(2, 10.0, clock::get);
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        assertTrue(bucket.tryConsume() > 0);
+    }
+}
@@ -0,0 +1,193 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import com.sasken.skillsync.model.Course;
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.User;
+import com.sasken.skillsync.repository.ChangeLogEntityListener;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.CourseRepository;
+import com.sasken.skillsync.repository.CubeRepository;
+import com.sasken.skillsync.repository.EnrollmentRepository;
+import com.sasken.skillsync.repository.UserRepository;
+import com.sasken.skillsync.service.TrainingCube;
+import com.sasken.skillsync.service.TrainingCube.Dimension;
+import com.sasken.skillsync.service.TrainingCube.Fact;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Checks cube answers against the equivalent SQL counts, after seeding and after incremental changes.
+@DataJpaTest(properties = {"cube.refresh-interval-ms=3600000", "cube.rebuild-cron=-"})
+@Import({TrainingCube.class, CubeRepository.class, ChangeLogRepository.class, ChangeLogEntityListener.class,
+        AsyncConfig.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class TrainingCubeTest {
+
+    private static final int USERS = 2_000;
+    private static final int QUERIES = 1_000;
+
+    private static final String ENROLLMENTS =
+            "FROM enrollments f JOIN users u ON u.id = f.user_id JOIN courses c ON c.id = f.course_id ";
+
+    private static boolean seeded;
+
+    @Autowired
+    private TrainingCube trainingCube;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @BeforeEach
+    public void seed() {
+        if (seeded) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO users (first_name, last_name, email, password, role, department, employee_id, " +
+                "is_active, created_at, updated_at) " +
+                "SELECT 'Learner', X, CONCAT('learner', X, '@cube.test'), 'x', " +
+                "CASE WHEN MOD(X, 10) = 0 THEN 'MANAGER' ELSE 'EMPLOYEE' END, " +
+                "CASE MOD(X, 3) WHEN 0 THEN 'Engineering' WHEN 1 THEN 'Sales' ELSE 'Finance' END, " +
+                "CONCAT('CU', X), true, NOW(), NOW() FROM SYSTEM_RANGE(1, ?)", USERS);
+        jdbcTemplate.update("INSERT INTO enrollments (user_id, course_id, status, type, enrolled_at) " +
+                "SELECT u.id, c.id, CASE MOD(u.id + c.id, 3) WHEN 0 THEN 'COMPLETED' WHEN 1 THEN 'IN_PROGRESS' " +
+                "ELSE 'ENROLLED' END, 'OPTIONAL', DATEADD('DAY', -MOD(u.id * 31 + c.id, 400), NOW()) " +
+                "FROM users u CROSS JOIN courses c WHERE u.email LIKE '%@cube.test' AND MOD(u.id + c.id, 2) = 0");
+        jdbcTemplate.update("INSERT INTO certificates (user_id, course_id, certificate_number, status, issued_at) " +
+                "SELECT e.user_id, e.course_id, CONCAT('CUBE-', e.id), 'ISSUED', DATEADD('DAY', 1, e.enrolled_at) " +
+                "FROM enrollments e JOIN users u ON u.id = e.user_id " +
+                "WHERE u.email LIKE '%@cube.test' AND e.status = 'COMPLETED'");
+        trainingCube.rebuild();
+        seeded = true;
+    }
+
+    @Test
+    public void testRollupSliceAndDiceMatchSql() {
+        assertMatchesSql(trainingCube.query(Fact.ENROLLMENTS, List.of(Dimension.CATEGORY, Dimension.STATUS), Map.of()),
+                "SELECT c.category, f.status, COUNT(*) " + ENROLLMENTS + "GROUP BY c.category, f.status");
+        assertMatchesSql(trainingCube.query(Fact.ENROLLMENTS, List.of(Dimension.MONTH),
+                        Map.of(Dimension.DEPARTMENT, Set.of("Sales"))),
+                "SELECT FORMATDATETIME(f.enrolled_at, 'yyyy-MM'), COUNT(*) " + ENROLLMENTS +
+                "WHERE u.department = 'Sales' GROUP BY FORMATDATETIME(f.enrolled_at, 'yyyy-MM')");
+        assertMatchesSql(trainingCube.query(Fact.CERTIFICATES, List.of(Dimension.DEPARTMENT),
+                        Map.of(Dimension.TYPE, Set.of("VIRTUAL", "HYBRID"), Dimension.ROLE, Set.of("EMPLOYEE"))),
+                "SELECT u.department, COUNT(*) FROM certificates f JOIN users u ON u.id = f.user_id " +
+                "JOIN courses c ON c.id = f.course_id " +
+                "WHERE c.type IN ('VIRTUAL', 'HYBRID') AND u.role = 'EMPLOYEE' GROUP BY u.department");
+    }
+
+    @Test
+    public void testWritesMoveCounts() {
+        long before = assertEngineeringComplianceMatchesSql();
+
+        Enrollment enrollment = new Enrollment(userRepository.getReferenceById(4L),
+                courseRepository.getReferenceById(5L), Enrollment.EnrollmentType.MANDATORY);
+        enrollment = enrollmentRepository.save(enrollment);
+        try {
+            trainingCube.refresh();
+            assertEquals(before + 1, assertEngineeringComplianceMatchesSql());
+
+            setDepartment(4L, "Training");
+            try {
+                trainingCube.refresh();
+                assertEngineeringComplianceMatchesSql();
+            } finally {
+                setDepartment(4L, "Engineering");
+            }
+            setCategory(5L, Course.CourseCategory.TECHNICAL);
+            try {
+                trainingCube.refresh();
+                assertEngineeringComplianceMatchesSql();
+            } finally {
+                setCategory(5L, Course.CourseCategory.COMPLIANCE);
+            }
+        } finally {
+            enrollmentRepository.deleteById(enrollment.getId());
+        }
+        trainingCube.refresh();
+        assertEquals(before, assertEngineeringComplianceMatchesSql());
+    }
+
+    @Test
+    public void testQueryLatencyAgainstSql() {
+        List<Dimension> groupBy = List.of(Dimension.DEPARTMENT, Dimension.CATEGORY);
+        for (int i = 0; i < QUERIES; i++) {
+            trainingCube.query(Fact.ENROLLMENTS, groupBy, Map.of());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            trainingCube.query(Fact.ENROLLMENTS, groupBy, Map.of());
+        }
+        double cubeUs = (System.nanoTime() - start) / 1000.0 / QUERIES;
+
+        String sql = "SELECT u.department, c.category, COUNT(*) " + ENROLLMENTS + "GROUP BY u.department, c.category";
+        jdbcTemplate.queryForList(sql);
+        start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            jdbcTemplate.queryForList(sql);
+        }
+        double sqlUs = (System.nanoTime() - start) / 1000.0 / 20;
+        System.out.printf("Training cube benchmark: department x category rollup, cube %.2fus, SQL %.2fus (%.0fx)%n",
+                cubeUs, sqlUs, sqlUs / cubeUs);
+    }
+
+    private long assertEngineeringComplianceMatchesSql() {
+        long total = trainingCube.query(Fact.ENROLLMENTS, List.of(), Map.of(Dimension.DEPARTMENT, Set.of("Engineering"),
+                Dimension.CATEGORY, Set.of("COMPLIANCE"))).total();
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) " + ENROLLMENTS +
+                "WHERE u.department = 'Engineering' AND c.category = 'COMPLIANCE'", Long.class), total);
+        return total;
+    }
+
+    private void setDepartment(Long userId, String department) {
+        User user = userRepository.findById(userId).orElseThrow();
+        user.setDepartment(department);
+        userRepository.save(user);
+    }
+
+    private void setCategory(Long courseId, Course.CourseCategory category) {
+        Course course = courseRepository.findById(courseId).orElseThrow();
+        course.setCategory(category);
+        courseRepository.save(course);
+    }
+
+    private void assertMatchesSql(TrainingCube.Result result, String sql) {
+        Map<String, Long> expected = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            StringBuilder key = new StringBuilder();
+            for (int column = 1; column < rs.getMetaData().getColumnCount(); column++) {
+                key.append(rs.getString(column)).append('|');
+            }
+            expected.put(key.toString(), rs.getLong(rs.getMetaData().getColumnCount()));
+        });
+        Map<String, Long> actual = new HashMap<>();
+        result.groups().forEach(group -> actual.put(
+                String.join("|", group.coordinates().values()) + "|", group.count()));
+        assertEquals(expected, actual);
+        assertEquals(expected.values().stream().mapToLong(Long::longValue).sum(), result.total());
+    }
+}
@@ -0,0 +1,141 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.model.Enrollment;
+import com.sasken.skillsync.model.User;
+import com.sasken.skillsync.repository.ChangeLogEntityListener;
+import com.sasken.skillsync.repository.ChangeLogRepository;
+import com.sasken.skillsync.repository.ComplianceRepository;
+import com.sasken.skillsync.repository.CourseRepository;
+import com.sasken.skillsync.repository.EnrollmentRepository;
+import com.sasken.skillsync.repository.UserRepository;
+import com.sasken.skillsync.service.UserBitmapIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+@DataJpaTest(properties = "user-index.refresh-interval-ms=3600000")
+@Import({UserBitmapIndex.class, ComplianceRepository.class, ChangeLogRepository.class, ChangeLogEntityListener.class,
+        SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class UserBitmapIndexTest {
+
+    private static final int QUERIES = 10_000;
+
+    @Autowired
+    private UserBitmapIndex userBitmapIndex;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Test
+    public void testMandatoryCourseNotCompletedFollowsEnrollments() {
+        // Active Engineering users without a completed Cybersecurity Awareness (course 5)
+        UserBitmapIndex.Query query = andNot(and(department("Engineering"), active(true)), completed(5L));
+        assertArrayEquals(new long[] {4}, userBitmapIndex.find(query));
+
+        Enrollment enrollment = new Enrollment(userRepository.getReferenceById(4L),
+                courseRepository.getReferenceById(5L), Enrollment.EnrollmentType.MANDATORY);
+        enrollment.setStatus(Enrollment.EnrollmentStatus.COMPLETED);
+        enrollment = enrollmentRepository.save(enrollment);
+        try {
+            userBitmapIndex.refresh();
+            assertArrayEquals(new long[0], userBitmapIndex.find(query));
+        } finally {
+            enrollmentRepository.deleteById(enrollment.getId());
+        }
+        userBitmapIndex.refresh();
+        assertArrayEquals(new long[] {4}, userBitmapIndex.find(query));
+    }
+
+    @Test
+    public void testUserChangesMoveBits() {
+        UserBitmapIndex.Query managers = new UserBitmapIndex.Query();
+        managers.setOr(List.of(role(User.UserRole.ADMIN), role(User.UserRole.MANAGER)));
+        UserBitmapIndex.Query activeManagers = and(managers, active(true));
+        assertArrayEquals(new long[] {1, 2}, userBitmapIndex.find(activeManagers));
+
+        setActive(2L, false);
+        try {
+            userBitmapIndex.refresh();
+            assertArrayEquals(new long[] {1}, userBitmapIndex.find(activeManagers));
+            assertArrayEquals(new long[] {2}, userBitmapIndex.find(active(false)));
+        } finally {
+            setActive(2L, true);
+        }
+        userBitmapIndex.refresh();
+        assertArrayEquals(new long[] {1, 2}, userBitmapIndex.find(activeManagers));
+    }
+
+    @Test
+    public void testQueryLatency() {
+        UserBitmapIndex.Query query = andNot(and(department("Engineering"), active(true)), completed(5L));
+        for (int i = 0; i < QUERIES; i++) {
+            userBitmapIndex.find(query);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            userBitmapIndex.find(query);
+        }
+        System.out.printf("User bitmap index benchmark: %d queries, mean %.2fus%n",
+                QUERIES, (System.nanoTime() - start) / 1000.0 / QUERIES);
+    }
+
+    private void setActive(Long userId, boolean active) {
+        User user = userRepository.findById(userId).orElseThrow();
+        user.setActive(active);
+        userRepository.save(user);
+    }
+
+    private static UserBitmapIndex.Query department(String department) {
+        UserBitmapIndex.Query query = new UserBitmapIndex.Query();
+        query.setDepartment(department);
+        return query;
+    }
+
+    private static UserBitmapIndex.Query role(User.UserRole role) {
+        UserBitmapIndex.Query query = new UserBitmapIndex.Query();
+        query.setRole(role);
+        return query;
+    }
+
+    private static UserBitmapIndex.Query active(boolean active) {
+        UserBitmapIndex.Query query = new UserBitmapIndex.Query();
+        query.setActive(active);
+        return query;
+    }
+
+    private static UserBitmapIndex.Query completed(Long courseId) {
+        UserBitmapIndex.Query query = new UserBitmapIndex.Query();
+        query.setCourseId(courseId);
+        query.setCourseStatus(Enrollment.EnrollmentStatus.COMPLETED);
+        return query;
+    }
+
+    private static UserBitmapIndex.Query and(UserBitmapIndex.Query... operands) {
+        UserBitmapIndex.Query query = new UserBitmapIndex.Query();
+        query.setAnd(List.of(operands));
+        return query;
+    }
+
+    private static UserBitmapIndex.Query andNot(UserBitmapIndex.Query... operands) {
+        UserBitmapIndex.Query query = new UserBitmapIndex.Query();
+        query.setAndNot(List.of(operands));
+        return query;
+    }
+}
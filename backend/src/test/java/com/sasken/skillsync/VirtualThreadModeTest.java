@@ -0,0 +1,87 @@
+package com.sasken.skillsync;
+
+import com.sasken.skillsync.config.AsyncConfig;
+import com.sasken.skillsync.config.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The project compiles for Java 17, so Thread.isVirtual is called reflectively
+@SpringJUnitConfig(VirtualThreadModeTest.TestConfig.class)
+@TestPropertySource(properties = {"spring.threads.virtual.enabled=true", "virtual-threads.pinning.threshold-ms=5"})
+@EnabledForJreRange(min = JRE.JAVA_21)
+@DirtiesContext
+public class VirtualThreadModeTest {
+
+    @Configuration
+    @Import({AsyncConfig.class, VirtualThreadPinningMonitor.class, SimpleMeterRegistry.class})
+    static class TestConfig {
+    }
+
+    private final Object monitor = new Object();
+
+    @Autowired
+    @Qualifier(AsyncConfig.PDF_EXECUTOR)
+    private AsyncTaskExecutor pdfExecutor;
+
+    @Autowired
+    @Qualifier(AsyncConfig.EMAIL_EXECUTOR)
+    private AsyncTaskExecutor emailExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testExecutorsRunTasksOnVirtualThreads() throws Exception {
+        SimpleAsyncTaskExecutor pdf = assertInstanceOf(SimpleAsyncTaskExecutor.class, pdfExecutor);
+        // CPU-heavy executors keep their explicit limit
+        assertEquals(2, pdf.getConcurrencyLimit());
+
+        CompletableFuture<Object> virtual = new CompletableFuture<>();
+        pdfExecutor.execute(() -> {
+            try {
+                virtual.complete(Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+            } catch (ReflectiveOperationException e) {
+                virtual.completeExceptionally(e);
+            }
+        });
+        assertEquals(Boolean.TRUE, virtual.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPinnedVirtualThreadIsCounted() throws Exception {
+        double before = meterRegistry.counter("skillsync.virtual.pinned").count();
+
+        // Blocking inside synchronized pins the virtual thread to its carrier
+        emailExecutor.submit(() -> {
+            synchronized (monitor) {
+                Thread.sleep(50);
+            }
+            return null;
+        }).get(10, TimeUnit.SECONDS);
+
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (meterRegistry.counter("skillsync.virtual.pinned").count() <= before) {
+            assertTrue(System.currentTimeMillis() < deadline, "Pinning was not reported in time");
+            Thread.sleep(50);
+        }
+    }
+}